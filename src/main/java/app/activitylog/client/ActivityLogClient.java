@@ -1,5 +1,6 @@
 package app.activitylog.client;
 
+import app.activitylog.dto.ActivityLogPage;
 import app.activitylog.dto.ActivityLogRequest;
 import app.activitylog.dto.ActivityLogResponse;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -15,8 +16,13 @@ public interface ActivityLogClient {
     @PostMapping("/api/v1/activity-log")
     ResponseEntity<ActivityLogResponse> logActivity(@RequestBody ActivityLogRequest request);
 
+    @PostMapping("/api/v1/activity-log/batch")
+    ResponseEntity<Void> logActivities(@RequestBody List<ActivityLogRequest> requests);
+
     @GetMapping("/api/v1/activity-log")
-    ResponseEntity<List<ActivityLogResponse>> getActivityLog(@RequestParam(name = "userId") UUID userId);
+    ResponseEntity<ActivityLogPage> getActivityLog(@RequestParam(name = "userId") UUID userId,
+                                                   @RequestParam(name = "before", required = false) String before,
+                                                   @RequestParam(name = "size") int size);
 
     @DeleteMapping("/api/v1/activity-log")
     ResponseEntity<String> clearUserLogs(@RequestParam(name = "userId") UUID userId);
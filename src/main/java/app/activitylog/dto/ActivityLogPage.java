@@ -0,0 +1,21 @@
+package app.activitylog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Entries of one user's activity log, newest first. {@code nextCursor} is passed back as
+ * {@code before} to fetch the older entries and is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityLogPage {
+    private List<ActivityLogResponse> entries;
+    private String nextCursor;
+}
@@ -1,13 +1,20 @@
 package app.activitylog.dto;
 
+import app.activitylog.model.ActivityType;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.List;
 import java.util.UUID;
 
 @Data
 @Builder
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
 public class ActivityLogRequest {
     private UUID userId;
-    private String action;
+    private ActivityType type;
+    private UUID subjectId;
+    @Builder.Default
+    private List<String> params = List.of();
 }
@@ -1,11 +1,13 @@
 package app.activitylog.dto;
 
+import app.activitylog.model.ActivityType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -14,6 +16,17 @@ import java.util.UUID;
 @AllArgsConstructor
 public class ActivityLogResponse {
     private UUID userId;
+    private ActivityType type;
+    private UUID subjectId;
+    private List<String> params;
+    // Free-text entries recorded before activities were typed
     private String action;
     private LocalDateTime createdOn;
+
+    /**
+     * @return the sentence shown to the user.
+     */
+    public String getAction() {
+        return type != null ? type.render(params == null ? List.of() : params) : action;
+    }
 }
@@ -1,13 +1,27 @@
 package app.activitylog.event;
 
+import app.activitylog.model.ActivityType;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Data
 @AllArgsConstructor
 public class ActivityLogEvent {
     private UUID userId;
-    private String action;
-}
\ No newline at end of file
+    private ActivityType type;
+    private UUID subjectId;
+    private List<String> params;
+
+    public ActivityLogEvent(UUID userId, ActivityType type, UUID subjectId, String... params) {
+        this(userId, type, subjectId, Arrays.stream(params).map(param -> Objects.toString(param, "")).toList());
+    }
+
+    public String getAction() {
+        return type.render(params);
+    }
+}
@@ -0,0 +1,65 @@
+package app.activitylog.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+
+/**
+ * What an activity-log entry records. Entries carry the code and a few parameters; the sentence
+ * shown to the user is only built from the template when the entry is displayed.
+ */
+public enum ActivityType {
+    REGISTERED(1, "You have successfully registered with username: %s"),
+    PROFILE_PICTURE_UPDATED(2, "You have successfully updated your profile picture"),
+    USERNAME_UPDATED(3, "You have successfully updated your username to: %s"),
+    EMAIL_UPDATED(4, "You have successfully updated your email to: %s"),
+    PASSWORD_UPDATED(5, "You have successfully updated your password"),
+    RECIPE_ADDED(6, "You have successfully added recipe: %s"),
+    RECIPE_UPDATED(7, "You have successfully updated recipe: %s"),
+    RECIPE_DELETED(8, "You have successfully deleted recipe: %s"),
+    RECIPE_LIKED(9, "You have successfully liked recipe: %s"),
+    FAVORITE_ADDED(10, "You have successfully added recipe: %s to your favorites"),
+    FAVORITE_REMOVED(11, "You have successfully removed recipe: %s from your favorites"),
+    COMMENT_ADDED(12, "You have successfully commented on recipe: %s"),
+    COMMENT_REMOVED(13, "You have successfully removed your comment from recipe: %s"),
+    COMMENT_REMOVED_FROM_OWN_RECIPE(14, "You have successfully removed a comment from your recipe: %s"),
+    RECIPE_UNLIKED(15, "You have successfully unliked recipe: %s");
+
+    private static final ActivityType[] BY_CODE = new ActivityType[values().length + 1];
+
+    static {
+        for (ActivityType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+    private final String template;
+
+    ActivityType(int code, String template) {
+        this.code = code;
+        this.template = template;
+    }
+
+    /**
+     * Stable wire and storage code; never reuse or renumber one.
+     */
+    @JsonValue
+    public int getCode() {
+        return code;
+    }
+
+    public String render(List<String> params) {
+        return template.formatted(params.toArray());
+    }
+
+    @JsonCreator
+    public static ActivityType fromCode(int code) {
+        if (code <= 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown activity type code: " + code);
+        }
+
+        return BY_CODE[code];
+    }
+}
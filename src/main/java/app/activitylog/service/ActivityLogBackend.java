@@ -0,0 +1,26 @@
+package app.activitylog.service;
+
+import app.activitylog.dto.ActivityLogRequest;
+import app.activitylog.dto.ActivityLogPage;
+
+import java.util.UUID;
+
+/**
+ * Where activity-log entries are stored. Selected with {@code activity.log.backend}: {@code remote}
+ * (the default) talks to the activity-log service, {@code embedded} keeps the log on local disk.
+ */
+public interface ActivityLogBackend {
+
+    /**
+     * @return false if the entry was dropped.
+     */
+    boolean record(ActivityLogRequest request);
+
+    /**
+     * @param before the {@code nextCursor} of the previous page, or null for the newest entries.
+     * @return up to {@code size} of the user's entries, newest first.
+     */
+    ActivityLogPage getActivityLog(UUID userId, String before, int size);
+
+    void clear(UUID userId);
+}
@@ -0,0 +1,106 @@
+package app.activitylog.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops calling the activity-log service for a while once it has failed {@code failure-threshold}
+ * times in a row. After the open period a single probe call is let through: if it succeeds the
+ * breaker closes again, otherwise it stays open for another period.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "activity.log.backend", havingValue = "remote", matchIfMissing = true)
+public class ActivityLogCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final MeterRegistry meterRegistry;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probing;
+
+    public ActivityLogCircuitBreaker(MeterRegistry meterRegistry,
+                                     @Value("${activity.log.circuit.failure-threshold:5}") int failureThreshold,
+                                     @Value("${activity.log.circuit.open-ms:30000}") long openMs) {
+        this.meterRegistry = meterRegistry;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+
+        meterRegistry.gauge("activity.log.circuit.state", this, breaker -> breaker.getState().ordinal());
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return whether a call may be made now. A caller that gets true must report the outcome
+     * through {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED -> {
+                return true;
+            }
+            case OPEN -> {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+
+                transitionTo(State.HALF_OPEN);
+                probing = true;
+                return true;
+            }
+            default -> {
+                if (probing) {
+                    return false;
+                }
+
+                probing = true;
+                return true;
+            }
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probing = false;
+
+        if (state != State.CLOSED) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    public synchronized void onFailure() {
+        probing = false;
+
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            consecutiveFailures = 0;
+            openedAt = System.nanoTime();
+
+            if (state != State.OPEN) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    private void transitionTo(State next) {
+        log.info("Activity-log circuit breaker moved from {} to {}", state, next);
+        meterRegistry.counter("activity.log.circuit.transitions", "from", state.name(), "to", next.name()).increment();
+        state = next;
+    }
+}
@@ -0,0 +1,111 @@
+package app.activitylog.service;
+
+import app.activitylog.dto.ActivityLogRequest;
+import app.activitylog.model.ActivityType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary form of an activity-log entry shared by the spool and the embedded backend:
+ * {@code [user id][type code][subject flag][subject id?][param count]([length][UTF-8])*}.
+ * The count is one unsigned byte and each length an unsigned short, which bounds what an entry
+ * can carry: too many parameters is rejected, and a longer parameter is cut to fit.
+ */
+final class ActivityLogCodec {
+
+    private static final int UUID_BYTES = 2 * Long.BYTES;
+    static final int MAX_PARAMS = 0xFF;
+    static final int MAX_PARAM_BYTES = 0xFFFF;
+
+    private ActivityLogCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the request has more than {@link #MAX_PARAMS} parameters.
+     */
+    static byte[] encode(ActivityLogRequest request) {
+        if (request.getParams().size() > MAX_PARAMS) {
+            throw new IllegalArgumentException("An activity-log entry holds at most " + MAX_PARAMS
+                    + " parameters, got " + request.getParams().size());
+        }
+
+        List<byte[]> params = request.getParams().stream()
+                .map(ActivityLogCodec::utf8)
+                .toList();
+        int size = UUID_BYTES + 3 + (request.getSubjectId() != null ? UUID_BYTES : 0)
+                + params.stream().mapToInt(param -> Short.BYTES + param.length).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+
+        putUuid(buffer, request.getUserId());
+        buffer.put((byte) request.getType().getCode());
+        buffer.put((byte) (request.getSubjectId() != null ? 1 : 0));
+        if (request.getSubjectId() != null) {
+            putUuid(buffer, request.getSubjectId());
+        }
+
+        buffer.put((byte) params.size());
+        for (byte[] param : params) {
+            buffer.putShort((short) param.length);
+            buffer.put(param);
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Reads one entry starting at the buffer's position.
+     */
+    static ActivityLogRequest decode(ByteBuffer buffer) {
+        UUID userId = getUuid(buffer);
+        ActivityType type = ActivityType.fromCode(Byte.toUnsignedInt(buffer.get()));
+        UUID subjectId = buffer.get() != 0 ? getUuid(buffer) : null;
+
+        int count = Byte.toUnsignedInt(buffer.get());
+        List<String> params = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] param = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(param);
+            params.add(new String(param, StandardCharsets.UTF_8));
+        }
+
+        return ActivityLogRequest.builder()
+                .userId(userId)
+                .type(type)
+                .subjectId(subjectId)
+                .params(params)
+                .build();
+    }
+
+    // Cut at a character boundary, so a truncated parameter still decodes to whole characters
+    private static byte[] utf8(String param) {
+        byte[] bytes = param.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_PARAM_BYTES) {
+            return bytes;
+        }
+
+        int length = MAX_PARAM_BYTES;
+        while ((bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+
+        return Arrays.copyOf(bytes, length);
+    }
+
+    static UUID userIdOf(ByteBuffer buffer, int offset) {
+        return new UUID(buffer.getLong(offset), buffer.getLong(offset + Long.BYTES));
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -1,17 +1,13 @@
 package app.activitylog.service;
 
-import app.activitylog.client.ActivityLogClient;
+import app.activitylog.dto.ActivityLogPage;
 import app.activitylog.dto.ActivityLogRequest;
-import app.activitylog.dto.ActivityLogResponse;
 import app.activitylog.event.ActivityLogEvent;
-import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.List;
 import java.util.UUID;
 
 @RequiredArgsConstructor
@@ -19,36 +15,33 @@ import java.util.UUID;
 @Service
 public class ActivityLogService {
 
-    private final ActivityLogClient activityLogClient;
+    public static final int MAX_PAGE_SIZE = 100;
 
-    @EventListener
+    private final ActivityLogBackend activityLogBackend;
+
+    /**
+     * Runs once the publishing transaction has committed. The remote backend only queues the
+     * event, so neither the request thread nor the transaction waits on the activity-log service.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
     public void handleActivityLogEvent(ActivityLogEvent event) {
-        try {
-            ActivityLogRequest request = ActivityLogRequest.builder()
-                    .userId(event.getUserId())
-                    .action(event.getAction())
-                    .build();
-
-            activityLogClient.logActivity(request);
-            log.info("Successfully logged activity - {}", event.getAction());
-        } catch (FeignException e) {
-            log.error("Failed to log activity due to service unavailability: {}", e.getMessage());
-        } catch (Exception e) {
-            log.error("Unexpected error while logging activity: {}", e.getMessage(), e);
+        ActivityLogRequest request = ActivityLogRequest.builder()
+                .userId(event.getUserId())
+                .type(event.getType())
+                .subjectId(event.getSubjectId())
+                .params(event.getParams())
+                .build();
+
+        if (!activityLogBackend.record(request)) {
+            log.warn("Failed to record activity {} for user {}", event.getType(), event.getUserId());
         }
     }
 
-    public List<ActivityLogResponse> getActivityLog(UUID userId) {
-        ResponseEntity<List<ActivityLogResponse>> activityLog = activityLogClient.getActivityLog(userId);
-
-        return activityLog.getBody();
+    public ActivityLogPage getActivityLog(UUID userId, String before, int size) {
+        return activityLogBackend.getActivityLog(userId, before, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
     }
 
     public void deleteLogsByUserId(UUID userId) {
-        ResponseEntity<String> stringResponseEntity = activityLogClient.clearUserLogs(userId);
-
-        String body = stringResponseEntity.getBody();
-
-        log.info(body);
+        activityLogBackend.clear(userId);
     }
-}
\ No newline at end of file
+}
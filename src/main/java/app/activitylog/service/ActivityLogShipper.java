@@ -0,0 +1,291 @@
+package app.activitylog.service;
+
+import app.activitylog.client.ActivityLogClient;
+import app.activitylog.dto.ActivityLogRequest;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ships activity-log events to the remote service in batches from a single background thread.
+ * Events wait in a bounded, lock-free queue; what happens when it is full is decided by the
+ * configured {@link OverflowPolicy}. Batches that fail to reach the service go to the
+ * {@link ActivityLogSpool} and are replayed in order, with backoff, once it accepts them again.
+ * Until they are, new batches are appended behind them so delivery order is kept. A batch the
+ * service refuses with a client error would be refused on every retry, so it is dropped instead.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "activity.log.backend", havingValue = "remote", matchIfMissing = true)
+public class ActivityLogShipper {
+
+    private enum Delivery {
+        SHIPPED,
+        REJECTED,
+        FAILED
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * Wait up to {@code activity.log.block-timeout-ms} for room, then drop the event.
+         */
+        BLOCK,
+        /**
+         * Drop the event straight away.
+         */
+        DROP,
+        /**
+         * Append the event to the spool; it is shipped once the queue has drained.
+         */
+        SPILL
+    }
+
+    private final ActivityLogClient activityLogClient;
+    private final ActivityLogSpool spool;
+    private final OverflowPolicy overflowPolicy;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long blockTimeoutNanos;
+    private final long replayMaxBackoffNanos;
+
+    private final Queue<ActivityLogRequest> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final Counter shipped;
+    private final Counter spooled;
+    private final Counter droppedOverflow;
+    private final Counter droppedFailed;
+    private final Counter droppedRejected;
+
+    private volatile Thread worker;
+    private volatile boolean running;
+    private boolean redelivering;
+    private long replayBackoffNanos;
+    private long nextReplayAt = System.nanoTime();
+
+    public ActivityLogShipper(ActivityLogClient activityLogClient,
+                              ActivityLogSpool spool,
+                              MeterRegistry meterRegistry,
+                              @Value("${activity.log.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+                              @Value("${activity.log.queue-capacity:10000}") int capacity,
+                              @Value("${activity.log.batch-size:100}") int batchSize,
+                              @Value("${activity.log.flush-interval-ms:1000}") long flushIntervalMs,
+                              @Value("${activity.log.block-timeout-ms:50}") long blockTimeoutMs,
+                              @Value("${activity.log.replay-max-backoff-ms:60000}") long replayMaxBackoffMs) {
+        this.activityLogClient = activityLogClient;
+        this.spool = spool;
+        this.overflowPolicy = overflowPolicy;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        this.replayMaxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(replayMaxBackoffMs);
+
+        meterRegistry.gauge("activity.log.queue.depth", depth);
+        this.shipped = meterRegistry.counter("activity.log.events", "outcome", "shipped");
+        this.spooled = meterRegistry.counter("activity.log.events", "outcome", "spooled");
+        this.droppedOverflow = meterRegistry.counter("activity.log.events", "outcome", "dropped", "reason", "overflow");
+        this.droppedFailed = meterRegistry.counter("activity.log.events", "outcome", "dropped", "reason", "failed");
+        this.droppedRejected = meterRegistry.counter("activity.log.events", "outcome", "dropped", "reason", "rejected");
+    }
+
+    @PostConstruct
+    public void start() {
+        // Events left over from a previous run go out before new ones
+        redelivering = !spool.isEmpty();
+        running = true;
+        worker = new Thread(this::run, "activity-log-shipper");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 5_000);
+    }
+
+    /**
+     * Queues an event for shipping. Never blocks longer than the configured block timeout.
+     *
+     * @return false if the event was dropped.
+     */
+    public boolean offer(ActivityLogRequest request) {
+        if (tryEnqueue(request)) {
+            return true;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                long deadline = System.nanoTime() + blockTimeoutNanos;
+
+                while (System.nanoTime() < deadline) {
+                    LockSupport.unpark(worker);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+
+                    if (tryEnqueue(request)) {
+                        return true;
+                    }
+                }
+            }
+            case SPILL -> {
+                try {
+                    spool.append(List.of(request));
+                    spooled.increment();
+                    return true;
+                } catch (IOException e) {
+                    log.error("Failed to spool activity-log event: {}", e.getMessage());
+                }
+            }
+            case DROP -> {
+                // Dropped below
+            }
+        }
+
+        droppedOverflow.increment();
+        return false;
+    }
+
+    /**
+     * Ships everything that is queued, then replays the spool if its backoff has elapsed.
+     */
+    public synchronized void flush() {
+        for (List<ActivityLogRequest> batch = poll(); !batch.isEmpty(); batch = poll()) {
+            if (redelivering || send(batch) == Delivery.FAILED) {
+                redelivering = true;
+                spoolBatch(batch);
+            }
+        }
+
+        if (System.nanoTime() - nextReplayAt >= 0) {
+            replay();
+        }
+    }
+
+    private boolean tryEnqueue(ActivityLogRequest request) {
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            return false;
+        }
+
+        queue.offer(request);
+
+        if (depth.get() >= batchSize) {
+            LockSupport.unpark(worker);
+        }
+
+        return true;
+    }
+
+    private List<ActivityLogRequest> poll() {
+        List<ActivityLogRequest> batch = new ArrayList<>(Math.min(batchSize, depth.get()));
+
+        for (ActivityLogRequest request = queue.poll(); request != null; request = queue.poll()) {
+            depth.decrementAndGet();
+            batch.add(request);
+
+            if (batch.size() == batchSize) {
+                break;
+            }
+        }
+
+        return batch;
+    }
+
+    private Delivery send(List<ActivityLogRequest> batch) {
+        try {
+            activityLogClient.logActivities(batch);
+            shipped.increment(batch.size());
+            return Delivery.SHIPPED;
+        } catch (FeignException.FeignClientException e) {
+            if (isRetryable(e.status())) {
+                log.warn("Failed to ship {} activity-log events: {}", batch.size(), e.getMessage());
+                return Delivery.FAILED;
+            }
+
+            droppedRejected.increment(batch.size());
+            log.error("Dropped {} activity-log events the service rejected with status {}: {}",
+                    batch.size(), e.status(), e.getMessage());
+            return Delivery.REJECTED;
+        } catch (Exception e) {
+            // Timeouts, connection errors and server errors
+            log.warn("Failed to ship {} activity-log events: {}", batch.size(), e.getMessage());
+            return Delivery.FAILED;
+        }
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == HttpStatus.REQUEST_TIMEOUT.value() || status == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private void spoolBatch(List<ActivityLogRequest> batch) {
+        try {
+            spool.append(batch);
+            spooled.increment(batch.size());
+        } catch (IOException e) {
+            droppedFailed.increment(batch.size());
+            log.error("Failed to spool {} activity-log events: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void replay() {
+        try {
+            while (!spool.isEmpty()) {
+                ActivityLogSpool.Batch batch = spool.read(batchSize);
+
+                if (!batch.requests().isEmpty() && send(batch.requests()) == Delivery.FAILED) {
+                    replayBackoffNanos = Math.min(Math.max(2 * replayBackoffNanos, flushIntervalNanos), replayMaxBackoffNanos);
+                    nextReplayAt = System.nanoTime() + replayBackoffNanos;
+                    return;
+                }
+
+                spool.acknowledge(batch);
+            }
+
+            redelivering = false;
+            replayBackoffNanos = 0;
+        } catch (IOException e) {
+            log.error("Failed to replay spooled activity-log events: {}", e.getMessage());
+        }
+    }
+
+    private void run() {
+        while (running) {
+            if (depth.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+
+            flushSafely();
+        }
+
+        // Ship what was queued while shutting down
+        flushSafely();
+    }
+
+    // This is the only shipper thread; if it died, nothing would ship again and the queue would fill
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush activity-log events", e);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package app.activitylog.service;
+
+import app.activitylog.dto.ActivityLogRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only spool for activity-log events that could not be delivered. Events are written to
+ * numbered segment files as {@code [payload length][CRC32C][entry]} records, each entry encoded
+ * by {@link ActivityLogCodec}, and read back in order through memory-mapped views. A checkpoint
+ * file records how far delivery has got; fully delivered segments are deleted and, once
+ * everything is delivered, the active segment is truncated. When the spool outgrows
+ * {@code max-segments}, the oldest segment is discarded.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "activity.log.backend", havingValue = "remote", matchIfMissing = true)
+public class ActivityLogSpool {
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    // User id, type code, subject flag and parameter count
+    private static final int MIN_ENTRY_BYTES = 2 * Long.BYTES + 3;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxSegments;
+    private final Counter droppedFull;
+
+    private final TreeSet<Long> segments = new TreeSet<>();
+    private FileChannel active;
+    private long activeSequence;
+    private long readSequence;
+    private long readOffset;
+
+    public ActivityLogSpool(@Value("${activity.log.spool.directory:${java.io.tmpdir}/insta-recipe/activity-log-spool}") Path directory,
+                            @Value("${activity.log.spool.segment-bytes:4194304}") long segmentBytes,
+                            @Value("${activity.log.spool.max-segments:16}") int maxSegments,
+                            MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.droppedFull = meterRegistry.counter("activity.log.events", "outcome", "dropped", "reason", "spool-full");
+        meterRegistry.gauge("activity.log.spool.segments", segments, TreeSet::size);
+    }
+
+    /**
+     * A run of spooled events and the position just after them, to be passed to
+     * {@link #acknowledge(Batch)} once the events are delivered.
+     */
+    public record Batch(List<ActivityLogRequest> requests, long sequence, long offset) {
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(ActivityLogSpool::sequenceOf)
+                    .filter(sequence -> sequence >= 0)
+                    .forEach(segments::add);
+        }
+
+        readCheckpoint();
+
+        // Segments before the checkpoint were delivered but not yet deleted
+        while (!segments.isEmpty() && segments.first() < readSequence) {
+            Files.deleteIfExists(segmentPath(segments.pollFirst()));
+        }
+
+        if (segments.isEmpty()) {
+            openSegment(readSequence);
+            readOffset = 0;
+            return;
+        }
+
+        activeSequence = segments.last();
+        active = FileChannel.open(segmentPath(activeSequence), StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        // A crash mid-append leaves a torn record at the end of the active segment
+        long validLength = validLength(active);
+        if (validLength < active.size()) {
+            log.warn("Truncating {} torn bytes from activity-log spool segment {}", active.size() - validLength, activeSequence);
+            active.truncate(validLength);
+        }
+        active.position(validLength);
+
+        if (readSequence < segments.first()) {
+            readSequence = segments.first();
+            readOffset = 0;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (active != null) {
+            active.close();
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return readSequence == activeSequence && readOffset >= activeSize();
+    }
+
+    public synchronized void append(List<ActivityLogRequest> requests) throws IOException {
+        ByteBuffer records = encode(requests);
+
+        if (activeSize() > 0 && activeSize() + records.remaining() > segmentBytes) {
+            active.close();
+            openSegment(activeSequence + 1);
+        }
+
+        while (records.hasRemaining()) {
+            active.write(records);
+        }
+        active.force(false);
+
+        while (segments.size() > maxSegments) {
+            discardOldestSegment();
+        }
+    }
+
+    /**
+     * @return up to {@code max} of the oldest undelivered events, without removing them.
+     */
+    public synchronized Batch read(int max) throws IOException {
+        List<ActivityLogRequest> requests = new ArrayList<>();
+        long sequence = readSequence;
+        long offset = readOffset;
+
+        while (requests.size() < max) {
+            long size = sequence == activeSequence ? activeSize() : Files.size(segmentPath(sequence));
+
+            if (offset >= size) {
+                if (sequence == activeSequence) {
+                    break;
+                }
+
+                sequence = segments.higher(sequence);
+                offset = 0;
+                continue;
+            }
+
+            MappedByteBuffer buffer = map(sequence, offset, size - offset);
+
+            while (requests.size() < max && buffer.hasRemaining()) {
+                int start = buffer.position();
+                ByteBuffer entry = nextEntry(buffer);
+
+                if (entry == null) {
+                    // Without a valid length the next record boundary is unknown
+                    log.error("Corrupt record in activity-log spool segment {} at offset {}, skipping the remaining {} bytes of the segment",
+                            sequence, offset + start, buffer.remaining());
+                    buffer.position(buffer.limit());
+                    break;
+                }
+
+                try {
+                    requests.add(ActivityLogCodec.decode(entry));
+                } catch (IllegalArgumentException | BufferUnderflowException e) {
+                    // Intact but not decodable, e.g. written by a version with other activity types;
+                    // it would fail on every replay, so it is skipped like a corrupt record
+                    log.error("Undecodable record in activity-log spool segment {} at offset {}, skipping it: {}",
+                            sequence, offset + start, e.getMessage());
+                }
+            }
+
+            offset += buffer.position();
+        }
+
+        return new Batch(requests, sequence, offset);
+    }
+
+    public synchronized void acknowledge(Batch batch) throws IOException {
+        if (batch.sequence() < segments.first()) {
+            // The batch's segment was discarded while it was being delivered
+            readSequence = segments.first();
+            readOffset = 0;
+        } else {
+            readSequence = batch.sequence();
+            readOffset = batch.offset();
+        }
+
+        // Once everything is delivered the active segment starts over; the checkpoint is moved
+        // first so a crash in between replays delivered events instead of skipping new ones
+        boolean drained = isEmpty();
+        if (drained) {
+            readOffset = 0;
+        }
+
+        writeCheckpoint();
+
+        while (segments.first() < readSequence) {
+            Files.deleteIfExists(segmentPath(segments.pollFirst()));
+        }
+
+        if (drained) {
+            active.truncate(0);
+            active.position(0);
+        }
+    }
+
+    private void discardOldestSegment() throws IOException {
+        long oldest = segments.pollFirst();
+        Path path = segmentPath(oldest);
+
+        long from = oldest == readSequence ? readOffset : 0;
+        int discarded = 0;
+        MappedByteBuffer buffer = map(oldest, from, Files.size(path) - from);
+        while (buffer.hasRemaining() && nextEntry(buffer) != null) {
+            discarded++;
+        }
+
+        Files.delete(path);
+        droppedFull.increment(discarded);
+        log.error("Activity-log spool is full, discarded {} undelivered events", discarded);
+
+        readSequence = segments.first();
+        readOffset = 0;
+        writeCheckpoint();
+    }
+
+    private void openSegment(long sequence) throws IOException {
+        active = FileChannel.open(segmentPath(sequence),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active.truncate(0);
+        activeSequence = sequence;
+        segments.add(sequence);
+    }
+
+    private long activeSize() {
+        try {
+            return active.position();
+        } catch (IOException e) {
+            throw new IllegalStateException("Activity-log spool segment is not readable", e);
+        }
+    }
+
+    private MappedByteBuffer map(long sequence, long offset, long length) throws IOException {
+        if (sequence == activeSequence) {
+            return active.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+
+        try (FileChannel channel = FileChannel.open(segmentPath(sequence), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+    }
+
+    private static long validLength(FileChannel channel) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        long valid = 0;
+
+        while (buffer.hasRemaining() && nextEntry(buffer) != null) {
+            valid = buffer.position();
+        }
+
+        return valid;
+    }
+
+    private static ByteBuffer encode(List<ActivityLogRequest> requests) {
+        List<byte[]> entries = requests.stream()
+                .map(ActivityLogCodec::encode)
+                .toList();
+        int size = entries.stream().mapToInt(entry -> HEADER_BYTES + entry.length).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32C crc = new CRC32C();
+
+        for (byte[] entry : entries) {
+            crc.reset();
+            crc.update(entry);
+            buffer.putInt(entry.length);
+            buffer.putInt((int) crc.getValue());
+            buffer.put(entry);
+        }
+
+        return buffer.flip();
+    }
+
+    /**
+     * Moves the buffer past the next record.
+     *
+     * @return the record's entry bytes, or null if the buffer ends in a torn or corrupt record; in
+     * that case the buffer position is left at the start of that record.
+     */
+    private static ByteBuffer nextEntry(ByteBuffer buffer) {
+        int start = buffer.position();
+
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+
+        if (length < MIN_ENTRY_BYTES || length > buffer.remaining()) {
+            buffer.position(start);
+            return null;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(buffer.position(), length));
+
+        if ((int) crc.getValue() != checksum) {
+            buffer.position(start);
+            return null;
+        }
+
+        ByteBuffer entry = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return entry;
+    }
+
+    private void readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT);
+
+        if (!Files.exists(checkpoint)) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        readSequence = buffer.getLong();
+        readOffset = buffer.getLong();
+    }
+
+    private void writeCheckpoint() throws IOException {
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES)
+                .putLong(readSequence)
+                .putLong(readOffset)
+                .flip();
+
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(buffer);
+            channel.force(false);
+        }
+
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(SEGMENT_PREFIX + "%020d".formatted(sequence) + SEGMENT_SUFFIX);
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(name, SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package app.activitylog.service;
+
+import app.activitylog.dto.ActivityLogPage;
+import app.activitylog.dto.ActivityLogRequest;
+import app.activitylog.dto.ActivityLogResponse;
+import app.exception.InvalidCursorException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps the activity log in local append-only segment files instead of the remote service.
+ * Each record is {@code [payload length][CRC32C][type][epoch millis][entry]}, where the entry is
+ * encoded by {@link ActivityLogCodec} and always starts with the user id.
+ * An in-memory index holds, per user, the file positions of their entries in append order; it
+ * is rebuilt by scanning the segments on startup and lets a page of reverse-chronological reads
+ * start right at its cursor, which is the position of the last entry already shown.
+ * Clearing a user's log appends a tombstone record, which drops every earlier entry of that user
+ * when the segments are scanned again.
+ * <p>
+ * Cleared entries are not rewritten. The oldest segments are deleted once every entry in them
+ * has been cleared, but a segment behind one that still holds a live entry stays on disk, since
+ * its tombstones hide entries in the older segments.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "activity.log.backend", havingValue = "embedded")
+public class EmbeddedActivityLogBackend implements ActivityLogBackend {
+
+    private static final byte ENTRY = 0;
+    private static final byte TOMBSTONE = 1;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int USER_ID_OFFSET = 1 + Long.BYTES;
+    private static final int FIXED_PAYLOAD_BYTES = USER_ID_OFFSET + 2 * Long.BYTES;
+    // A position packs the segment number above the offset within the segment
+    private static final int OFFSET_BITS = 40;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentBytes;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Positions> index = new HashMap<>();
+    // Indexed entries per segment; a leading segment that drops to zero can be deleted
+    private final Map<Long, Integer> liveEntries = new HashMap<>();
+    private final TreeMap<Long, FileChannel> segments = new TreeMap<>();
+    private long activeSequence;
+    private long activeSize;
+
+    public EmbeddedActivityLogBackend(@Value("${activity.log.embedded.directory:data/activity-log}") Path directory,
+                                      @Value("${activity.log.embedded.segment-bytes:67108864}") long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Long> sequences;
+        try (Stream<Path> files = Files.list(directory)) {
+            sequences = files.map(EmbeddedActivityLogBackend::sequenceOf)
+                    .filter(sequence -> sequence >= 0)
+                    .sorted()
+                    .toList();
+        }
+
+        for (long sequence : sequences) {
+            FileChannel channel = FileChannel.open(segmentPath(sequence), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.put(sequence, channel);
+            activeSequence = sequence;
+            activeSize = scan(sequence, channel);
+        }
+
+        if (segments.isEmpty()) {
+            openSegment(0);
+        }
+
+        compact();
+
+        log.info("Opened embedded activity log with {} segments and {} users.", segments.size(), index.size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (FileChannel channel : segments.values()) {
+                channel.force(false);
+                channel.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean record(ActivityLogRequest request) {
+        lock.writeLock().lock();
+        try {
+            long position = append(ENTRY, System.currentTimeMillis(), ActivityLogCodec.encode(request));
+            addPosition(request.getUserId(), position);
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to append to embedded activity log: {}", e.getMessage());
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public ActivityLogPage getActivityLog(UUID userId, String before, int size) {
+        long beforePosition = before == null ? Long.MAX_VALUE : decodeCursor(before);
+
+        lock.readLock().lock();
+        try {
+            Positions positions = index.get(userId);
+
+            if (positions == null) {
+                return new ActivityLogPage(List.of(), null);
+            }
+
+            int end = positions.countBefore(beforePosition);
+            int start = Math.max(0, end - size);
+            List<ActivityLogResponse> entries = new ArrayList<>(end - start);
+
+            for (int i = end - 1; i >= start; i--) {
+                entries.add(readEntry(positions.get(i)));
+            }
+
+            return new ActivityLogPage(entries, start > 0 ? encodeCursor(positions.get(start)) : null);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read embedded activity log", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear(UUID userId) {
+        lock.writeLock().lock();
+        try {
+            if (removePositions(userId)) {
+                ByteBuffer tombstone = ByteBuffer.allocate(2 * Long.BYTES)
+                        .putLong(userId.getMostSignificantBits())
+                        .putLong(userId.getLeastSignificantBits());
+                append(TOMBSTONE, System.currentTimeMillis(), tombstone.array());
+                compact();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to clear embedded activity log", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long append(byte type, long createdOn, byte[] entry) throws IOException {
+        int length = USER_ID_OFFSET + entry.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + length);
+
+        record.position(HEADER_BYTES);
+        record.put(type)
+                .putLong(createdOn)
+                .put(entry);
+
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), HEADER_BYTES, length);
+        record.putInt(0, length).putInt(Integer.BYTES, (int) crc.getValue());
+        record.flip();
+
+        if (activeSize > 0 && activeSize + record.remaining() > segmentBytes) {
+            openSegment(activeSequence + 1);
+        }
+
+        long offset = activeSize;
+        FileChannel active = segments.get(activeSequence);
+        while (record.hasRemaining()) {
+            activeSize += active.write(record, activeSize);
+        }
+
+        return activeSequence << OFFSET_BITS | offset;
+    }
+
+    private ActivityLogResponse readEntry(long position) throws IOException {
+        FileChannel channel = segments.get(position >>> OFFSET_BITS);
+        long offset = position & ((1L << OFFSET_BITS) - 1);
+
+        ByteBuffer header = readFully(channel, offset, HEADER_BYTES);
+        ByteBuffer payload = readFully(channel, offset + HEADER_BYTES, header.getInt());
+
+        payload.get(); // Always an entry; tombstones are not indexed
+        long createdOn = payload.getLong();
+        ActivityLogRequest entry = ActivityLogCodec.decode(payload);
+
+        return ActivityLogResponse.builder()
+                .userId(entry.getUserId())
+                .type(entry.getType())
+                .subjectId(entry.getSubjectId())
+                .params(entry.getParams())
+                .createdOn(LocalDateTime.ofInstant(Instant.ofEpochMilli(createdOn), ZoneId.systemDefault()))
+                .build();
+    }
+
+    /**
+     * Applies the segment's records to the index and truncates a torn record at its end.
+     *
+     * @return the length of the valid part of the segment.
+     */
+    private long scan(long sequence, FileChannel channel) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        CRC32C crc = new CRC32C();
+
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int offset = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+
+            if (length < FIXED_PAYLOAD_BYTES || length > buffer.remaining()) {
+                buffer.position(offset);
+                break;
+            }
+
+            crc.reset();
+            crc.update(buffer.slice(buffer.position(), length));
+            if ((int) crc.getValue() != checksum) {
+                buffer.position(offset);
+                break;
+            }
+
+            byte type = buffer.get();
+            UUID userId = ActivityLogCodec.userIdOf(buffer, offset + HEADER_BYTES + USER_ID_OFFSET);
+            buffer.position(offset + HEADER_BYTES + length);
+
+            if (type == TOMBSTONE) {
+                removePositions(userId);
+            } else {
+                addPosition(userId, sequence << OFFSET_BITS | offset);
+            }
+        }
+
+        long valid = buffer.position();
+        if (valid < channel.size()) {
+            log.warn("Truncating {} torn bytes from activity log segment {}", channel.size() - valid, sequence);
+            channel.truncate(valid);
+        }
+
+        return valid;
+    }
+
+    private void addPosition(UUID userId, long position) {
+        index.computeIfAbsent(userId, id -> new Positions()).add(position);
+        liveEntries.merge(position >>> OFFSET_BITS, 1, Integer::sum);
+    }
+
+    /**
+     * @return false if the user had no entries.
+     */
+    private boolean removePositions(UUID userId) {
+        Positions positions = index.remove(userId);
+
+        if (positions == null) {
+            return false;
+        }
+
+        for (int i = 0; i < positions.size(); i++) {
+            liveEntries.merge(positions.get(i) >>> OFFSET_BITS, -1, Integer::sum);
+        }
+
+        return true;
+    }
+
+    /**
+     * Deletes the oldest segments while none of their entries is live. Only a leading run can go:
+     * a tombstone has to stay as long as an older segment holds entries it hides, or the next scan
+     * would bring them back.
+     */
+    private void compact() {
+        while (segments.firstKey() != activeSequence && liveEntries.getOrDefault(segments.firstKey(), 0) == 0) {
+            long sequence = segments.firstKey();
+
+            try {
+                Files.deleteIfExists(segmentPath(sequence));
+            } catch (IOException e) {
+                log.warn("Failed to delete cleared activity log segment {}: {}", sequence, e.getMessage());
+                return;
+            }
+
+            liveEntries.remove(sequence);
+            try {
+                segments.remove(sequence).close();
+            } catch (IOException e) {
+                log.warn("Failed to close deleted activity log segment {}: {}", sequence, e.getMessage());
+            }
+            log.info("Deleted activity log segment {}, every entry in it has been cleared", sequence);
+        }
+    }
+
+    private void openSegment(long sequence) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(sequence),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.put(sequence, channel);
+        activeSequence = sequence;
+        activeSize = 0;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of activity log segment");
+            }
+        }
+
+        return buffer.flip();
+    }
+
+    private static String encodeCursor(long position) {
+        return Long.toString(position, Character.MAX_RADIX);
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor, Character.MAX_RADIX);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid page cursor: " + cursor);
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(SEGMENT_PREFIX + "%020d".formatted(sequence) + SEGMENT_SUFFIX);
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(name, SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A growable array of file positions, ascending because entries are only ever appended.
+     */
+    private static final class Positions {
+        private long[] values = new long[8];
+        private int size;
+
+        private void add(long position) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = position;
+        }
+
+        private long get(int i) {
+            return values[i];
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int countBefore(long position) {
+            int found = Arrays.binarySearch(values, 0, size, position);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+}
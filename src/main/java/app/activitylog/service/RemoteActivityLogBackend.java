@@ -0,0 +1,133 @@
+package app.activitylog.service;
+
+import app.activitylog.client.ActivityLogClient;
+import app.activitylog.dto.ActivityLogRequest;
+import app.activitylog.dto.ActivityLogPage;
+import app.exception.ActivityLogUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Talks to the remote activity-log service. Reads go through a short-lived cache of the pages
+ * already fetched, bounded by page count, and a {@link ActivityLogCircuitBreaker}; while the
+ * service is failing or the breaker is open, the last page fetched for the same cursor is served
+ * instead.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "activity.log.backend", havingValue = "remote", matchIfMissing = true)
+public class RemoteActivityLogBackend implements ActivityLogBackend {
+
+    private final ActivityLogClient activityLogClient;
+    private final ActivityLogShipper activityLogShipper;
+    private final ActivityLogCircuitBreaker circuitBreaker;
+    private final long freshNanos;
+
+    // Kept past their freshness so they can stand in while the service is down
+    private final Cache<PageKey, CachedPage> pages;
+
+    public RemoteActivityLogBackend(ActivityLogClient activityLogClient,
+                                    ActivityLogShipper activityLogShipper,
+                                    ActivityLogCircuitBreaker circuitBreaker,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${activity.log.read.cache-ttl-ms:10000}") long cacheTtlMs,
+                                    @Value("${activity.log.read.fallback-ttl-ms:3600000}") long fallbackTtlMs,
+                                    @Value("${activity.log.read.cache-max-pages:50000}") long cacheMaxPages) {
+        this.activityLogClient = activityLogClient;
+        this.activityLogShipper = activityLogShipper;
+        this.circuitBreaker = circuitBreaker;
+        this.freshNanos = TimeUnit.MILLISECONDS.toNanos(cacheTtlMs);
+        this.pages = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(fallbackTtlMs))
+                .maximumSize(cacheMaxPages)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "activityLogPages");
+    }
+
+    @Override
+    public boolean record(ActivityLogRequest request) {
+        return activityLogShipper.offer(request);
+    }
+
+    @Override
+    public ActivityLogPage getActivityLog(UUID userId, String before, int size) {
+        PageKey key = new PageKey(userId, before, size);
+        CachedPage cached = pages.getIfPresent(key);
+
+        if (cached != null && System.nanoTime() - cached.fetchedAt() < freshNanos) {
+            return cached.page();
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            return fallback(cached, null);
+        }
+
+        ActivityLogPage page;
+        try {
+            ResponseEntity<ActivityLogPage> activityLog = activityLogClient.getActivityLog(userId, before, size);
+            page = activityLog.getBody();
+        } catch (FeignException.FeignClientException e) {
+            // The service answered; the request itself was wrong
+            circuitBreaker.onSuccess();
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            log.warn("Failed to read the activity log of user {}: {}", userId, e.getMessage());
+            return fallback(cached, e);
+        }
+
+        circuitBreaker.onSuccess();
+
+        if (page != null) {
+            pages.put(key, new CachedPage(page, System.nanoTime()));
+        }
+
+        return page;
+    }
+
+    @Override
+    public void clear(UUID userId) {
+        try {
+            ResponseEntity<String> stringResponseEntity = activityLogClient.clearUserLogs(userId);
+
+            String body = stringResponseEntity.getBody();
+
+            log.info(body);
+        } finally {
+            // Also drops pages a concurrent read fetched before the logs were cleared
+            pages.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+        }
+    }
+
+    private static ActivityLogPage fallback(CachedPage cached, RuntimeException failure) {
+        if (cached != null) {
+            return cached.page();
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        throw new ActivityLogUnavailableException("The activity log service is currently unavailable.");
+    }
+
+    private record PageKey(UUID userId, String before, int size) {
+    }
+
+    private record CachedPage(ActivityLogPage page, long fetchedAt) {
+    }
+}
@@ -1,15 +1,11 @@
 package app.category.repository;
 
 import app.category.model.Category;
-import app.category.model.CategoryName;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, UUID> {
-
-    Optional<Category> findByName(CategoryName name);
 }
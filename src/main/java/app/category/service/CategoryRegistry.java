@@ -0,0 +1,77 @@
+package app.category.service;
+
+import app.category.model.Category;
+import app.category.model.CategoryName;
+import app.category.repository.CategoryRepository;
+import app.exception.CategoryNotFoundException;
+import app.mapper.DtoMapper;
+import app.web.dto.CategoryShort;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The categories are a fixed, seeded set, so they are loaded once at startup into an immutable
+ * {@link EnumMap} that every lookup reads without a lock or a query. Recipes get their categories
+ * as entity references built from the cached ids. A name that is missing reloads the map once
+ * before it is reported, which picks up categories added after startup.
+ */
+@Slf4j
+@Component
+public class CategoryRegistry {
+
+    private final CategoryRepository categoryRepository;
+
+    // Replaced as a whole on refresh, never modified
+    private volatile Map<CategoryName, CategoryShort> categories = Collections.unmodifiableMap(new EnumMap<>(CategoryName.class));
+    private volatile List<CategoryShort> all = List.of();
+
+    public CategoryRegistry(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        Map<CategoryName, CategoryShort> loaded = new EnumMap<>(CategoryName.class);
+
+        for (Category category : categoryRepository.findAll()) {
+            loaded.put(category.getName(), DtoMapper.mapCategoryToCategoryShort(category));
+        }
+
+        all = List.copyOf(loaded.values());
+        categories = Collections.unmodifiableMap(loaded);
+
+        log.info("Loaded {} categories", loaded.size());
+    }
+
+    /**
+     * @return every category in the order of {@link CategoryName}.
+     */
+    public List<CategoryShort> getAll() {
+        return all;
+    }
+
+    /**
+     * @return a reference to the category, to be set on a recipe without loading the category.
+     */
+    public Category getReference(CategoryName name) {
+        CategoryShort category = categories.get(name);
+
+        if (category == null) {
+            refresh();
+            category = categories.get(name);
+        }
+
+        if (category == null) {
+            throw new CategoryNotFoundException("Category with name " + name + " not found");
+        }
+
+        return categoryRepository.getReferenceById(category.getId());
+    }
+}
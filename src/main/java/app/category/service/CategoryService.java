@@ -4,6 +4,7 @@ import app.category.model.Category;
 import app.category.model.CategoryName;
 import app.category.repository.CategoryRepository;
 import app.exception.CategoryNotFoundException;
+import app.web.dto.CategoryShort;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -15,17 +16,20 @@ import java.util.UUID;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
 
-    public List<Category> getAll() {
-        return categoryRepository.findAll();
+    public List<CategoryShort> getAll() {
+        return categoryRegistry.getAll();
     }
 
     public Category getById(UUID id) {
         return categoryRepository.findById(id).orElseThrow(() -> new CategoryNotFoundException("Category with id " + id + " not found"));
     }
 
+    /**
+     * @return a reference to the category, resolved without a query.
+     */
     public Category getByName(CategoryName categoryName) {
-        return categoryRepository.findByName(categoryName)
-                .orElseThrow(() -> new CategoryNotFoundException("Category with name " + categoryName + " not found"));
+        return categoryRegistry.getReference(categoryName);
     }
 }
\ No newline at end of file
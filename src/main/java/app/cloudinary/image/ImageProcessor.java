@@ -0,0 +1,234 @@
+package app.cloudinary.image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Shrinks uploads before they are sent to Cloudinary. The image is decoded once, subsampled
+ * while decoding when it is far larger than needed, scaled down to {@link #MAX_DIMENSION},
+ * turned upright according to its EXIF orientation and re-encoded. Renditions are then cut
+ * from this master by Cloudinary, see {@link ImageRendition}.
+ */
+@Slf4j
+@Component
+public class ImageProcessor {
+
+    static final int MAX_DIMENSION = 1600;
+
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final int EXIF_MARKER = 0xE1;
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    /**
+     * @param source the original upload.
+     * @return a new temp file with the processed image, or {@code source} itself when it is
+     * already small and upright or cannot be decoded (for example WebP or HEIC).
+     */
+    public Path process(Path source) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+
+            if (readers == null || !readers.hasNext()) {
+                return source;
+            }
+
+            ImageReader reader = readers.next();
+
+            try {
+                reader.setInput(input, true, false);
+                return process(source, reader);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not process image {}, uploading it unchanged: {}", source, e.getMessage());
+            return source;
+        }
+    }
+
+    private Path process(Path source, ImageReader reader) throws IOException {
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        int orientation = readOrientation(reader);
+
+        if (Math.max(width, height) <= MAX_DIMENSION && orientation <= 1) {
+            return source;
+        }
+
+        // Decode at the coarsest subsampling that still leaves at least MAX_DIMENSION pixels, so the
+        // halving in scale() does the rest of the reduction without aliasing
+        ImageReadParam param = reader.getDefaultReadParam();
+        int subsampling = Math.max(1, Math.max(width, height) / MAX_DIMENSION);
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+        BufferedImage image = reader.read(0, param);
+        image = orient(scale(image), orientation);
+
+        boolean hasAlpha = image.getColorModel().hasAlpha();
+        Path target = Files.createTempFile("recipe-image-", hasAlpha ? ".png" : ".jpg");
+
+        try {
+            if (hasAlpha) {
+                ImageIO.write(image, "png", target.toFile());
+            } else {
+                writeJpeg(image, target);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+
+        return target;
+    }
+
+    private static BufferedImage scale(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        // Halve repeatedly before the final step; a single bilinear pass over a large ratio aliases
+        while (Math.max(width, height) > MAX_DIMENSION) {
+            double factor = Math.max(0.5, (double) MAX_DIMENSION / Math.max(width, height));
+            width = Math.max(1, (int) Math.round(width * factor));
+            height = Math.max(1, (int) Math.round(height * factor));
+            image = draw(image, width, height, AffineTransform.getScaleInstance(
+                    (double) width / image.getWidth(), (double) height / image.getHeight()));
+        }
+
+        return image;
+    }
+
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> null;
+        };
+
+        if (transform == null) {
+            return image;
+        }
+
+        return orientation >= 5 ? draw(image, h, w, transform) : draw(image, w, h, transform);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, AffineTransform transform) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        return target;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Reads the EXIF orientation tag from a JPEG's APP1 segment, or 1 (upright) if there is none.
+     */
+    private static int readOrientation(ImageReader reader) throws IOException {
+        IIOMetadata metadata = reader.getImageMetadata(0);
+
+        if (metadata == null || !"javax_imageio_jpeg_image_1.0".equals(metadata.getNativeMetadataFormatName())) {
+            return 1;
+        }
+
+        Node tree = metadata.getAsTree("javax_imageio_jpeg_image_1.0");
+
+        for (Node section = tree.getFirstChild(); section != null; section = section.getNextSibling()) {
+            if (!"markerSequence".equals(section.getNodeName())) {
+                continue;
+            }
+
+            for (Node marker = section.getFirstChild(); marker != null; marker = marker.getNextSibling()) {
+                if (marker instanceof IIOMetadataNode node
+                        && "unknown".equals(node.getNodeName())
+                        && String.valueOf(EXIF_MARKER).equals(node.getAttribute("MarkerTag"))
+                        && node.getUserObject() instanceof byte[] data) {
+                    return parseOrientation(data);
+                }
+            }
+        }
+
+        return 1;
+    }
+
+    private static int parseOrientation(byte[] app1) {
+        // "Exif\0\0" followed by a TIFF header and the first IFD
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') {
+            return 1;
+        }
+
+        ByteBuffer tiff = ByteBuffer.wrap(app1, 6, app1.length - 6).slice();
+        tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+
+        int ifd = tiff.getInt(4);
+        if (ifd < 8 || ifd + 2 > tiff.limit()) {
+            return 1;
+        }
+
+        int entries = Short.toUnsignedInt(tiff.getShort(ifd));
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+
+            if (entry + 12 > tiff.limit()) {
+                break;
+            }
+
+            if (Short.toUnsignedInt(tiff.getShort(entry)) == ORIENTATION_TAG) {
+                return Short.toUnsignedInt(tiff.getShort(entry + 8));
+            }
+        }
+
+        return 1;
+    }
+}
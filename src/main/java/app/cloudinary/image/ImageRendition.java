@@ -0,0 +1,40 @@
+package app.cloudinary.image;
+
+/**
+ * Size-capped variants of an uploaded image. Cloudinary derives each one from the stored
+ * master on first request and serves it from its CDN afterwards, in the best format and
+ * quality the browser accepts.
+ */
+public enum ImageRendition {
+    CARD("c_fill,g_auto,w_600,h_400,q_auto,f_auto"),
+    DETAIL("c_limit,w_1200,h_1200,q_auto,f_auto"),
+    AVATAR("c_fill,g_face,w_160,h_160,q_auto,f_auto");
+
+    private static final String UPLOAD_SEGMENT = "/image/upload/";
+
+    private final String transformation;
+
+    ImageRendition(String transformation) {
+        this.transformation = transformation;
+    }
+
+    /**
+     * Rewrites a Cloudinary delivery URL to this rendition. Local images such as placeholders
+     * and default avatars are returned unchanged.
+     */
+    public String url(String imageUrl) {
+        if (imageUrl == null || !imageUrl.contains("res.cloudinary.com")) {
+            return imageUrl;
+        }
+
+        int upload = imageUrl.indexOf(UPLOAD_SEGMENT);
+
+        if (upload < 0) {
+            return imageUrl;
+        }
+
+        int insertAt = upload + UPLOAD_SEGMENT.length();
+
+        return imageUrl.substring(0, insertAt) + transformation + "/" + imageUrl.substring(insertAt);
+    }
+}
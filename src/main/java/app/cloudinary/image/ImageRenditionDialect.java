@@ -0,0 +1,40 @@
+package app.cloudinary.image;
+
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.dialect.AbstractDialect;
+import org.thymeleaf.dialect.IExpressionObjectDialect;
+import org.thymeleaf.expression.IExpressionObjectFactory;
+
+import java.util.Set;
+
+@Component
+public class ImageRenditionDialect extends AbstractDialect implements IExpressionObjectDialect {
+
+    private static final String IMAGES = "images";
+    private static final ImageRenditions RENDITIONS = new ImageRenditions();
+
+    public ImageRenditionDialect() {
+        super("Image Renditions");
+    }
+
+    @Override
+    public IExpressionObjectFactory getExpressionObjectFactory() {
+        return new IExpressionObjectFactory() {
+            @Override
+            public Set<String> getAllExpressionObjectNames() {
+                return Set.of(IMAGES);
+            }
+
+            @Override
+            public Object buildObject(IExpressionContext context, String expressionObjectName) {
+                return IMAGES.equals(expressionObjectName) ? RENDITIONS : null;
+            }
+
+            @Override
+            public boolean isCacheable(String expressionObjectName) {
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package app.cloudinary.image;
+
+/**
+ * Exposes {@link ImageRendition} to templates that render entities directly, as
+ * {@code ${#images.card(recipe.image)}}.
+ */
+public class ImageRenditions {
+
+    public String card(String imageUrl) {
+        return ImageRendition.CARD.url(imageUrl);
+    }
+
+    public String detail(String imageUrl) {
+        return ImageRendition.DETAIL.url(imageUrl);
+    }
+
+    public String avatar(String imageUrl) {
+        return ImageRendition.AVATAR.url(imageUrl);
+    }
+}
@@ -0,0 +1,46 @@
+package app.cloudinary.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A Cloudinary image waiting to be destroyed. Rows are written in the same transaction that
+ * drops the last reference to the image and drained in batches by a scheduled worker.
+ */
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "pending_image_deletions", indexes = @Index(columnList = "nextAttemptAt"))
+public class PendingImageDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private String publicId;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdDate;
+
+    @PrePersist
+    protected void onCreate() {
+        createdDate = LocalDateTime.now();
+
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdDate;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package app.cloudinary.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An image stored in Cloudinary, keyed by the SHA-256 of the uploaded content. Everything that
+ * points at the image holds one reference; the remote asset is destroyed with the last one.
+ */
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "stored_images")
+public class StoredImage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, unique = true)
+    private String publicId;
+
+    @Column(nullable = false)
+    private String url;
+
+    @Column(nullable = false)
+    private int referenceCount;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdDate;
+
+    @PrePersist
+    protected void onCreate() {
+        createdDate = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,19 @@
+package app.cloudinary.repository;
+
+import app.cloudinary.model.PendingImageDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PendingImageDeletionRepository extends JpaRepository<PendingImageDeletion, UUID> {
+
+    @Query("SELECT p FROM PendingImageDeletion p WHERE p.nextAttemptAt <= :now ORDER BY p.nextAttemptAt")
+    List<PendingImageDeletion> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+}
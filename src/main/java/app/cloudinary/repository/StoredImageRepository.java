@@ -0,0 +1,37 @@
+package app.cloudinary.repository;
+
+import app.cloudinary.model.StoredImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StoredImageRepository extends JpaRepository<StoredImage, UUID> {
+    Optional<StoredImage> findByContentHash(String contentHash);
+
+    boolean existsByPublicId(String publicId);
+
+    /**
+     * @return 0 if the image was released concurrently and must be uploaded again.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredImage s SET s.referenceCount = s.referenceCount + 1 WHERE s.id = :id AND s.referenceCount > 0")
+    int acquire(@Param("id") UUID id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredImage s SET s.referenceCount = s.referenceCount - 1 WHERE s.publicId = :publicId AND s.referenceCount > 0")
+    int release(@Param("publicId") String publicId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoredImage s WHERE s.publicId = :publicId AND s.referenceCount = 0")
+    int deleteIfUnreferenced(@Param("publicId") String publicId);
+}
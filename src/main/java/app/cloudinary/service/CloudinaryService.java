@@ -1,50 +1,233 @@
 package app.cloudinary.service;
 
 import app.cloudinary.dto.ImageUploadResult;
+import app.cloudinary.image.ImageProcessor;
+import app.cloudinary.model.PendingImageDeletion;
+import app.cloudinary.model.StoredImage;
+import app.cloudinary.repository.PendingImageDeletionRepository;
+import app.cloudinary.repository.StoredImageRepository;
 import app.exception.ImageUploadException;
 import com.cloudinary.Cloudinary;
+import com.cloudinary.api.ApiResponse;
 import com.cloudinary.utils.ObjectUtils;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+@Slf4j
 @RequiredArgsConstructor
 @Service
 public class CloudinaryService {
 
     private final Cloudinary cloudinary;
+    private final ImageProcessor imageProcessor;
+    private final StoredImageRepository storedImageRepository;
+    private final PendingImageDeletionRepository pendingImageDeletionRepository;
 
     /**
-     * Uploads a file to Cloudinary and returns the secure URL.
+     * Uploads a file to Cloudinary and returns the secure URL. The part is staged on disk and
+     * streamed from there, so the image is never copied into a heap byte array.
      *
      * @param file the MultipartFile to upload.
      * @return the secure URL of the uploaded image.
      */
-
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ImageUploadResult uploadImage(MultipartFile file) {
+        Path staged = stageImage(file);
+
         try {
-            Map<?, ?> uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap());
-            return new ImageUploadResult(
-                    uploadResult.get("secure_url").toString(),
-                    uploadResult.get("public_id").toString()
-            );
+            return uploadImage(staged);
+        } finally {
+            discardStagedImage(staged);
+        }
+    }
+
+    /**
+     * Moves the multipart upload into a temp file that outlives the request, so the upload to
+     * Cloudinary can run in the background. Disk-backed parts are moved, not copied.
+     *
+     * @param file the MultipartFile to stage.
+     * @return the path of the staged file; the caller is responsible for deleting it.
+     */
+    public Path stageImage(MultipartFile file) {
+        try {
+            Path staged = Files.createTempFile("recipe-image-", ".upload");
+            file.transferTo(staged);
+            return staged;
         } catch (IOException e) {
-            throw new ImageUploadException("Failed to upload image to Cloudinary");
+            throw new ImageUploadException("Failed to stage image for upload");
+        }
+    }
+
+    /**
+     * Deletes a staged file, logging instead of failing if it cannot be removed.
+     *
+     * @param file the path returned by {@link #stageImage(MultipartFile)}.
+     */
+    public void discardStagedImage(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete staged image {}", file, e);
+        }
+    }
+
+    /**
+     * Uploads a staged file to Cloudinary. If an image with the same content is already stored,
+     * it gains a reference and is returned instead. Otherwise the image is downscaled and
+     * re-encoded if it is larger than needed, then streamed from disk.
+     * <p>
+     * Runs outside the caller's transaction, so the remote call does not hold its connection and
+     * losing a race to record the image does not mark the caller's transaction for rollback.
+     *
+     * @param file the staged file to upload.
+     * @return the secure URL and public ID of the uploaded image.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImageUploadResult uploadImage(Path file) {
+        String contentHash = sha256(file);
+
+        Optional<ImageUploadResult> stored = acquireStoredImage(contentHash);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        ImageUploadResult uploaded = upload(file);
+
+        try {
+            storedImageRepository.save(StoredImage.builder()
+                    .contentHash(contentHash)
+                    .publicId(uploaded.getPublicId())
+                    .url(uploaded.getImageUrl())
+                    .referenceCount(1)
+                    .build());
+
+            return uploaded;
+        } catch (DataIntegrityViolationException e) {
+            // The same image was uploaded concurrently; keep the copy that got recorded first
+            Optional<ImageUploadResult> recorded = acquireStoredImage(contentHash);
+
+            if (recorded.isPresent()) {
+                scheduleDeletion(uploaded.getPublicId());
+                return recorded.get();
+            }
+
+            return uploaded;
         }
     }
 
-    // Delete an image using its public ID
+    /**
+     * Drops one reference to an image. Once nothing refers to it, the image is queued for
+     * deletion in the caller's transaction, or in one of its own when there is none; the remote
+     * asset is destroyed later in a batch.
+     *
+     * @param publicId the public ID of the image.
+     */
+    @Transactional
     public void deleteImage(String publicId) {
         if (publicId == null || publicId.isEmpty()) {
             return; // Nothing to delete
         }
+
+        boolean lastReference;
+        if (storedImageRepository.release(publicId) > 0) {
+            lastReference = storedImageRepository.deleteIfUnreferenced(publicId) > 0;
+        } else {
+            // Images uploaded before they were tracked have exactly one owner
+            lastReference = !storedImageRepository.existsByPublicId(publicId);
+        }
+
+        if (lastReference) {
+            scheduleDeletion(publicId);
+        }
+    }
+
+    /**
+     * Destroys a batch of images in Cloudinary with a single Admin API call.
+     *
+     * @param publicIds at most 100 public IDs.
+     * @return the public IDs that no longer exist in Cloudinary.
+     */
+    public Set<String> destroyImages(Collection<String> publicIds) {
+        ApiResponse response;
         try {
-            cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+            response = cloudinary.api().deleteResources(publicIds, ObjectUtils.emptyMap());
+        } catch (Exception e) {
+            throw new ImageUploadException("Failed to delete images from Cloudinary");
+        }
+
+        Map<?, ?> results = (Map<?, ?>) response.get("deleted");
+        if (results == null) {
+            return Set.of();
+        }
+
+        return results.entrySet().stream()
+                .filter(result -> "deleted".equals(result.getValue()) || "not_found".equals(result.getValue()))
+                .map(result -> result.getKey().toString())
+                .collect(Collectors.toSet());
+    }
+
+    private Optional<ImageUploadResult> acquireStoredImage(String contentHash) {
+        return storedImageRepository.findByContentHash(contentHash)
+                .filter(image -> storedImageRepository.acquire(image.getId()) > 0)
+                .map(image -> new ImageUploadResult(image.getUrl(), image.getPublicId()));
+    }
+
+    private ImageUploadResult upload(Path file) {
+        Path processed = imageProcessor.process(file);
+
+        try {
+            Map<?, ?> uploadResult = cloudinary.uploader().upload(processed.toFile(), ObjectUtils.emptyMap());
+            return new ImageUploadResult(
+                    uploadResult.get("secure_url").toString(),
+                    uploadResult.get("public_id").toString()
+            );
+        } catch (IOException e) {
+            throw new ImageUploadException("Failed to upload image to Cloudinary");
+        } finally {
+            if (!processed.equals(file)) {
+                discardStagedImage(processed);
+            }
+        }
+    }
+
+    private void scheduleDeletion(String publicId) {
+        pendingImageDeletionRepository.save(PendingImageDeletion.builder()
+                .publicId(publicId)
+                .build());
+    }
+
+    private static String sha256(Path file) {
+        try (InputStream input = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+
+            for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+
+            return HexFormat.of().formatHex(digest.digest());
         } catch (IOException e) {
-            throw new ImageUploadException("Failed to delete image from Cloudinary");
+            throw new ImageUploadException("Failed to read image for upload");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
-}
\ No newline at end of file
+}
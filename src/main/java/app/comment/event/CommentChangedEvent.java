@@ -0,0 +1,31 @@
+package app.comment.event;
+
+import app.web.dto.CommentByRecipe;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class CommentChangedEvent {
+
+    public enum Change {
+        ADDED,
+        DELETED
+    }
+
+    private UUID recipeId;
+    private Change change;
+    private UUID commentId;
+    // Only set for added comments
+    private CommentByRecipe comment;
+
+    public static CommentChangedEvent added(UUID recipeId, CommentByRecipe comment) {
+        return new CommentChangedEvent(recipeId, Change.ADDED, comment.getId(), comment);
+    }
+
+    public static CommentChangedEvent deleted(UUID recipeId, UUID commentId) {
+        return new CommentChangedEvent(recipeId, Change.DELETED, commentId, null);
+    }
+}
@@ -4,6 +4,8 @@ import app.recipe.model.Recipe;
 import app.user.model.User;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,7 +17,10 @@ import java.util.UUID;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "comments")
+@Table(name = "comments",
+        indexes = {
+                @Index(name = "idx_comments_recipe_date_id", columnList = "recipe_id, created_date, id"),
+                @Index(name = "idx_comments_created_date_id", columnList = "created_date, id")})
 public class Comment {
 
     @Id
@@ -34,5 +39,6 @@ public class Comment {
 
     @ManyToOne
     @JoinColumn(name = "recipe_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Recipe recipe;
 }
@@ -1,15 +1,64 @@
 package app.comment.repository;
 
 import app.comment.model.Comment;
+import app.web.dto.CommentByRecipe;
+import app.web.dto.CommentForAdminPage;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, UUID> {
-    List<Comment> findAllByRecipeIdOrderByCreatedDate(UUID id);
+    String COMMENT_BY_RECIPE = "SELECT new app.web.dto.CommentByRecipe(c.id, c.content, u.username, c.createdDate) " +
+            "FROM Comment c JOIN c.creator u WHERE c.recipe.id = :recipeId ";
+    String ADMIN_FILTER = "WHERE :authorPattern IS NULL OR u.username LIKE :authorPattern ESCAPE '!' " +
+            "OR c.content LIKE :contentPattern ESCAPE '!'";
 
     boolean existsByRecipe_Id(UUID recipeId);
+
+    @Query(COMMENT_BY_RECIPE + "ORDER BY c.createdDate DESC, c.id DESC")
+    List<CommentByRecipe> findNewestByRecipeId(@Param("recipeId") UUID recipeId, Pageable pageable);
+
+    @Query(COMMENT_BY_RECIPE + "AND (c.createdDate < :date OR (c.createdDate = :date AND c.id < :id)) " +
+            "ORDER BY c.createdDate DESC, c.id DESC")
+    List<CommentByRecipe> findNewestByRecipeIdBefore(@Param("recipeId") UUID recipeId,
+                                                     @Param("date") LocalDateTime date,
+                                                     @Param("id") UUID id,
+                                                     Pageable pageable);
+
+    @Query(COMMENT_BY_RECIPE + "AND (c.createdDate > :date OR (c.createdDate = :date AND c.id > :id)) " +
+            "ORDER BY c.createdDate, c.id")
+    List<CommentByRecipe> findOldestByRecipeIdAfter(@Param("recipeId") UUID recipeId,
+                                                    @Param("date") LocalDateTime date,
+                                                    @Param("id") UUID id,
+                                                    Pageable pageable);
+
+    @Query(value = "SELECT new app.web.dto.CommentForAdminPage(c.id, u.username, c.content, c.createdDate) " +
+            "FROM Comment c JOIN c.creator u " + ADMIN_FILTER,
+            countQuery = "SELECT COUNT(c) FROM Comment c JOIN c.creator u " + ADMIN_FILTER)
+    Page<CommentForAdminPage> findAdminPage(@Param("authorPattern") String authorPattern,
+                                            @Param("contentPattern") String contentPattern,
+                                            Pageable pageable);
+
+    @Query("SELECT c.id AS id, c.recipe.id AS recipeId FROM Comment c WHERE c.id IN :ids")
+    List<DeletableComment> findDeletableByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT c.id AS id, c.recipe.id AS recipeId FROM Comment c WHERE c.creator.id = :userId ORDER BY c.id")
+    List<DeletableComment> findDeletableByCreatorId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT COUNT(c) AS count, MAX(c.createdDate) AS latest FROM Comment c WHERE c.recipe.id = :recipeId")
+    CommentStatsView getStatsByRecipeId(@Param("recipeId") UUID recipeId);
 }
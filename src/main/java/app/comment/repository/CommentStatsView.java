@@ -0,0 +1,10 @@
+package app.comment.repository;
+
+import java.time.LocalDateTime;
+
+public interface CommentStatsView {
+
+    long getCount();
+
+    LocalDateTime getLatest();
+}
@@ -0,0 +1,9 @@
+package app.comment.repository;
+
+import java.util.UUID;
+
+public interface DeletableComment {
+    UUID getId();
+
+    UUID getRecipeId();
+}
@@ -1,19 +1,36 @@
 package app.comment.service;
 
 import app.activitylog.event.ActivityLogEvent;
+import app.activitylog.model.ActivityType;
+import app.comment.event.CommentChangedEvent;
 import app.comment.model.Comment;
 import app.comment.repository.CommentRepository;
+import app.comment.repository.CommentStatsView;
+import app.exception.InvalidCursorException;
 import app.recipe.model.Recipe;
+import app.recipe.model.RecipeSnapshot;
 import app.recipe.service.RecipeService;
 import app.user.model.User;
 import app.user.service.UserService;
+import app.web.dto.AdminGrid;
+import app.web.dto.CommentByRecipe;
+import app.web.dto.CommentForAdminPage;
+import app.web.dto.CommentPage;
+import app.web.dto.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -21,6 +38,10 @@ import java.util.UUID;
 @Service
 public class CommentService {
 
+    public static final Map<String, String> ADMIN_SORT_COLUMNS = Map.of(
+            "author", "u.username",
+            "createdDate", "c.createdDate");
+
     private final CommentRepository commentRepository;
     private final RecipeService recipeService;
     private final UserService userService;
@@ -28,12 +49,12 @@ public class CommentService {
 
     @Transactional
     public void add(String content, UUID recipeId, UUID userId) {
-        Recipe recipe = recipeService.getById(recipeId);
+        RecipeSnapshot recipe = recipeService.getSnapshot(recipeId);
         User user = userService.getUserById(userId);
 
         Comment comment = Comment.builder()
                 .content(content.trim())
-                .recipe(recipe)
+                .recipe(recipeService.getReference(recipeId))
                 .creator(user)
                 .createdDate(LocalDateTime.now())
                 .build();
@@ -41,11 +62,55 @@ public class CommentService {
         commentRepository.save(comment);
 
         eventPublisher.publishEvent(new ActivityLogEvent(user.getId(),
-                "You have successfully commented [%s], on recipe: %s".formatted(comment.getContent(), recipe.getTitle())));
+                ActivityType.COMMENT_ADDED, recipe.getId(), recipe.getTitle()));
+        eventPublisher.publishEvent(CommentChangedEvent.added(recipeId, new CommentByRecipe(comment.getId(),
+                comment.getContent(), user.getUsername(), comment.getCreatedDate())));
     }
 
-    public List<Comment> getCommentsByRecipeId(UUID recipeId) {
-        return commentRepository.findAllByRecipeIdOrderByCreatedDate(recipeId);
+    /**
+     * Count and newest creation date of the recipe's comments. Adding a comment moves the date and
+     * deleting one lowers the count, so together they change whenever the comment list does.
+     */
+    public CommentStatsView getCommentStats(UUID recipeId) {
+        return commentRepository.getStatsByRecipeId(recipeId);
+    }
+
+    /**
+     * Without a cursor, the newest {@code size} comments. With {@code before}, the ones just older
+     * than it; with {@code since}, the ones just newer, so a client only fetches what it has not seen.
+     * Comments are returned oldest first either way.
+     */
+    public CommentPage getComments(UUID recipeId, String since, String before, int size) {
+        if (since != null && before != null) {
+            throw new InvalidCursorException("Only one of since and before can be given.");
+        }
+
+        // Fetch one extra row to find out whether there is more in the same direction
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        if (since != null) {
+            KeysetCursor after = KeysetCursor.decode(since);
+            List<CommentByRecipe> newer = commentRepository.findOldestByRecipeIdAfter(recipeId, after.getDate(), after.getId(), limit);
+            List<CommentByRecipe> page = newer.size() > size ? newer.subList(0, size) : newer;
+            String latest = page.isEmpty() ? since : cursorOf(page.get(page.size() - 1));
+
+            return new CommentPage(page, newer.size() > size ? latest : null, latest);
+        }
+
+        List<CommentByRecipe> older;
+        if (before == null) {
+            older = commentRepository.findNewestByRecipeId(recipeId, limit);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(before);
+            older = commentRepository.findNewestByRecipeIdBefore(recipeId, cursor.getDate(), cursor.getId(), limit);
+        }
+
+        List<CommentByRecipe> page = new ArrayList<>(older.size() > size ? older.subList(0, size) : older);
+        String nextCursor = older.size() > size ? cursorOf(page.get(size - 1)) : null;
+        String latest = page.isEmpty() ? null : cursorOf(page.get(0));
+        Collections.reverse(page);
+
+        return new CommentPage(page, nextCursor, latest);
     }
 
     public boolean deleteComment(UUID commentId, String username) {
@@ -63,14 +128,16 @@ public class CommentService {
             commentRepository.delete(comment);
 
             eventPublisher.publishEvent(new ActivityLogEvent(comment.getCreator().getId(),
-                    "You have successfully removed your comment [%s], from recipe: %s".formatted(comment.getContent(), recipe.getTitle())));
+                    ActivityType.COMMENT_REMOVED, recipe.getId(), recipe.getTitle()));
+            eventPublisher.publishEvent(CommentChangedEvent.deleted(recipe.getId(), commentId));
 
             return true;
         } else if (recipe.getCreatedBy().getUsername().equals(username)) {
             commentRepository.delete(comment);
 
             eventPublisher.publishEvent(new ActivityLogEvent(recipe.getCreatedBy().getId(),
-                    "You have successfully removed comment [%s], from your recipe: %s".formatted(comment.getContent(), recipe.getTitle())));
+                    ActivityType.COMMENT_REMOVED_FROM_OWN_RECIPE, recipe.getId(), recipe.getTitle()));
+            eventPublisher.publishEvent(CommentChangedEvent.deleted(recipe.getId(), commentId));
 
             return true;
         }
@@ -78,11 +145,25 @@ public class CommentService {
         return false;
     }
 
-    public List<Comment> getAll() {
-        return commentRepository.findAll();
+    /**
+     * One page of the admin comment grid, optionally narrowed to comments whose author's username
+     * starts with {@code filter} or whose text contains it.
+     */
+    public Page<CommentForAdminPage> getAllForAdmin(String filter, Pageable pageable) {
+        Pageable page = AdminGrid.pageRequest(pageable, ADMIN_SORT_COLUMNS, Sort.Order.desc("createdDate"), "c.id");
+
+        return commentRepository.findAdminPage(AdminGrid.prefixPattern(filter), AdminGrid.containsPattern(filter), page);
     }
 
     public void delete(UUID commentId) {
-        commentRepository.deleteById(commentId);
+        commentRepository.findById(commentId).ifPresent(comment -> {
+            commentRepository.delete(comment);
+
+            eventPublisher.publishEvent(CommentChangedEvent.deleted(comment.getRecipe().getId(), commentId));
+        });
+    }
+
+    private static String cursorOf(CommentByRecipe comment) {
+        return new KeysetCursor(comment.getCreatedDate(), comment.getId()).encode();
     }
 }
\ No newline at end of file
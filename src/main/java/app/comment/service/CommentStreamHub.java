@@ -0,0 +1,230 @@
+package app.comment.service;
+
+import app.comment.event.CommentChangedEvent;
+import app.exception.CommentStreamFullException;
+import app.web.dto.KeysetCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans comment changes out to the Server-Sent Event streams open on each recipe. An idle stream
+ * is just an {@link SseEmitter} parked in this hub, so it holds no thread. Every subscriber has
+ * its own bounded buffer that a sender thread drains; publishing never blocks on a client, and a
+ * client that falls a whole buffer behind is evicted and left to reconnect and catch up through
+ * the comments API. Heartbeats keep idle streams open through proxies and flush out dead ones,
+ * and evict subscribers whose send has been blocked for longer than {@code send-timeout-ms}.
+ * A blocked send still holds its thread until the container's write timeout fails it, so the
+ * sender executor grows past its core threads rather than making other subscribers wait.
+ */
+@Slf4j
+@Component
+public class CommentStreamHub {
+
+    static final String COMMENT_ADDED = "comment-added";
+    static final String COMMENT_DELETED = "comment-deleted";
+
+    private static final Message HEARTBEAT = new Message(null, null, null);
+
+    // Start time of a subscriber's send when none is in progress
+    private static final long IDLE = Long.MIN_VALUE;
+
+    private final TaskExecutor sender;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final long sendTimeoutNanos;
+    private final Counter evicted;
+    private final Counter stalled;
+
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public CommentStreamHub(@Qualifier("commentStreamExecutor") TaskExecutor sender,
+                            MeterRegistry meterRegistry,
+                            @Value("${comments.stream.buffer-size:32}") int bufferSize,
+                            @Value("${comments.stream.max-subscribers:10000}") int maxSubscribers,
+                            @Value("${comments.stream.timeout-ms:1800000}") long timeoutMs,
+                            @Value("${comments.stream.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.sender = sender;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+
+        meterRegistry.gauge("comments.stream.subscribers", subscriberCount);
+        this.evicted = meterRegistry.counter("comments.stream.evictions", "reason", "slow-consumer");
+        this.stalled = meterRegistry.counter("comments.stream.evictions", "reason", "stalled");
+    }
+
+    public SseEmitter subscribe(UUID recipeId) {
+        return subscribe(recipeId, new SseEmitter(timeoutMs));
+    }
+
+    public SseEmitter subscribe(UUID recipeId, SseEmitter emitter) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new CommentStreamFullException("Too many open comment streams, try again later.");
+        }
+
+        Subscriber subscriber = new Subscriber(recipeId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.compute(recipeId, (id, recipeSubscribers) -> {
+            Set<Subscriber> current = recipeSubscribers != null ? recipeSubscribers : ConcurrentHashMap.newKeySet();
+            current.add(subscriber);
+            return current;
+        });
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentChanged(CommentChangedEvent event) {
+        Message message = switch (event.getChange()) {
+            // The cursor goes out as the event id, so a client can poll the API from it
+            case ADDED -> new Message(COMMENT_ADDED,
+                    new KeysetCursor(event.getComment().getCreatedDate(), event.getCommentId()).encode(),
+                    event.getComment());
+            case DELETED -> new Message(COMMENT_DELETED, null, Map.of("id", event.getCommentId()));
+        };
+
+        Set<Subscriber> recipeSubscribers = subscribers.get(event.getRecipeId());
+        if (recipeSubscribers != null) {
+            recipeSubscribers.forEach(subscriber -> offer(subscriber, message));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${comments.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+
+        subscribers.values().forEach(recipeSubscribers -> recipeSubscribers.forEach(subscriber -> {
+            long sendingSince = subscriber.sendingSince().get();
+
+            if (sendingSince != IDLE && now - sendingSince > sendTimeoutNanos) {
+                evictStalled(subscriber);
+            } else {
+                offer(subscriber, HEARTBEAT);
+            }
+        }));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void offer(Subscriber subscriber, Message message) {
+        if (!subscriber.buffer().offer(message)) {
+            evict(subscriber);
+            return;
+        }
+
+        if (subscriber.draining().compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (TaskRejectedException e) {
+                // Every sender thread is busy; the next message or heartbeat tries again
+                subscriber.draining().set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            for (Message message = subscriber.buffer().poll(); message != null; message = subscriber.buffer().poll()) {
+                subscriber.sendingSince().set(System.nanoTime());
+                try {
+                    subscriber.emitter().send(message.toEvent());
+                } catch (Exception e) {
+                    // The client went away; the container completes the emitter
+                    remove(subscriber);
+                    return;
+                } finally {
+                    subscriber.sendingSince().set(IDLE);
+                }
+            }
+
+            subscriber.draining().set(false);
+            // A message offered after the last poll but before the flag was cleared is picked up here
+        } while (!subscriber.buffer().isEmpty() && subscriber.draining().compareAndSet(false, true));
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (remove(subscriber)) {
+            evicted.increment();
+            log.debug("Evicted slow comment-stream subscriber of recipe {}", subscriber.recipeId());
+
+            // Completing waits for a send in progress, so it is left to a sender thread
+            sender.execute(subscriber.emitter()::complete);
+        }
+    }
+
+    private void evictStalled(Subscriber subscriber) {
+        if (remove(subscriber)) {
+            stalled.increment();
+            log.debug("Evicted stalled comment-stream subscriber of recipe {}", subscriber.recipeId());
+
+            // Completing would wait for the blocked send; its write timeout ends the request instead
+        }
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        if (!subscriber.closed().compareAndSet(false, true)) {
+            return false;
+        }
+
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.recipeId(), (id, recipeSubscribers) -> {
+            recipeSubscribers.remove(subscriber);
+            return recipeSubscribers.isEmpty() ? null : recipeSubscribers;
+        });
+
+        return true;
+    }
+
+    private record Subscriber(UUID recipeId, SseEmitter emitter, Queue<Message> buffer,
+                              AtomicBoolean draining, AtomicBoolean closed, AtomicLong sendingSince) {
+
+        private Subscriber(UUID recipeId, SseEmitter emitter, Queue<Message> buffer) {
+            this(recipeId, emitter, buffer, new AtomicBoolean(), new AtomicBoolean(), new AtomicLong(IDLE));
+        }
+    }
+
+    /**
+     * An event buffered for a subscriber. Kept apart from {@link SseEmitter.SseEventBuilder},
+     * which is consumed by sending it and so cannot be shared between subscribers.
+     */
+    private record Message(String name, String id, Object data) {
+
+        private SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).data(data);
+            return id != null ? event.id(id) : event;
+        }
+    }
+}
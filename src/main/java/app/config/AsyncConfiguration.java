@@ -0,0 +1,57 @@
+package app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfiguration {
+
+    /**
+     * Runs image uploads off the request thread on a fixed pool of {@code concurrency} threads
+     * with a bounded queue. Uploads past the queue are rejected rather than run on the submitting
+     * thread; their recipes stay pending and the uploader's recovery run submits them again.
+     */
+    @Bean
+    public TaskExecutor imageUploadExecutor(@Value("${recipes.image-upload.concurrency:4}") int concurrency,
+                                            @Value("${recipes.image-upload.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("image-upload-");
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+
+        return executor;
+    }
+
+    /**
+     * Writes comment-stream events to subscribers, with at most one task per subscriber. A send
+     * to a client that stopped reading blocks its thread until the container's write timeout, so
+     * threads are not shared through a queue: on JDK 21+ every task gets a virtual thread,
+     * otherwise the pool starts a thread per task up to {@code max-sender-threads} and rejects
+     * the rest, which leaves their messages buffered for the next attempt.
+     */
+    @Bean
+    public TaskExecutor commentStreamExecutor(@Value("${comments.stream.sender-threads:4}") int threads,
+                                              @Value("${comments.stream.max-sender-threads:64}") int maxThreads) {
+        if (Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("comment-stream-");
+            executor.setVirtualThreads(true);
+
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("comment-stream-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(maxThreads);
+        executor.setQueueCapacity(0);
+
+        return executor;
+    }
+}
@@ -0,0 +1,37 @@
+package app.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@EnableCaching
+@Configuration
+public class CacheConfiguration {
+
+    public static final String RECIPE_SNAPSHOTS = "recipeSnapshots";
+
+    /**
+     * Caffeine bounds the cache with a W-TinyLFU policy, so one-off lookups do not push out
+     * recipes that are read often. Evictions are deferred until the surrounding transaction
+     * commits. Readers load through {@code @Cacheable(sync = true)}, which holds the entry while
+     * loading, so a load of the old row that races the commit cannot be stored after the eviction.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${recipes.cache.maximum-size:10000}") long maximumSize) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats());
+        cacheManager.setCacheNames(List.of(RECIPE_SNAPSHOTS));
+        cacheManager.setAllowNullValues(false);
+
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
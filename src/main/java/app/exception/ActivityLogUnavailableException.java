@@ -0,0 +1,7 @@
+package app.exception;
+
+public class ActivityLogUnavailableException extends RuntimeException {
+    public ActivityLogUnavailableException(String message) {
+        super(message);
+    }
+}
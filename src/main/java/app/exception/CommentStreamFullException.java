@@ -0,0 +1,7 @@
+package app.exception;
+
+public class CommentStreamFullException extends RuntimeException {
+    public CommentStreamFullException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +0,0 @@
-package app.exception;
-
-public class RecipeAlreadyLikedException extends RuntimeException {
-    public RecipeAlreadyLikedException(String message) {
-        super(message);
-    }
-}
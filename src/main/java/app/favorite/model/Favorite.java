@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "favorites", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "recipe_id"}))
+@Table(name = "favorites",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "recipe_id"}),
+        indexes = @Index(name = "idx_favorites_user_date_id", columnList = "user_id, date, id"))
 @Getter
 @Setter
 @NoArgsConstructor
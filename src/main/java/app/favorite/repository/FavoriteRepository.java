@@ -1,18 +1,42 @@
 package app.favorite.repository;
 
 import app.favorite.model.Favorite;
+import app.web.dto.FavoriteRecipe;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface FavoriteRepository extends JpaRepository<Favorite, UUID> {
-    Optional<Favorite> findByUserIdAndRecipeId(UUID userId, UUID recipeId);
+    String FAVORITE_RECIPE = "SELECT new app.web.dto.FavoriteRecipe(f.id, f.date, r.id, r.title, r.description, " +
+            "r.cookTime, r.servings, r.image) FROM Favorite f JOIN f.recipe r WHERE f.user.id = :userId ";
 
-    List<Favorite> findAllByUser_Id(UUID userId);
+    Optional<Favorite> findByUserIdAndRecipeId(UUID userId, UUID recipeId);
 
     boolean existsByRecipeId(UUID nonExistentRecipeId);
+
+    @Query(FAVORITE_RECIPE + "ORDER BY f.date DESC, f.id DESC")
+    List<FavoriteRecipe> findNewestByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query(FAVORITE_RECIPE + "AND (f.date < :date OR (f.date = :date AND f.id < :id)) ORDER BY f.date DESC, f.id DESC")
+    List<FavoriteRecipe> findNewestByUserIdBefore(@Param("userId") UUID userId,
+                                                  @Param("date") LocalDateTime date,
+                                                  @Param("id") UUID id,
+                                                  Pageable pageable);
+
+    @Query("SELECT f.id FROM Favorite f WHERE f.user.id = :userId ORDER BY f.id")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<UUID> ids);
 }
@@ -1,16 +1,23 @@
 package app.favorite.service;
 
 import app.activitylog.event.ActivityLogEvent;
+import app.activitylog.model.ActivityType;
 import app.exception.AlreadyFavoritedException;
 import app.exception.FavoriteNotFoundException;
 import app.favorite.model.Favorite;
 import app.favorite.repository.FavoriteRepository;
-import app.recipe.model.Recipe;
+import app.recipe.model.RecipeSnapshot;
+import app.recipe.service.RecipeMembershipCache;
 import app.recipe.service.RecipeService;
 import app.user.model.User;
 import app.user.service.UserService;
+import app.web.dto.CursorPage;
+import app.web.dto.FavoriteRecipe;
+import app.web.dto.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,12 +31,13 @@ public class FavoriteService {
     private final FavoriteRepository favoriteRepository;
     private final UserService userService;
     private final RecipeService recipeService;
+    private final RecipeMembershipCache recipeMembershipCache;
     private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void addRecipeToFavorites(UUID userId, UUID recipeId) {
         User user = userService.getUserById(userId);
-        Recipe recipe = recipeService.getById(recipeId);
+        RecipeSnapshot recipe = recipeService.getSnapshot(recipeId);
 
         if (favoriteRepository.findByUserIdAndRecipeId(userId, recipeId).isPresent()) {
             throw new AlreadyFavoritedException(userId, recipeId);
@@ -37,12 +45,13 @@ public class FavoriteService {
 
         Favorite favorite = Favorite.builder()
                 .user(user)
-                .recipe(recipe)
+                .recipe(recipeService.getReference(recipeId))
                 .build();
 
         favoriteRepository.save(favorite);
+        recipeMembershipCache.setFavorite(userId, recipeId, true);
 
-        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), "You have successfully added recipe: " + recipe.getTitle() + " to your favorites"));
+        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), ActivityType.FAVORITE_ADDED, recipeId, recipe.getTitle()));
     }
 
     @Transactional
@@ -51,22 +60,36 @@ public class FavoriteService {
                 .orElseThrow(() -> new FavoriteNotFoundException(recipeId));
 
         favoriteRepository.delete(favorite);
+        recipeMembershipCache.setFavorite(userId, recipeId, false);
 
-        Recipe recipe = recipeService.getById(favorite.getRecipe().getId());
+        RecipeSnapshot recipe = recipeService.getSnapshot(recipeId);
 
-        eventPublisher.publishEvent(new ActivityLogEvent(userId, "You have successfully removed recipe: " + recipe.getTitle() + " from your favorites"));
+        eventPublisher.publishEvent(new ActivityLogEvent(userId, ActivityType.FAVORITE_REMOVED, recipeId, recipe.getTitle()));
     }
 
-    public List<Recipe> getUserFavoriteRecipes(UUID userId) {
-        List<UUID> favoriteRecipesIds = favoriteRepository.findAllByUser_Id(userId)
-                .stream()
-                .map(favorite -> favorite.getRecipe().getId())
-                .toList();
+    /**
+     * Most recently added favorites first. Each page is one indexed range scan from the cursor,
+     * so it costs the same however many favorites the user has.
+     */
+    public CursorPage<FavoriteRecipe> getUserFavoriteRecipes(UUID userId, String cursor, int size) {
+        // Fetch one extra row to find out whether there is a next page
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<FavoriteRecipe> favorites;
+        if (cursor == null) {
+            favorites = favoriteRepository.findNewestByUserId(userId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            favorites = favoriteRepository.findNewestByUserIdBefore(userId, after.getDate(), after.getId(), limit);
+        }
 
-        return recipeService.getRecipesByIds(favoriteRecipesIds);
-    }
+        if (favorites.size() <= size) {
+            return new CursorPage<>(favorites, null);
+        }
+
+        List<FavoriteRecipe> page = favorites.subList(0, size);
+        FavoriteRecipe last = page.get(size - 1);
 
-    public boolean isFavorite(UUID id, UUID recipeId) {
-        return favoriteRepository.findByUserIdAndRecipeId(id, recipeId).isPresent();
+        return new CursorPage<>(page, new KeysetCursor(last.getFavoritedDate(), last.getFavoriteId()).encode());
     }
 }
\ No newline at end of file
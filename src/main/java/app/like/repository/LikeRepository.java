@@ -1,12 +1,49 @@
 package app.like.repository;
 
 import app.like.model.Like;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface LikeRepository extends JpaRepository<Like, UUID> {
-    boolean existsByUser_IdAndRecipe_Id(UUID userId, UUID recipeId);
+    /**
+     * Inserts the like by foreign keys, without loading the user or the recipe.
+     *
+     * @return 0 if the user has already liked the recipe.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO likes (id, user_id, recipe_id, liked_date) " +
+            "SELECT :id, :userId, :recipeId, :likedDate FROM DUAL " +
+            "WHERE NOT EXISTS (SELECT 1 FROM likes WHERE user_id = :userId AND recipe_id = :recipeId)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id,
+                       @Param("userId") UUID userId,
+                       @Param("recipeId") UUID recipeId,
+                       @Param("likedDate") LocalDateTime likedDate);
+
+    /**
+     * @return 0 if the user had not liked the recipe.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.user.id = :userId AND l.recipe.id = :recipeId")
+    int deleteByUserIdAndRecipeId(@Param("userId") UUID userId, @Param("recipeId") UUID recipeId);
+
+    @Query("SELECT l.recipe.id FROM Like l WHERE l.user.id = :userId ORDER BY l.recipe.id")
+    List<UUID> findRecipeIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.user.id = :userId AND l.recipe.id IN :recipeIds")
+    int deleteAllByUserIdAndRecipeIdIn(@Param("userId") UUID userId, @Param("recipeIds") Collection<UUID> recipeIds);
 }
@@ -0,0 +1,66 @@
+package app.like.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers like count changes in memory until {@link app.scheduler.LikeCountFlushScheduler} writes them
+ * to {@code recipes.like_count}, so a trending recipe is updated once per flush instead of on a
+ * contended row per like. Changes and the drain are both atomic operations on the recipe's entry,
+ * so a change can never land on a counter the drain has already taken out of the map.
+ */
+@Component
+public class LikeCounter {
+
+    private final ConcurrentHashMap<UUID, Long> pending = new ConcurrentHashMap<>();
+
+    public void increment(UUID recipeId) {
+        add(recipeId, 1);
+    }
+
+    public void decrement(UUID recipeId) {
+        add(recipeId, -1);
+    }
+
+    /**
+     * Net change in likes for the recipe that has not been flushed yet. Add this to the persisted
+     * count to display an up-to-date number.
+     */
+    public long pending(UUID recipeId) {
+        return pending.getOrDefault(recipeId, 0L);
+    }
+
+    /**
+     * Takes every non-zero delta out of the buffer. Entries are removed as they are taken, so
+     * recipes that stopped trending do not pin memory.
+     */
+    public Map<UUID, Long> drain() {
+        Map<UUID, Long> deltas = new HashMap<>();
+
+        for (UUID recipeId : pending.keySet()) {
+            Long delta = pending.remove(recipeId);
+
+            if (delta != null && delta != 0) {
+                deltas.put(recipeId, delta);
+            }
+        }
+
+        return deltas;
+    }
+
+    /**
+     * Puts deltas back after a failed flush so they are retried on the next run.
+     */
+    public void restore(Map<UUID, Long> deltas) {
+        deltas.forEach(this::add);
+    }
+
+    private void add(UUID recipeId, long delta) {
+        // Entries that net out to zero are removed
+        pending.merge(recipeId, delta, (current, change) -> current + change == 0 ? null : current + change);
+    }
+}
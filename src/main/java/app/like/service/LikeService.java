@@ -1,15 +1,14 @@
 package app.like.service;
 
 import app.activitylog.event.ActivityLogEvent;
-import app.exception.RecipeAlreadyLikedException;
+import app.activitylog.model.ActivityType;
 import app.exception.UserCannotLikeOwnRecipeException;
-import app.like.model.Like;
 import app.like.repository.LikeRepository;
-import app.recipe.model.Recipe;
+import app.recipe.model.RecipeSnapshot;
+import app.recipe.service.RecipeMembershipCache;
 import app.recipe.service.RecipeService;
-import app.user.model.User;
-import app.user.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
@@ -22,33 +21,85 @@ import java.util.UUID;
 public class LikeService {
 
     private final LikeRepository likeRepository;
-    private final UserService userService;
     private final RecipeService recipeService;
+    private final LikeCounter likeCounter;
+    private final RecipeMembershipCache recipeMembershipCache;
     private final ApplicationEventPublisher eventPublisher;
 
-    public void like(UUID userId, UUID recipeId) {
-        User user = userService.getUserById(userId);
-        Recipe recipe = recipeService.getById(recipeId);
+    /**
+     * Likes the recipe unless the user already has. The ownership check reads the cached recipe
+     * snapshot and the like is written by foreign keys, so neither entity is loaded.
+     *
+     * @return false if the recipe was already liked.
+     */
+    public boolean like(UUID userId, UUID recipeId) {
+        RecipeSnapshot recipe = recipeService.getSnapshot(recipeId);
 
-        if (recipe.getCreatedBy().getId().equals(user.getId())) {
+        if (recipe.getCreatorId().equals(userId)) {
             throw new UserCannotLikeOwnRecipeException("You cannot like your own recipe.");
         }
 
+        int inserted;
         try {
-            Like like = new Like();
-            like.setUser(user);
-            like.setRecipe(recipe);
-            like.setLikedDate(LocalDateTime.now());
+            inserted = likeRepository.insertIfAbsent(UUID.randomUUID(), userId, recipeId, LocalDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateLike(e)) {
+                // A concurrent like of the same recipe won the race for the unique key
+                return false;
+            }
+            throw e;
+        }
 
-            likeRepository.save(like);
+        if (inserted == 0) {
+            return false;
+        }
 
-            eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), "You have successfully liked recipe: " + recipe.getTitle()));
-        } catch (DataIntegrityViolationException e) {
-            throw new RecipeAlreadyLikedException("You have already liked this recipe");
+        likeCounter.increment(recipeId);
+        recipeMembershipCache.setLiked(userId, recipeId, true);
+        eventPublisher.publishEvent(new ActivityLogEvent(userId, ActivityType.RECIPE_LIKED, recipeId, recipe.getTitle()));
+
+        return true;
+    }
+
+    /**
+     * @return false if the recipe was not liked.
+     */
+    public boolean unlike(UUID userId, UUID recipeId) {
+        RecipeSnapshot recipe = recipeService.getSnapshot(recipeId);
+
+        if (likeRepository.deleteByUserIdAndRecipeId(userId, recipeId) == 0) {
+            return false;
         }
+
+        likeCounter.decrement(recipeId);
+        recipeMembershipCache.setLiked(userId, recipeId, false);
+        eventPublisher.publishEvent(new ActivityLogEvent(userId, ActivityType.RECIPE_UNLIKED, recipeId, recipe.getTitle()));
+
+        return true;
+    }
+
+    /**
+     * @return whether the recipe is liked afterwards.
+     */
+    public boolean toggle(UUID userId, UUID recipeId) {
+        if (unlike(userId, recipeId)) {
+            return false;
+        }
+
+        like(userId, recipeId);
+
+        return true;
     }
 
-    public boolean userHasLikedRecipe(UUID userId, UUID recipeId) {
-        return likeRepository.existsByUser_IdAndRecipe_Id(userId, recipeId);
+    // The id is a fresh UUID, so the only unique key a like can collide on is (user_id, recipe_id);
+    // anything else, such as a user or recipe deleted meanwhile, is a real failure
+    private static boolean isDuplicateLike(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
+            }
+        }
+
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,9 @@ package app.mapper;
 
 import app.category.model.Category;
 import app.category.model.CategoryName;
-import app.comment.model.Comment;
+import app.cloudinary.image.ImageRendition;
 import app.recipe.model.Recipe;
+import app.recipe.repository.RecipeDetailsView;
 import app.user.model.User;
 import app.web.dto.*;
 import lombok.experimental.UtilityClass;
@@ -18,32 +19,13 @@ public class DtoMapper {
                 .id(user.getId())
                 .username(user.getUsername())
                 .email(user.getEmail())
-                .profilePictureUrl(user.getProfilePicture())
+                .profilePictureUrl(ImageRendition.AVATAR.url(user.getProfilePicture()))
                 .dateRegistered(user.getDateRegistered())
                 .dateUpdated(user.getDateUpdated())
                 .isActive(user.getIsActive())
                 .build();
     }
 
-    public static UserWithRole mapUserToUserWithRole(User user) {
-        return UserWithRole.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .role(user.getRole())
-                .isActive(user.getIsActive())
-                .build();
-    }
-
-    public static RecipeForAdminPageInfo mapRecipeToRecipeForAdminPageInfo(Recipe recipe) {
-        return RecipeForAdminPageInfo.builder()
-                .id(recipe.getId())
-                .title(recipe.getTitle())
-                .author(recipe.getCreatedBy().getUsername())
-                .createdDate(recipe.getCreatedDate())
-                .build();
-    }
-
     public static RecipeShortInfo mapRecipeToRecipeShortInfo(Recipe recipe) {
         return RecipeShortInfo.builder()
                 .id(recipe.getId())
@@ -51,16 +33,7 @@ public class DtoMapper {
                 .description(recipe.getDescription())
                 .cookTime(recipe.getCookTime())
                 .servings(recipe.getServings())
-                .image(recipe.getImage())
-                .build();
-    }
-
-    public static CommentByRecipe mapCommentToCommentByRecipe(Comment comment) {
-        return CommentByRecipe.builder()
-                .id(comment.getId())
-                .content(comment.getContent())
-                .createdBy(comment.getCreator().getUsername())
-                .createdDate(comment.getCreatedDate())
+                .image(ImageRendition.CARD.url(recipe.getImage()))
                 .build();
     }
 
@@ -81,15 +54,6 @@ public class DtoMapper {
                 .build();
     }
 
-    public static CommentForAdminPage mapCommentToCommentForAdminPage(Comment comment) {
-        return CommentForAdminPage.builder()
-                .id(comment.getId())
-                .author(comment.getCreator().getUsername())
-                .content(comment.getContent())
-                .createdDate(comment.getCreatedDate())
-                .build();
-    }
-
     public static EditRecipe mapRecipeToEditRecipe(Recipe recipe) {
         List<CategoryName> categories = recipe.getCategories().stream().map(Category::getName).toList();
         String ingredients = String.join(",", recipe.getIngredients());
@@ -107,21 +71,23 @@ public class DtoMapper {
                 .build();
     }
 
-    public static RecipeDetails mapRecipeToRecipeDetails(Recipe recipe) {
+    public static RecipeDetails mapRecipeDetailsViewToRecipeDetails(RecipeDetailsView recipe, List<String> ingredients, long pendingLikes) {
         return RecipeDetails.builder()
                 .id(recipe.getId())
                 .title(recipe.getTitle())
                 .description(recipe.getDescription())
-                .ingredients(recipe.getIngredients())
+                .ingredients(ingredients)
                 .instructions(recipe.getInstructions())
                 .createdDate(recipe.getCreatedDate())
+                .updatedDate(recipe.getUpdatedDate())
                 .cookTime(recipe.getCookTime())
                 .prepTime(recipe.getPrepTime())
-                .createdBy(recipe.getCreatedBy())
+                .creator(recipe.getCreator())
                 .servings(recipe.getServings())
-                .image(recipe.getImage())
-                .comments(recipe.getComments())
-                .likes(recipe.getLikes().size())
+                .image(ImageRendition.DETAIL.url(recipe.getImage()))
+                .likes(Math.toIntExact(recipe.getLikes() + pendingLikes))
+                .liked(Boolean.TRUE.equals(recipe.getLiked()))
+                .favorite(Boolean.TRUE.equals(recipe.getFavorite()))
                 .build();
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+package app.moderation.service;
+
+import app.activitylog.service.ActivityLogService;
+import app.comment.event.CommentChangedEvent;
+import app.comment.repository.CommentRepository;
+import app.comment.repository.DeletableComment;
+import app.favorite.repository.FavoriteRepository;
+import app.like.repository.LikeRepository;
+import app.like.service.LikeCounter;
+import app.recipe.repository.RecipeRepository;
+import app.recipe.service.RecipeMembershipCache;
+import app.recipe.service.RecipeService;
+import app.user.repository.UserRepository;
+import app.user.service.UserService;
+import app.web.dto.PurgeSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bulk moderation for the admin pages. Rows are deleted and updated with set-based statements,
+ * {@code batch-size} at a time, each batch in its own short transaction, so removing a spammer's
+ * content neither loads it into the persistence context nor holds locks for the whole run.
+ * A failure leaves the batches already committed in place; running the operation again picks up
+ * what is left.
+ */
+@Slf4j
+@Service
+public class ModerationService {
+
+    private final CommentRepository commentRepository;
+    private final LikeRepository likeRepository;
+    private final FavoriteRepository favoriteRepository;
+    private final RecipeRepository recipeRepository;
+    private final UserRepository userRepository;
+    private final RecipeService recipeService;
+    private final UserService userService;
+    private final RecipeMembershipCache recipeMembershipCache;
+    private final LikeCounter likeCounter;
+    private final ActivityLogService activityLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ModerationService(CommentRepository commentRepository,
+                             LikeRepository likeRepository,
+                             FavoriteRepository favoriteRepository,
+                             RecipeRepository recipeRepository,
+                             UserRepository userRepository,
+                             RecipeService recipeService,
+                             UserService userService,
+                             RecipeMembershipCache recipeMembershipCache,
+                             LikeCounter likeCounter,
+                             ActivityLogService activityLogService,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${moderation.batch-size:500}") int batchSize,
+                             @Value("${moderation.transaction-timeout-seconds:30}") int transactionTimeoutSeconds) {
+        this.commentRepository = commentRepository;
+        this.likeRepository = likeRepository;
+        this.favoriteRepository = favoriteRepository;
+        this.recipeRepository = recipeRepository;
+        this.userRepository = userRepository;
+        this.recipeService = recipeService;
+        this.userService = userService;
+        this.recipeMembershipCache = recipeMembershipCache;
+        this.likeCounter = likeCounter;
+        this.activityLogService = activityLogService;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(transactionTimeoutSeconds);
+    }
+
+    /**
+     * @return how many of the comments existed and were deleted.
+     */
+    public int deleteComments(Collection<UUID> commentIds) {
+        return inBatches(commentIds, batch -> deleteCommentBatch(commentRepository.findDeletableByIdIn(batch)));
+    }
+
+    public int deleteCommentsByAuthor(UUID userId) {
+        return deleteInBatches(() -> commentRepository.findDeletableByCreatorId(userId, firstBatch()), this::deleteCommentBatch);
+    }
+
+    /**
+     * @return how many of the users were active until now.
+     */
+    public int deactivateUsers(Collection<UUID> userIds) {
+        return inBatches(userIds, userRepository::deactivateAllByIdIn);
+    }
+
+    /**
+     * Deactivates the user first, so they cannot post while their content is removed, then
+     * deletes their comments, likes, favorites and recipes with everything attached to the
+     * recipes, releases their images and clears their activity log. The account itself is kept.
+     */
+    public PurgeSummary purgeUserContent(UUID userId) {
+        // Fails with UserNotFoundException before anything is touched
+        userService.getUserById(userId);
+
+        deactivateUsers(List.of(userId));
+
+        int comments = deleteCommentsByAuthor(userId);
+
+        int likes = deleteInBatches(() -> likeRepository.findRecipeIdsByUserId(userId, firstBatch()), recipeIds -> {
+            int deleted = likeRepository.deleteAllByUserIdAndRecipeIdIn(userId, recipeIds);
+            afterCommit(() -> recipeIds.forEach(likeCounter::decrement));
+            return deleted;
+        });
+
+        int favorites = deleteInBatches(() -> favoriteRepository.findIdsByUserId(userId, firstBatch()),
+                favoriteRepository::deleteAllByIdIn);
+
+        int recipes = deleteInBatches(() -> recipeRepository.findDeletableByCreatorId(userId, firstBatch()), recipeService::deleteAll);
+
+        userService.removeProfilePicture(userId);
+        recipeMembershipCache.evict(userId);
+
+        try {
+            activityLogService.deleteLogsByUserId(userId);
+        } catch (RuntimeException e) {
+            log.warn("Purged the content of user [{}] but could not clear their activity log: {}", userId, e.getMessage());
+        }
+
+        log.info("Purged the content of user [{}]: {} recipes, {} comments, {} likes, {} favorites",
+                userId, recipes, comments, likes, favorites);
+
+        return new PurgeSummary(recipes, comments, likes, favorites);
+    }
+
+    private int deleteCommentBatch(List<DeletableComment> comments) {
+        if (comments.isEmpty()) {
+            return 0;
+        }
+
+        int deleted = commentRepository.deleteAllByIdIn(comments.stream().map(DeletableComment::getId).toList());
+
+        // Sent to viewers of the recipes once the batch commits
+        comments.forEach(comment -> eventPublisher.publishEvent(CommentChangedEvent.deleted(comment.getRecipeId(), comment.getId())));
+
+        return deleted;
+    }
+
+    /**
+     * Splits the ids into batches and applies {@code operation} to each in its own transaction.
+     * Ids are sorted, so concurrent bulk operations lock rows in the same order.
+     */
+    private int inBatches(Collection<UUID> ids, ToIntFunction<List<UUID>> operation) {
+        List<UUID> sorted = new ArrayList<>(new TreeSet<>(ids));
+        int affected = 0;
+
+        for (int from = 0; from < sorted.size(); from += batchSize) {
+            List<UUID> batch = sorted.subList(from, Math.min(from + batchSize, sorted.size()));
+            affected += transactionTemplate.execute(status -> operation.applyAsInt(batch));
+        }
+
+        return affected;
+    }
+
+    /**
+     * Selects and deletes one batch per transaction until a batch comes back short. Every batch
+     * is deleted before the next is selected, so each selection starts from the first row again.
+     */
+    private <T> int deleteInBatches(Supplier<List<T>> nextBatch, ToIntFunction<List<T>> deleteBatch) {
+        int deleted = 0;
+        BatchResult result;
+
+        do {
+            result = transactionTemplate.execute(status -> {
+                List<T> batch = nextBatch.get();
+                return new BatchResult(batch.size(), batch.isEmpty() ? 0 : deleteBatch.applyAsInt(batch));
+            });
+            deleted += result.deleted();
+        } while (result.selected() == batchSize);
+
+        return deleted;
+    }
+
+    private Pageable firstBatch() {
+        return PageRequest.of(0, batchSize);
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record BatchResult(int selected, int deleted) {
+    }
+}
@@ -0,0 +1,14 @@
+package app.recipe.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class RecipeImageStagedEvent {
+    private UUID recipeId;
+    private Path image;
+}
@@ -0,0 +1,26 @@
+package app.recipe.event;
+
+import app.recipe.model.Recipe;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The searchable fields of a recipe as it was saved, copied so listeners running after the
+ * transaction do not touch the entity.
+ */
+@Data
+@AllArgsConstructor
+public class RecipeSavedEvent {
+    private UUID recipeId;
+    private String title;
+    private String description;
+    private List<String> ingredients;
+
+    public static RecipeSavedEvent of(Recipe recipe) {
+        return new RecipeSavedEvent(recipe.getId(), recipe.getTitle(), recipe.getDescription(),
+                List.copyOf(recipe.getIngredients()));
+    }
+}
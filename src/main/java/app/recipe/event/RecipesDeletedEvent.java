@@ -0,0 +1,13 @@
+package app.recipe.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class RecipesDeletedEvent {
+    private List<UUID> recipeIds;
+}
@@ -0,0 +1,7 @@
+package app.recipe.model;
+
+public enum ImageStatus {
+    PENDING,
+    READY,
+    FAILED
+}
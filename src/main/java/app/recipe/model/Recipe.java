@@ -1,12 +1,10 @@
 package app.recipe.model;
 
 import app.category.model.Category;
-import app.comment.model.Comment;
-import app.favorite.model.Favorite;
-import app.like.model.Like;
 import app.user.model.User;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -19,7 +17,9 @@ import java.util.UUID;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "recipes")
+@Table(name = "recipes", indexes = {
+        @Index(name = "idx_recipes_created_date_id", columnList = "created_date, id"),
+        @Index(name = "idx_recipes_title_id", columnList = "title, id")})
 public class Recipe {
 
     @Id
@@ -48,6 +48,12 @@ public class Recipe {
 
     private String imagePublicId;
 
+    @Enumerated(EnumType.STRING)
+    private ImageStatus imageStatus;
+
+    // The last image staged for upload; while the status is PENDING, a restart resumes it from here
+    private String stagedImage;
+
     private Integer prepTime;
 
     @Column(nullable = false)
@@ -60,15 +66,16 @@ public class Recipe {
     @JoinColumn(name = "user_id", nullable = false)
     private User createdBy;
 
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long likeCount;
+
     @ManyToMany
     @JoinTable(name = "recipes_categories",
             joinColumns = @JoinColumn(name = "recipe_id"),
             inverseJoinColumns = @JoinColumn(name = "category_id"))
     private List<Category> categories = new ArrayList<>();
 
-    @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
-    private List<Comment> comments = new ArrayList<>();
-
-    @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
-    private List<Like> likes = new ArrayList<>();
+    // Comments, likes and favorites are not mapped here: their rows go with the recipe through
+    // ON DELETE CASCADE, so deleting a recipe never loads them
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package app.recipe.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Immutable set of recipe ids kept as a sorted array of (most, least significant bits) pairs,
+ * which takes 16 bytes per recipe instead of a boxed {@link UUID} and a hash-set node each.
+ * Lookups are a binary search; changes copy the array, which is fine for sets that change once
+ * per user click.
+ */
+public final class RecipeIdSet {
+
+    public static final RecipeIdSet EMPTY = new RecipeIdSet(new long[0]);
+
+    private final long[] bits;
+
+    private RecipeIdSet(long[] bits) {
+        this.bits = bits;
+    }
+
+    public static RecipeIdSet of(Collection<UUID> ids) {
+        UUID[] sorted = ids.stream().distinct().sorted(RecipeIdSet::compare).toArray(UUID[]::new);
+        long[] bits = new long[2 * sorted.length];
+
+        for (int i = 0; i < sorted.length; i++) {
+            bits[2 * i] = sorted[i].getMostSignificantBits();
+            bits[2 * i + 1] = sorted[i].getLeastSignificantBits();
+        }
+
+        return new RecipeIdSet(bits);
+    }
+
+    public boolean contains(UUID id) {
+        return indexOf(id) >= 0;
+    }
+
+    public int size() {
+        return bits.length / 2;
+    }
+
+    public RecipeIdSet with(UUID id) {
+        int index = indexOf(id);
+
+        if (index >= 0) {
+            return this;
+        }
+
+        int insertAt = -index - 1;
+        long[] copy = new long[bits.length + 2];
+        System.arraycopy(bits, 0, copy, 0, 2 * insertAt);
+        copy[2 * insertAt] = id.getMostSignificantBits();
+        copy[2 * insertAt + 1] = id.getLeastSignificantBits();
+        System.arraycopy(bits, 2 * insertAt, copy, 2 * insertAt + 2, bits.length - 2 * insertAt);
+
+        return new RecipeIdSet(copy);
+    }
+
+    public RecipeIdSet without(UUID id) {
+        int index = indexOf(id);
+
+        if (index < 0) {
+            return this;
+        }
+
+        long[] copy = new long[bits.length - 2];
+        System.arraycopy(bits, 0, copy, 0, 2 * index);
+        System.arraycopy(bits, 2 * index + 2, copy, 2 * index, bits.length - 2 * index - 2);
+
+        return new RecipeIdSet(copy);
+    }
+
+    /**
+     * @return the pair index of the id, or {@code -(insertion point) - 1} like
+     * {@link Arrays#binarySearch(long[], long)}.
+     */
+    private int indexOf(UUID id) {
+        long most = id.getMostSignificantBits();
+        long least = id.getLeastSignificantBits();
+        int low = 0;
+        int high = size() - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Long.compare(bits[2 * mid], most);
+
+            if (cmp == 0) {
+                cmp = Long.compare(bits[2 * mid + 1], least);
+            }
+
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    // The same signed ordering of both halves that indexOf searches by
+    private static int compare(UUID a, UUID b) {
+        int cmp = Long.compare(a.getMostSignificantBits(), b.getMostSignificantBits());
+
+        return cmp != 0 ? cmp : Long.compare(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,27 @@
+package app.recipe.model;
+
+import java.util.UUID;
+
+/**
+ * The recipes one user has liked and added to favorites, for marking recipe cards.
+ */
+public record RecipeMemberships(RecipeIdSet liked, RecipeIdSet favorites) {
+
+    public static final RecipeMemberships EMPTY = new RecipeMemberships(RecipeIdSet.EMPTY, RecipeIdSet.EMPTY);
+
+    public boolean isLiked(UUID recipeId) {
+        return liked.contains(recipeId);
+    }
+
+    public boolean isFavorite(UUID recipeId) {
+        return favorites.contains(recipeId);
+    }
+
+    public RecipeMemberships withLiked(UUID recipeId, boolean isLiked) {
+        return new RecipeMemberships(isLiked ? liked.with(recipeId) : liked.without(recipeId), favorites);
+    }
+
+    public RecipeMemberships withFavorite(UUID recipeId, boolean isFavorite) {
+        return new RecipeMemberships(liked, isFavorite ? favorites.with(recipeId) : favorites.without(recipeId));
+    }
+}
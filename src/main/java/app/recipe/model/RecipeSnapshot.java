@@ -0,0 +1,16 @@
+package app.recipe.model;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Immutable subset of a {@link Recipe} that services need to validate and describe an
+ * interaction with it. Safe to share through the cache, unlike the managed entity.
+ */
+@Value
+public class RecipeSnapshot {
+    UUID id;
+    String title;
+    UUID creatorId;
+}
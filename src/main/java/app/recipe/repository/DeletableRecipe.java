@@ -0,0 +1,13 @@
+package app.recipe.repository;
+
+import java.util.UUID;
+
+public interface DeletableRecipe {
+    UUID getId();
+
+    String getTitle();
+
+    UUID getCreatorId();
+
+    String getImagePublicId();
+}
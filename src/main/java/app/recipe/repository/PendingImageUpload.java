@@ -0,0 +1,9 @@
+package app.recipe.repository;
+
+import java.util.UUID;
+
+public interface PendingImageUpload {
+    UUID getId();
+
+    String getStagedImage();
+}
@@ -0,0 +1,34 @@
+package app.recipe.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface RecipeDetailsView {
+    UUID getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getInstructions();
+
+    LocalDateTime getCreatedDate();
+
+    LocalDateTime getUpdatedDate();
+
+    String getImage();
+
+    Integer getPrepTime();
+
+    Integer getCookTime();
+
+    Integer getServings();
+
+    String getCreator();
+
+    Long getLikes();
+
+    Boolean getLiked();
+
+    Boolean getFavorite();
+}
@@ -0,0 +1,12 @@
+package app.recipe.repository;
+
+import java.util.UUID;
+
+public interface RecipeMembershipView {
+    int LIKE = 0;
+    int FAVORITE = 1;
+
+    UUID getRecipeId();
+
+    int getKind();
+}
@@ -1,21 +1,112 @@
 package app.recipe.repository;
 
+import app.recipe.model.ImageStatus;
 import app.recipe.model.Recipe;
+import app.recipe.model.RecipeSnapshot;
 import app.user.model.User;
+import app.web.dto.RecipeForAdminPageInfo;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, UUID> {
-    List<Recipe> findAllByCreatedBy(User createdBy);
+    String DELETABLE_RECIPE = "SELECT r.id AS id, r.title AS title, r.createdBy.id AS creatorId, " +
+            "r.imagePublicId AS imagePublicId FROM Recipe r ";
+    String ADMIN_FILTER = "WHERE :pattern IS NULL OR r.title LIKE :pattern ESCAPE '!' OR u.username LIKE :pattern ESCAPE '!'";
 
-    Page<Recipe> findAllByTitleContainingIgnoreCase(String query, Pageable pageable);
+    List<Recipe> findAllByCreatedBy(User createdBy);
 
     List<Recipe> findAllByIdIn(Collection<UUID> ids);
+
+    @Query("SELECT r FROM Recipe r ORDER BY r.createdDate DESC, r.id DESC")
+    List<Recipe> findNewest(Pageable pageable);
+
+    @Query("SELECT r FROM Recipe r WHERE r.createdDate < :createdDate OR (r.createdDate = :createdDate AND r.id < :id) " +
+            "ORDER BY r.createdDate DESC, r.id DESC")
+    List<Recipe> findNewestBefore(@Param("createdDate") LocalDateTime createdDate, @Param("id") UUID id, Pageable pageable);
+
+    @Query(value = "SELECT new app.web.dto.RecipeForAdminPageInfo(r.id, r.title, u.username, r.createdDate) " +
+            "FROM Recipe r JOIN r.createdBy u " + ADMIN_FILTER,
+            countQuery = "SELECT COUNT(r) FROM Recipe r JOIN r.createdBy u " + ADMIN_FILTER)
+    Page<RecipeForAdminPageInfo> findAdminPage(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query("SELECT new app.recipe.model.RecipeSnapshot(r.id, r.title, r.createdBy.id) FROM Recipe r WHERE r.id = :id")
+    Optional<RecipeSnapshot> findSnapshotById(@Param("id") UUID id);
+
+    /**
+     * Everything the details page needs in one round trip: the recipe columns, its author,
+     * the persisted like count and whether the viewer has liked or favorited it.
+     */
+    @Query("SELECT r.id AS id, r.title AS title, r.description AS description, r.instructions AS instructions, " +
+            "r.createdDate AS createdDate, r.updatedDate AS updatedDate, r.image AS image, " +
+            "r.prepTime AS prepTime, r.cookTime AS cookTime, r.servings AS servings, u.username AS creator, " +
+            "r.likeCount AS likes, " +
+            "(CASE WHEN EXISTS (SELECT 1 FROM Like l WHERE l.recipe = r AND l.user.id = :viewerId) THEN true ELSE false END) AS liked, " +
+            "(CASE WHEN EXISTS (SELECT 1 FROM Favorite f WHERE f.recipe = r AND f.user.id = :viewerId) THEN true ELSE false END) AS favorite " +
+            "FROM Recipe r JOIN r.createdBy u WHERE r.id = :id")
+    Optional<RecipeDetailsView> findDetailsById(@Param("id") UUID id, @Param("viewerId") UUID viewerId);
+
+    @Modifying
+    @Query("UPDATE Recipe r SET r.likeCount = r.likeCount + :delta WHERE r.id = :id")
+    int addToLikeCount(@Param("id") UUID id, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Recipe r SET r.likeCount = (SELECT COUNT(l) FROM Like l WHERE l.recipe = r)")
+    int recountLikes();
+
+    /**
+     * True while some liked recipe still has a zero like count, as every row has right after the
+     * like count column is added.
+     */
+    @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM Recipe r " +
+            "WHERE r.likeCount = 0 AND EXISTS (SELECT 1 FROM Like l WHERE l.recipe = r)")
+    boolean existsUncountedLikes();
+
+    @Query("SELECT l.recipe.id AS recipeId, " + RecipeMembershipView.LIKE + " AS kind FROM Like l WHERE l.user.id = :userId " +
+            "UNION ALL " +
+            "SELECT f.recipe.id AS recipeId, " + RecipeMembershipView.FAVORITE + " AS kind FROM Favorite f WHERE f.user.id = :userId")
+    List<RecipeMembershipView> findMembershipsByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT r.id AS id, r.stagedImage AS stagedImage FROM Recipe r WHERE r.imageStatus = :status")
+    List<PendingImageUpload> findImageUploadsByStatus(@Param("status") ImageStatus status);
+
+    @Query("SELECT r.id AS id, r.title AS title, r.description AS description FROM Recipe r")
+    Slice<SearchableRecipe> findAllSearchable(Pageable pageable);
+
+    @Query(DELETABLE_RECIPE + "WHERE r.id = :id")
+    Optional<DeletableRecipe> findDeletableById(@Param("id") UUID id);
+
+    @Query(DELETABLE_RECIPE + "WHERE r.createdBy.id = :userId ORDER BY r.id")
+    List<DeletableRecipe> findDeletableByCreatorId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.recipe.id IN :ids")
+    int deleteCommentsByRecipeIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("DELETE FROM Like l WHERE l.recipe.id IN :ids")
+    int deleteLikesByRecipeIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Deletes the recipes in one statement. Hibernate clears their ingredient and category rows
+     * first, with one statement per collection table.
+     */
+    @Modifying
+    @Query("DELETE FROM Recipe r WHERE r.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT r.id AS recipeId, i AS ingredient FROM Recipe r JOIN r.ingredients i WHERE r.id IN :ids")
+    List<RecipeIngredient> findIngredientsByRecipeIdIn(@Param("ids") Collection<UUID> ids);
 }
@@ -0,0 +1,11 @@
+package app.recipe.repository;
+
+import java.util.UUID;
+
+public interface SearchableRecipe {
+    UUID getId();
+
+    String getTitle();
+
+    String getDescription();
+}
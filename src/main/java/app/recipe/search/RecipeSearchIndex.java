@@ -0,0 +1,393 @@
+package app.recipe.search;
+
+import app.recipe.event.RecipeSavedEvent;
+import app.recipe.event.RecipesDeletedEvent;
+import app.recipe.repository.RecipeIngredient;
+import app.recipe.repository.RecipeRepository;
+import app.recipe.repository.SearchableRecipe;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.*;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over recipe titles, descriptions and ingredients.
+ * <p>
+ * Every recipe gets a dense int document id. Each term keeps its posting list as two
+ * parallel primitive arrays (document ids sorted ascending, and term frequencies), so
+ * a query never touches the database until the ranked page of ids is known.
+ * Results are ranked with BM25. The last query token is also expanded as a prefix,
+ * which keeps the "search as you type" behaviour of the old LIKE query.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class RecipeSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int TITLE_BOOST = 3;
+    private static final int INGREDIENT_BOOST = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "of", "on", "or", "the", "to", "with");
+
+    private final RecipeRepository recipeRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Term dictionary, kept sorted so the last query token can be expanded as a prefix
+    private final TreeMap<String, Integer> termIds = new TreeMap<>();
+    private int[][] postingDocs = new int[INITIAL_CAPACITY][];
+    private int[][] postingFreqs = new int[INITIAL_CAPACITY][];
+    private int[] postingSizes = new int[INITIAL_CAPACITY];
+
+    private final Map<UUID, Integer> docIds = new HashMap<>();
+    private UUID[] recipeIds = new UUID[INITIAL_CAPACITY];
+    private int[] docLengths = new int[INITIAL_CAPACITY];
+    private int[][] docTerms = new int[INITIAL_CAPACITY][];
+    private int docCount;
+    private int[] freeDocs = new int[INITIAL_CAPACITY];
+    private int freeDocCount;
+
+    private int liveDocs;
+    private long totalLength;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear();
+
+            Pageable pageable = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id"));
+            Slice<SearchableRecipe> slice;
+            do {
+                slice = recipeRepository.findAllSearchable(pageable);
+
+                List<UUID> ids = slice.map(SearchableRecipe::getId).getContent();
+                Map<UUID, List<String>> ingredients = recipeRepository.findIngredientsByRecipeIdIn(ids)
+                        .stream()
+                        .collect(Collectors.groupingBy(RecipeIngredient::getRecipeId,
+                                Collectors.mapping(RecipeIngredient::getIngredient, Collectors.toList())));
+
+                for (SearchableRecipe recipe : slice) {
+                    add(recipe.getId(), analyze(recipe.getTitle(), recipe.getDescription(),
+                            ingredients.getOrDefault(recipe.getId(), List.of())));
+                }
+
+                pageable = slice.nextPageable();
+            } while (slice.hasNext());
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Search index built with [{}] recipes and [{}] terms", liveDocs, termIds.size());
+    }
+
+    public void index(UUID recipeId, String title, String description, List<String> ingredients) {
+        AnalyzedDocument document = analyze(title, description, ingredients);
+
+        lock.writeLock().lock();
+        try {
+            remove(recipeId);
+            add(recipeId, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID recipeId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIds.remove(recipeId);
+            if (doc == null) {
+                return;
+            }
+
+            for (int termId : docTerms[doc]) {
+                removePosting(termId, doc);
+            }
+
+            totalLength -= docLengths[doc];
+            liveDocs--;
+            recipeIds[doc] = null;
+            docTerms[doc] = null;
+            docLengths[doc] = 0;
+
+            if (freeDocCount == freeDocs.length) {
+                freeDocs = Arrays.copyOf(freeDocs, freeDocCount * 2);
+            }
+            freeDocs[freeDocCount++] = doc;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a created or updated recipe once it is committed, so a failed save leaves no
+     * phantom or stale document behind.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeSaved(RecipeSavedEvent event) {
+        index(event.getRecipeId(), event.getTitle(), event.getDescription(), event.getIngredients());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipesDeleted(RecipesDeletedEvent event) {
+        event.getRecipeIds().forEach(this::remove);
+    }
+
+    /**
+     * Returns the ids of the recipes matching the query, best match first.
+     * The page total is the number of matching recipes.
+     */
+    public Page<UUID> search(String query, Pageable pageable) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        boolean expandLastToken = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return Page.empty(pageable);
+            }
+
+            Set<Integer> queryTerms = new LinkedHashSet<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                Integer termId = termIds.get(token);
+                if (termId != null) {
+                    queryTerms.add(termId);
+                }
+
+                if (expandLastToken && i == tokens.size() - 1) {
+                    termIds.subMap(token, false, token + Character.MAX_VALUE, false)
+                            .values()
+                            .stream()
+                            .limit(MAX_PREFIX_EXPANSIONS)
+                            .forEach(queryTerms::add);
+                }
+            }
+
+            float averageLength = (float) totalLength / liveDocs;
+            float[] scores = new float[docCount];
+            int[] hits = new int[docCount];
+            int hitCount = 0;
+
+            for (int termId : queryTerms) {
+                int documentFrequency = postingSizes[termId];
+                if (documentFrequency == 0) {
+                    continue;
+                }
+
+                double idf = Math.log(1 + (liveDocs - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                int[] docs = postingDocs[termId];
+                int[] freqs = postingFreqs[termId];
+
+                for (int i = 0; i < documentFrequency; i++) {
+                    int doc = docs[i];
+                    int tf = freqs[i];
+                    float norm = K1 * (1 - B + B * docLengths[doc] / averageLength);
+
+                    if (scores[doc] == 0) {
+                        hits[hitCount++] = doc;
+                    }
+                    scores[doc] += (float) (idf * tf * (K1 + 1) / (tf + norm));
+                }
+            }
+
+            // Scores are positive, so their float bits sort in the same order as the values.
+            // Lower document ids win ties, which keeps paging stable between requests.
+            long[] ranked = new long[hitCount];
+            for (int i = 0; i < hitCount; i++) {
+                int doc = hits[i];
+                ranked[i] = ((long) Float.floatToIntBits(scores[doc]) << 32) | (Integer.MAX_VALUE - doc);
+            }
+            Arrays.sort(ranked);
+
+            long from = pageable.isPaged() ? pageable.getOffset() : 0;
+            long to = pageable.isPaged() ? Math.min(hitCount, from + pageable.getPageSize()) : hitCount;
+
+            List<UUID> page = new ArrayList<>();
+            for (long i = from; i < to; i++) {
+                int doc = Integer.MAX_VALUE - (int) ranked[hitCount - 1 - (int) i];
+                page.add(recipeIds[doc]);
+            }
+
+            return new PageImpl<>(page, pageable, hitCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean partOfToken = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (partOfToken && start < 0) {
+                start = i;
+            } else if (!partOfToken && start >= 0) {
+                String token = lowerCase.substring(start, i);
+                if (token.length() >= MIN_TOKEN_LENGTH && !STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+
+        return tokens;
+    }
+
+    private AnalyzedDocument analyze(String title, String description, List<String> ingredients) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = addTokens(frequencies, title, TITLE_BOOST) + addTokens(frequencies, description, 1);
+        if (ingredients != null) {
+            for (String ingredient : ingredients) {
+                length += addTokens(frequencies, ingredient, INGREDIENT_BOOST);
+            }
+        }
+
+        return new AnalyzedDocument(frequencies, length);
+    }
+
+    private static int addTokens(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+
+        return tokens.size() * weight;
+    }
+
+    private void add(UUID recipeId, AnalyzedDocument document) {
+        int doc = allocateDoc();
+        docIds.put(recipeId, doc);
+        recipeIds[doc] = recipeId;
+        docLengths[doc] = document.length();
+
+        int[] terms = new int[document.frequencies().size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : document.frequencies().entrySet()) {
+            int termId = termIds.computeIfAbsent(entry.getKey(), term -> newTerm());
+            insertPosting(termId, doc, entry.getValue());
+            terms[i++] = termId;
+        }
+        docTerms[doc] = terms;
+
+        totalLength += document.length();
+        liveDocs++;
+    }
+
+    private int allocateDoc() {
+        if (freeDocCount > 0) {
+            return freeDocs[--freeDocCount];
+        }
+
+        if (docCount == recipeIds.length) {
+            int capacity = docCount * 2;
+            recipeIds = Arrays.copyOf(recipeIds, capacity);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+            docTerms = Arrays.copyOf(docTerms, capacity);
+        }
+
+        return docCount++;
+    }
+
+    private int newTerm() {
+        int termId = termIds.size();
+        if (termId == postingSizes.length) {
+            int capacity = termId * 2;
+            postingDocs = Arrays.copyOf(postingDocs, capacity);
+            postingFreqs = Arrays.copyOf(postingFreqs, capacity);
+            postingSizes = Arrays.copyOf(postingSizes, capacity);
+        }
+        postingDocs[termId] = new int[4];
+        postingFreqs[termId] = new int[4];
+
+        return termId;
+    }
+
+    private void insertPosting(int termId, int doc, int frequency) {
+        int size = postingSizes[termId];
+        int[] docs = postingDocs[termId];
+        int[] freqs = postingFreqs[termId];
+
+        if (size == docs.length) {
+            docs = postingDocs[termId] = Arrays.copyOf(docs, size * 2);
+            freqs = postingFreqs[termId] = Arrays.copyOf(freqs, size * 2);
+        }
+
+        int position = -Arrays.binarySearch(docs, 0, size, doc) - 1;
+        System.arraycopy(docs, position, docs, position + 1, size - position);
+        System.arraycopy(freqs, position, freqs, position + 1, size - position);
+        docs[position] = doc;
+        freqs[position] = frequency;
+        postingSizes[termId] = size + 1;
+    }
+
+    private void removePosting(int termId, int doc) {
+        int size = postingSizes[termId];
+        int[] docs = postingDocs[termId];
+        int[] freqs = postingFreqs[termId];
+
+        int position = Arrays.binarySearch(docs, 0, size, doc);
+        if (position < 0) {
+            return;
+        }
+
+        System.arraycopy(docs, position + 1, docs, position, size - position - 1);
+        System.arraycopy(freqs, position + 1, freqs, position, size - position - 1);
+        postingSizes[termId] = size - 1;
+    }
+
+    private void clear() {
+        termIds.clear();
+        postingDocs = new int[INITIAL_CAPACITY][];
+        postingFreqs = new int[INITIAL_CAPACITY][];
+        postingSizes = new int[INITIAL_CAPACITY];
+
+        docIds.clear();
+        recipeIds = new UUID[INITIAL_CAPACITY];
+        docLengths = new int[INITIAL_CAPACITY];
+        docTerms = new int[INITIAL_CAPACITY][];
+        docCount = 0;
+        freeDocs = new int[INITIAL_CAPACITY];
+        freeDocCount = 0;
+
+        liveDocs = 0;
+        totalLength = 0;
+    }
+
+    private record AnalyzedDocument(Map<String, Integer> frequencies, int length) {
+    }
+}
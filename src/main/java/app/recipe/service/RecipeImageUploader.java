@@ -0,0 +1,160 @@
+package app.recipe.service;
+
+import app.cloudinary.dto.ImageUploadResult;
+import app.cloudinary.service.CloudinaryService;
+import app.recipe.event.RecipeImageStagedEvent;
+import app.recipe.repository.PendingImageUpload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uploads staged recipe images in the background once the recipe row is committed, then points
+ * the recipe at the uploaded image. Failed uploads are retried with exponential backoff.
+ * Uploads the executor rejects, and those cut short by a restart, stay pending with their image
+ * staged; a periodic recovery run, which also runs at startup, submits them again.
+ */
+@Slf4j
+@Component
+public class RecipeImageUploader {
+
+    private final CloudinaryService cloudinaryService;
+    private final RecipeService recipeService;
+    private final TaskExecutor imageUploadExecutor;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+
+    // Staged images being uploaded, so recovery does not submit them a second time
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+
+    public RecipeImageUploader(CloudinaryService cloudinaryService,
+                               RecipeService recipeService,
+                               @Qualifier("imageUploadExecutor") TaskExecutor imageUploadExecutor,
+                               @Value("${recipes.image-upload.max-attempts:3}") int maxAttempts,
+                               @Value("${recipes.image-upload.initial-backoff-ms:1000}") long initialBackoffMs) {
+        this.cloudinaryService = cloudinaryService;
+        this.recipeService = recipeService;
+        this.imageUploadExecutor = imageUploadExecutor;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageStaged(RecipeImageStagedEvent event) {
+        submit(event.getRecipeId(), event.getImage());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onImageDiscarded(RecipeImageStagedEvent event) {
+        deleteStagedFile(event.getImage());
+    }
+
+    /**
+     * Submits the uploads of recipes that are still pending and not being uploaded. One whose
+     * staged image is gone, e.g. because the temp directory was cleared, is marked as failed.
+     */
+    @Scheduled(fixedDelayString = "${recipes.image-upload.recovery-interval-ms:60000}")
+    public void resumePendingUploads() {
+        for (PendingImageUpload pending : recipeService.getPendingImageUploads()) {
+            Path image = pending.getStagedImage() != null ? Path.of(pending.getStagedImage()) : null;
+
+            if (image != null && inFlight.contains(image)) {
+                continue;
+            }
+
+            // An upload that finishes removes its file before leaving the in-flight set
+            if (image == null || !Files.exists(image)) {
+                log.warn("Staged image of recipe {} is gone, marking its upload as failed", pending.getId());
+                recipeService.markImageUploadFailed(pending.getId(), image);
+                continue;
+            }
+
+            submit(pending.getId(), image);
+        }
+    }
+
+    private void submit(UUID recipeId, Path image) {
+        if (!inFlight.add(image)) {
+            return;
+        }
+
+        try {
+            imageUploadExecutor.execute(() -> upload(recipeId, image));
+        } catch (TaskRejectedException e) {
+            // Never run on the caller's thread; the recipe stays pending until the next recovery run
+            inFlight.remove(image);
+            log.warn("Image upload for recipe {} was deferred, the upload executor is saturated", recipeId);
+        }
+    }
+
+    void upload(UUID recipeId, Path image) {
+        try {
+            ImageUploadResult uploadResult = uploadWithRetries(recipeId, image);
+
+            if (uploadResult == null) {
+                recipeService.markImageUploadFailed(recipeId, image);
+                return;
+            }
+
+            if (!recipeService.completeImageUpload(recipeId, image, uploadResult)) {
+                // The recipe was deleted, or given a newer image, while this one was uploading
+                cloudinaryService.deleteImage(uploadResult.getPublicId());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to apply uploaded image to recipe {}", recipeId, e);
+        } finally {
+            deleteStagedFile(image);
+            inFlight.remove(image);
+        }
+    }
+
+    private ImageUploadResult uploadWithRetries(UUID recipeId, Path image) {
+        long backoffMs = initialBackoffMs;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                return cloudinaryService.uploadImage(image);
+            } catch (RuntimeException e) {
+                log.warn("Image upload attempt {}/{} for recipe {} failed: {}", attempt, maxAttempts, recipeId, e.getMessage());
+            }
+
+            if (attempt < maxAttempts && !sleep(backoffMs)) {
+                break;
+            }
+            backoffMs *= 2;
+        }
+
+        return null;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void deleteStagedFile(Path image) {
+        try {
+            Files.deleteIfExists(image);
+        } catch (IOException e) {
+            log.warn("Could not delete staged image {}", image, e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package app.recipe.service;
+
+import app.recipe.model.RecipeIdSet;
+import app.recipe.model.RecipeMemberships;
+import app.recipe.repository.RecipeMembershipView;
+import app.recipe.repository.RecipeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * Which recipes each active user has liked and added to favorites, so a page of recipe cards
+ * can be marked without a query per card. A user's memberships are loaded with one query on
+ * first use and then kept up to date by {@link app.like.service.LikeService} and
+ * {@link app.favorite.service.FavoriteService}. Changes are applied to users already cached,
+ * once the surrounding transaction has committed, so a rolled-back change never shows up.
+ */
+@Component
+public class RecipeMembershipCache {
+
+    private final RecipeRepository recipeRepository;
+    private final Cache<UUID, RecipeMemberships> memberships;
+
+    public RecipeMembershipCache(RecipeRepository recipeRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${recipes.memberships.maximum-users:10000}") long maximumUsers,
+                                 @Value("${recipes.memberships.expire-after-access-ms:1800000}") long expireAfterAccessMs) {
+        this.recipeRepository = recipeRepository;
+        this.memberships = Caffeine.newBuilder()
+                .maximumSize(maximumUsers)
+                .expireAfterAccess(Duration.ofMillis(expireAfterAccessMs))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, memberships, "recipeMemberships");
+    }
+
+    public RecipeMemberships get(UUID userId) {
+        if (userId == null) {
+            return RecipeMemberships.EMPTY;
+        }
+
+        return memberships.get(userId, this::load);
+    }
+
+    public void setLiked(UUID userId, UUID recipeId, boolean liked) {
+        update(userId, current -> current.withLiked(recipeId, liked));
+    }
+
+    public void setFavorite(UUID userId, UUID recipeId, boolean favorite) {
+        update(userId, current -> current.withFavorite(recipeId, favorite));
+    }
+
+    /**
+     * Drops everything cached for the user, for changes made in bulk; the next read reloads it.
+     */
+    public void evict(UUID userId) {
+        memberships.invalidate(userId);
+    }
+
+    private RecipeMemberships load(UUID userId) {
+        List<UUID> liked = new ArrayList<>();
+        List<UUID> favorites = new ArrayList<>();
+
+        for (RecipeMembershipView membership : recipeRepository.findMembershipsByUserId(userId)) {
+            (membership.getKind() == RecipeMembershipView.LIKE ? liked : favorites).add(membership.getRecipeId());
+        }
+
+        return new RecipeMemberships(RecipeIdSet.of(liked), RecipeIdSet.of(favorites));
+    }
+
+    private void update(UUID userId, UnaryOperator<RecipeMemberships> change) {
+        Runnable apply = () -> memberships.asMap().computeIfPresent(userId, (id, current) -> change.apply(current));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+}
@@ -1,43 +1,121 @@
 package app.recipe.service;
 
 import app.activitylog.event.ActivityLogEvent;
+import app.activitylog.model.ActivityType;
 import app.category.model.Category;
 import app.category.service.CategoryService;
 import app.cloudinary.dto.ImageUploadResult;
 import app.cloudinary.service.CloudinaryService;
+import app.config.CacheConfiguration;
 import app.exception.RecipeNotFoundException;
+import app.like.service.LikeCounter;
+import app.mapper.DtoMapper;
+import app.recipe.event.RecipeImageStagedEvent;
+import app.recipe.event.RecipeSavedEvent;
+import app.recipe.event.RecipesDeletedEvent;
+import app.recipe.model.ImageStatus;
 import app.recipe.model.Recipe;
+import app.recipe.model.RecipeSnapshot;
+import app.recipe.repository.DeletableRecipe;
+import app.recipe.repository.PendingImageUpload;
+import app.recipe.repository.RecipeDetailsView;
+import app.recipe.repository.RecipeIngredient;
 import app.recipe.repository.RecipeRepository;
+import app.recipe.search.RecipeSearchIndex;
 import app.user.model.User;
 import app.user.service.UserService;
 import app.web.dto.AddRecipe;
+import app.web.dto.AdminGrid;
+import app.web.dto.CursorPage;
 import app.web.dto.EditRecipe;
+import app.web.dto.KeysetCursor;
+import app.web.dto.RecipeDetails;
+import app.web.dto.RecipeForAdminPageInfo;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
 public class RecipeService {
 
+    public static final String PLACEHOLDER_IMAGE = "/images/dish.png";
+    public static final Map<String, String> ADMIN_SORT_COLUMNS = Map.of(
+            "title", "r.title",
+            "author", "u.username",
+            "createdDate", "r.createdDate");
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdDate"), Sort.Order.desc("id"));
+
     private final RecipeRepository recipeRepository;
     private final CategoryService categoryService;
     private final UserService userService;
     private final CloudinaryService cloudinaryService;
     private final ApplicationEventPublisher eventPublisher;
+    private final RecipeSearchIndex recipeSearchIndex;
+    private final LikeCounter likeCounter;
+    private final CacheManager cacheManager;
 
     public Page<Recipe> getAll(Pageable pageable) {
-        return recipeRepository.findAll(pageable);
+        return recipeRepository.findAll(newestFirst(pageable));
+    }
+
+    /**
+     * Keyset variant of {@link #getAll(Pageable)} for deep pages: it seeks past the cursor
+     * on the (createdDate, id) index instead of skipping rows, and never runs a count query.
+     */
+    public CursorPage<Recipe> getAllAfter(String cursor, int size) {
+        // Fetch one extra row to find out whether there is a next page
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<Recipe> recipes = cursor == null
+                ? recipeRepository.findNewest(limit)
+                : findNewestBefore(KeysetCursor.decode(cursor), limit);
+
+        if (recipes.size() <= size) {
+            return new CursorPage<>(recipes, null);
+        }
+
+        List<Recipe> page = recipes.subList(0, size);
+        return new CursorPage<>(page, cursorAfter(page.get(size - 1)));
+    }
+
+    public static String cursorAfter(Recipe recipe) {
+        return new KeysetCursor(recipe.getCreatedDate(), recipe.getId()).encode();
+    }
+
+    private List<Recipe> findNewestBefore(KeysetCursor cursor, Pageable limit) {
+        return recipeRepository.findNewestBefore(cursor.getDate(), cursor.getId(), limit);
+    }
+
+    private static Pageable newestFirst(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().isSorted()) {
+            return pageable;
+        }
+
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), NEWEST_FIRST);
     }
 
     public Recipe getById(UUID recipeId) {
@@ -45,17 +123,77 @@ public class RecipeService {
                 orElseThrow(() -> new RecipeNotFoundException("Recipe with id " + recipeId + " not found."));
     }
 
+    /**
+     * Cached, read-only view of a recipe for services that only need to know it exists, who
+     * created it and what it is called. The load runs inside the cache's own compute, so an
+     * eviction of the same recipe waits for it and then drops whatever it stored.
+     */
+    @Cacheable(cacheNames = CacheConfiguration.RECIPE_SNAPSHOTS, key = "#recipeId", sync = true)
+    public RecipeSnapshot getSnapshot(UUID recipeId) {
+        return recipeRepository.findSnapshotById(recipeId)
+                .orElseThrow(() -> new RecipeNotFoundException("Recipe with id " + recipeId + " not found."));
+    }
+
+    /**
+     * Uninitialized proxy for setting a foreign key without selecting the recipe row.
+     */
+    public Recipe getReference(UUID recipeId) {
+        return recipeRepository.getReferenceById(recipeId);
+    }
+
+    /**
+     * Builds the details view for one viewer with two statements: the recipe row with its
+     * like count and the viewer's like/favorite flags, and the ingredient list.
+     */
+    public RecipeDetails getDetails(UUID recipeId, UUID viewerId) {
+        RecipeDetailsView details = recipeRepository.findDetailsById(recipeId, viewerId)
+                .orElseThrow(() -> new RecipeNotFoundException("Recipe with id " + recipeId + " not found."));
+
+        List<String> ingredients = recipeRepository.findIngredientsByRecipeIdIn(List.of(recipeId))
+                .stream()
+                .map(RecipeIngredient::getIngredient)
+                .toList();
+
+        return DtoMapper.mapRecipeDetailsViewToRecipeDetails(details, ingredients, likeCounter.pending(recipeId));
+    }
+
+    /**
+     * Applies buffered like count deltas in one transaction. Rows are updated in id order so
+     * concurrent flushes lock them in the same sequence.
+     */
+    @Transactional
+    public void applyLikeDeltas(Map<UUID, Long> deltas) {
+        deltas.entrySet()
+                .stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(delta -> recipeRepository.addToLikeCount(delta.getKey(), delta.getValue()));
+    }
+
+    @Transactional
+    public int recountLikes() {
+        return recipeRepository.recountLikes();
+    }
+
+    public boolean hasUncountedLikes() {
+        return recipeRepository.existsUncountedLikes();
+    }
+
+    @Transactional
     public Recipe create(AddRecipe addRecipe, UUID id) {
         User user = userService.getUserById(id);
 
-        // Upload new image
-        ImageUploadResult uploadResult = cloudinaryService.uploadImage(addRecipe.getImage());
-        Recipe newRecipe = initializeRecipe(addRecipe, user, uploadResult.getImageUrl());
-        newRecipe.setImagePublicId(uploadResult.getPublicId());
+        // The image is uploaded in the background; show a placeholder until it is ready
+        Path stagedImage = cloudinaryService.stageImage(addRecipe.getImage());
+        Recipe newRecipe = initializeRecipe(addRecipe, user, PLACEHOLDER_IMAGE);
+        newRecipe.setImageStatus(ImageStatus.PENDING);
+        newRecipe.setStagedImage(stagedImage.toString());
 
-        Recipe recipe = recipeRepository.save(newRecipe);
+        Recipe recipe = saveStaged(newRecipe, stagedImage);
+        eventPublisher.publishEvent(RecipeSavedEvent.of(recipe));
 
-        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), "You have successfully added recipe: " + recipe.getTitle()));
+        eventPublisher.publishEvent(new RecipeImageStagedEvent(recipe.getId(), stagedImage));
+
+        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), ActivityType.RECIPE_ADDED, recipe.getId(), recipe.getTitle()));
 
         return recipe;
     }
@@ -89,6 +227,7 @@ public class RecipeService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfiguration.RECIPE_SNAPSHOTS, key = "#editRecipe.id")
     public void update(EditRecipe editRecipe) {
         Recipe recipeToUpdate = getById(editRecipe.getId());
         List<Category> categories = editRecipe.getCategories()
@@ -129,49 +268,171 @@ public class RecipeService {
             recipeToUpdate.setPrepTime(editRecipe.getPrepTime());
         }
 
+        Path stagedImage = null;
         if (editRecipe.getImage() != null && !editRecipe.getImage().isEmpty()) {
-            // Delete old image from Cloudinary
-            cloudinaryService.deleteImage(recipeToUpdate.getImagePublicId());
-            // Upload new image
-            ImageUploadResult uploadResult = cloudinaryService.uploadImage(editRecipe.getImage());
-            recipeToUpdate.setImage(uploadResult.getImageUrl());
-            recipeToUpdate.setImagePublicId(uploadResult.getPublicId());
+            // The old image stays visible until the new one is uploaded and replaces it
+            stagedImage = cloudinaryService.stageImage(editRecipe.getImage());
+            recipeToUpdate.setImageStatus(ImageStatus.PENDING);
+            recipeToUpdate.setStagedImage(stagedImage.toString());
         }
 
-        Recipe recipe = recipeRepository.save(recipeToUpdate);
+        Recipe recipe = saveStaged(recipeToUpdate, stagedImage);
+        eventPublisher.publishEvent(RecipeSavedEvent.of(recipe));
+
+        if (stagedImage != null) {
+            eventPublisher.publishEvent(new RecipeImageStagedEvent(recipe.getId(), stagedImage));
+        }
 
         eventPublisher.publishEvent(new ActivityLogEvent(recipe.getCreatedBy().getId(),
-                "You have successfully updated recipe: " + recipe.getTitle()));
+                ActivityType.RECIPE_UPDATED, recipe.getId(), recipe.getTitle()));
     }
 
-    public void delete(UUID id) {
-        Recipe recipe = getById(id);
+    /**
+     * Saves a recipe whose image was just staged. A failed save discards the staged file here;
+     * one that fails on commit is discarded by {@link RecipeImageUploader#onImageDiscarded}.
+     */
+    private Recipe saveStaged(Recipe recipe, Path stagedImage) {
+        try {
+            return recipeRepository.save(recipe);
+        } catch (RuntimeException e) {
+            if (stagedImage != null) {
+                cloudinaryService.discardStagedImage(stagedImage);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Recipes whose image is still waiting to be uploaded, with where it is staged.
+     */
+    public List<PendingImageUpload> getPendingImageUploads() {
+        return recipeRepository.findImageUploadsByStatus(ImageStatus.PENDING);
+    }
 
-        cloudinaryService.deleteImage(recipe.getImagePublicId());
+    /**
+     * Points the recipe at a freshly uploaded image and removes the image it replaces. Uploads can
+     * finish out of order, so only the upload of the image the recipe has staged now is applied.
+     *
+     * @return false if the recipe no longer exists or has staged a newer image since, in which
+     * case the upload is an orphan.
+     */
+    @Transactional
+    public boolean completeImageUpload(UUID recipeId, Path stagedImage, ImageUploadResult uploadResult) {
+        Optional<Recipe> recipe = recipeRepository.findById(recipeId)
+                .filter(found -> isStaged(found, stagedImage));
 
-        recipeRepository.delete(recipe);
+        if (recipe.isEmpty()) {
+            return false;
+        }
 
-        eventPublisher.publishEvent(new ActivityLogEvent(recipe.getCreatedBy().getId(),
-                "You have successfully deleted recipe: " + recipe.getTitle()));
+        String replacedPublicId = recipe.get().getImagePublicId();
+
+        recipe.get().setImage(uploadResult.getImageUrl());
+        recipe.get().setImagePublicId(uploadResult.getPublicId());
+        recipe.get().setImageStatus(ImageStatus.READY);
+        recipe.get().setStagedImage(null);
+
+        cloudinaryService.deleteImage(replacedPublicId);
+
+        return true;
     }
 
-    public List<Recipe> getAllForAdmin() {
-        return recipeRepository.findAll();
+    /**
+     * Marks a pending image upload as failed. Recipes whose upload has completed in the meantime,
+     * or that have staged a newer image since, are left as they are.
+     */
+    @Transactional
+    public void markImageUploadFailed(UUID recipeId, Path stagedImage) {
+        recipeRepository.findById(recipeId)
+                .filter(recipe -> recipe.getImageStatus() == ImageStatus.PENDING && isStaged(recipe, stagedImage))
+                .ifPresent(recipe -> {
+                    recipe.setImageStatus(ImageStatus.FAILED);
+                    recipe.setStagedImage(null);
+                });
     }
 
-    public Page<Recipe> searchRecipes(String query, Pageable pageable) {
-        return recipeRepository.findAllByTitleContainingIgnoreCase(query, pageable);
+    private static boolean isStaged(Recipe recipe, Path stagedImage) {
+        return Objects.equals(recipe.getStagedImage(), stagedImage != null ? stagedImage.toString() : null);
     }
 
-    public List<Recipe> getRecipesByIds(List<UUID> favoriteRecipeIds) {
-        return recipeRepository.findAllByIdIn(favoriteRecipeIds);
+    @Transactional
+    public void delete(UUID id) {
+        DeletableRecipe recipe = getDeletable(id);
+
+        deleteAll(List.of(recipe));
+
+        eventPublisher.publishEvent(new ActivityLogEvent(recipe.getCreatorId(),
+                ActivityType.RECIPE_DELETED, recipe.getId(), recipe.getTitle()));
     }
 
-    public void deleteByAdmin(UUID recipeId) {
-        Recipe recipe = getById(recipeId);
+    /**
+     * Deletes the recipes with one statement per table, without loading them or anything that
+     * refers to them. Comments, likes and favorites cascade in the database, but comments and
+     * likes are still deleted explicitly: schema updates leave the foreign keys of existing
+     * tables as they were created, without the cascade.
+     *
+     * @return how many of the recipes were deleted.
+     */
+    @Transactional
+    public int deleteAll(List<DeletableRecipe> recipes) {
+        if (recipes.isEmpty()) {
+            return 0;
+        }
+
+        List<UUID> ids = recipes.stream().map(DeletableRecipe::getId).toList();
 
-        cloudinaryService.deleteImage(recipe.getImagePublicId());
+        recipeRepository.deleteCommentsByRecipeIdIn(ids);
+        recipeRepository.deleteLikesByRecipeIdIn(ids);
+        int deleted = recipeRepository.deleteAllByIdIn(ids);
 
-        recipeRepository.delete(recipe);
+        // Evictions are deferred until the transaction commits
+        Cache snapshots = cacheManager.getCache(CacheConfiguration.RECIPE_SNAPSHOTS);
+
+        for (DeletableRecipe recipe : recipes) {
+            cloudinaryService.deleteImage(recipe.getImagePublicId());
+            snapshots.evict(recipe.getId());
+        }
+
+        // Removed from the search index after commit, so a rolled back batch stays searchable
+        eventPublisher.publishEvent(new RecipesDeletedEvent(ids));
+
+        return deleted;
+    }
+
+    private DeletableRecipe getDeletable(UUID recipeId) {
+        return recipeRepository.findDeletableById(recipeId)
+                .orElseThrow(() -> new RecipeNotFoundException("Recipe with id " + recipeId + " not found."));
+    }
+
+    /**
+     * One page of the admin recipe grid, optionally narrowed to recipes whose title or author's
+     * username starts with {@code filter}.
+     */
+    public Page<RecipeForAdminPageInfo> getAllForAdmin(String filter, Pageable pageable) {
+        Pageable page = AdminGrid.pageRequest(pageable, ADMIN_SORT_COLUMNS, Sort.Order.desc("createdDate"), "r.id");
+
+        return recipeRepository.findAdminPage(AdminGrid.prefixPattern(filter), page);
+    }
+
+    public Page<Recipe> searchRecipes(String query, Pageable pageable) {
+        Page<UUID> matches = recipeSearchIndex.search(query, pageable);
+
+        // findAllByIdIn does not keep the order of the ids, so restore the ranking
+        Map<UUID, Recipe> recipesById = recipeRepository.findAllByIdIn(matches.getContent())
+                .stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+
+        List<Recipe> recipes = matches.getContent()
+                .stream()
+                .map(recipesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new PageImpl<>(recipes, pageable, matches.getTotalElements());
+    }
+
+    @Transactional
+    public void deleteByAdmin(UUID recipeId) {
+        deleteAll(List.of(getDeletable(recipeId)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package app.scheduler;
+
+import app.cloudinary.model.PendingImageDeletion;
+import app.cloudinary.repository.PendingImageDeletionRepository;
+import app.cloudinary.service.CloudinaryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class ImageDeletionScheduler {
+
+    // The Cloudinary Admin API deletes at most 100 resources per call
+    static final int BATCH_SIZE = 100;
+
+    private final PendingImageDeletionRepository pendingImageDeletionRepository;
+    private final CloudinaryService cloudinaryService;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Timer batchTimer;
+    private final Counter deleted;
+    private final Counter retried;
+    private final Counter abandoned;
+
+    public ImageDeletionScheduler(PendingImageDeletionRepository pendingImageDeletionRepository,
+                                  CloudinaryService cloudinaryService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${images.deletion.max-attempts:8}") int maxAttempts,
+                                  @Value("${images.deletion.initial-backoff-ms:60000}") long initialBackoffMs) {
+        this.pendingImageDeletionRepository = pendingImageDeletionRepository;
+        this.cloudinaryService = cloudinaryService;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.batchTimer = meterRegistry.timer("images.deletion.batch");
+        this.deleted = meterRegistry.counter("images.deletion", "outcome", "deleted");
+        this.retried = meterRegistry.counter("images.deletion", "outcome", "retried");
+        this.abandoned = meterRegistry.counter("images.deletion", "outcome", "abandoned");
+    }
+
+    @Scheduled(fixedDelayString = "${images.deletion.interval-ms:30000}")
+    public void deletePendingImages() {
+        List<PendingImageDeletion> batch;
+
+        do {
+            batch = pendingImageDeletionRepository.findDue(LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            deleteBatch(batch);
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    private void deleteBatch(List<PendingImageDeletion> batch) {
+        Set<String> publicIds = batch.stream()
+                .map(PendingImageDeletion::getPublicId)
+                .collect(Collectors.toSet());
+
+        Set<String> destroyed;
+        try {
+            destroyed = batchTimer.record(() -> cloudinaryService.destroyImages(publicIds));
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete a batch of {} images, will retry.", publicIds.size(), e);
+            destroyed = Set.of();
+        }
+
+        List<PendingImageDeletion> finished = new ArrayList<>();
+        List<PendingImageDeletion> rescheduled = new ArrayList<>();
+
+        for (PendingImageDeletion deletion : batch) {
+            if (destroyed.contains(deletion.getPublicId())) {
+                finished.add(deletion);
+                deleted.increment();
+            } else if (deletion.getAttempts() + 1 >= maxAttempts) {
+                finished.add(deletion);
+                abandoned.increment();
+                log.error("Giving up on deleting image {} after {} attempts.", deletion.getPublicId(), maxAttempts);
+            } else {
+                deletion.setAttempts(deletion.getAttempts() + 1);
+                deletion.setNextAttemptAt(LocalDateTime.now().plus(initialBackoff.multipliedBy(1L << (deletion.getAttempts() - 1))));
+                rescheduled.add(deletion);
+                retried.increment();
+            }
+        }
+
+        pendingImageDeletionRepository.deleteAllInBatch(finished);
+        pendingImageDeletionRepository.saveAll(rescheduled);
+    }
+}
@@ -0,0 +1,66 @@
+package app.scheduler;
+
+import app.like.service.LikeCounter;
+import app.recipe.service.RecipeService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
+@Component
+public class LikeCountFlushScheduler implements SmartInitializingSingleton {
+
+    private final LikeCounter likeCounter;
+    private final RecipeService recipeService;
+    private final boolean recountOnStartup;
+
+    public LikeCountFlushScheduler(LikeCounter likeCounter,
+                                   RecipeService recipeService,
+                                   @Value("${likes.recount-on-startup:false}") boolean recountOnStartup) {
+        this.likeCounter = likeCounter;
+        this.recipeService = recipeService;
+        this.recountOnStartup = recountOnStartup;
+    }
+
+    /**
+     * Recounts every recipe's likes from the likes table when {@code likes.recount-on-startup} is
+     * set, or when a liked recipe still has a zero count, which backfills the column once after an
+     * upgrade. Runs before the web server accepts requests, so no like can be buffered yet and
+     * counted a second time when its delta is flushed.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (recountOnStartup || recipeService.hasUncountedLikes()) {
+            int updated = recipeService.recountLikes();
+
+            log.info("Reconciled like counts for {} recipes.", updated);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${likes.flush-interval-ms:5000}")
+    public void flushLikeCounts() {
+        Map<UUID, Long> deltas = likeCounter.drain();
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            recipeService.applyLikeDeltas(deltas);
+        } catch (RuntimeException e) {
+            likeCounter.restore(deltas);
+            log.warn("Failed to flush like counts for {} recipes, will retry.", deltas.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushLikeCounts();
+    }
+}
@@ -12,7 +12,10 @@ import java.util.UUID;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "users",uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "recipe_id"}))
+@Table(name = "users",uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "recipe_id"}),
+        indexes = {
+                @Index(name = "idx_users_role_username", columnList = "role, username"),
+                @Index(name = "idx_users_is_active_username", columnList = "is_active, username")})
 public class User {
 
     @Id
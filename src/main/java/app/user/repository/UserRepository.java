@@ -1,18 +1,25 @@
 package app.user.repository;
 
 import app.user.model.User;
+import app.web.dto.UserWithRole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
+    String ADMIN_FILTER = "WHERE :pattern IS NULL OR u.username LIKE :pattern ESCAPE '!' OR u.email LIKE :pattern ESCAPE '!'";
+
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
@@ -23,4 +30,15 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     @Query("SELECT u FROM User u WHERE u.isActive = true AND (u.lastLogin IS NULL OR u.lastLogin < :sixMonthsAgo)")
     List<User> findInactiveUsers(@Param("sixMonthsAgo") LocalDateTime sixMonthsAgo);
+
+    @Query(value = "SELECT new app.web.dto.UserWithRole(u.id, u.username, u.email, u.role, u.isActive) FROM User u " + ADMIN_FILTER,
+            countQuery = "SELECT COUNT(u) FROM User u " + ADMIN_FILTER)
+    Page<UserWithRole> findAdminPage(@Param("pattern") String pattern, Pageable pageable);
+
+    /**
+     * @return how many of the users were active until now.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.isActive = false WHERE u.id IN :ids AND u.isActive = true")
+    int deactivateAllByIdIn(@Param("ids") Collection<UUID> ids);
 }
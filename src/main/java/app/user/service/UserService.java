@@ -1,6 +1,7 @@
 package app.user.service;
 
 import app.activitylog.event.ActivityLogEvent;
+import app.activitylog.model.ActivityType;
 import app.cloudinary.dto.ImageUploadResult;
 import app.cloudinary.service.CloudinaryService;
 import app.exception.UserAlreadyExistsException;
@@ -9,19 +10,26 @@ import app.security.CustomUserDetails;
 import app.user.model.Role;
 import app.user.model.User;
 import app.user.repository.UserRepository;
+import app.web.dto.AdminGrid;
 import app.web.dto.RegisterRequest;
+import app.web.dto.UserWithRole;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Slf4j
@@ -29,6 +37,15 @@ import java.util.UUID;
 @Service
 public class UserService implements UserDetailsService {
 
+    // Usernames are unique, so they also settle ties; role and status have (column, username) indexes
+    public static final Map<String, String> ADMIN_SORT_COLUMNS = Map.of(
+            "username", "u.username",
+            "email", "u.email",
+            "role", "u.role",
+            "active", "u.isActive");
+
+    private static final String DEFAULT_PROFILE_PICTURE = "/images/default-profile.png";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final CloudinaryService cloudinaryService;
@@ -45,7 +62,7 @@ public class UserService implements UserDetailsService {
 
         User user = userRepository.save(initializeUser(registerRequest));
 
-        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), "You have successfully registered with username: " + user.getUsername()));
+        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), ActivityType.REGISTERED, user.getId(), user.getUsername()));
 
         log.info("Successfully create new user account for username [%s] and email [%s], with id [%s]"
                 .formatted(user.getUsername(), user.getEmail(), user.getId()));
@@ -61,32 +78,58 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UserNotFoundException("User with id " + userId + " not found."));
     }
 
+    /**
+     * The new picture is uploaded outside the transaction; the old one is released together with
+     * the update of the user, so a failed update leaves it in place.
+     */
+    @Transactional
     public void updateProfilePicture(UUID userId,
                                      MultipartFile newImage) {
         User user = getUserById(userId);
 
+        // Upload new image
+        ImageUploadResult uploadResult = cloudinaryService.uploadImage(newImage);
+
+        // The old picture is only released once its replacement is stored
         if (user.getImagePublicId() != null) {
             cloudinaryService.deleteImage(user.getImagePublicId());
         }
-        // Upload new image
-        ImageUploadResult uploadResult = cloudinaryService.uploadImage(newImage);
 
         user.setDateUpdated(LocalDateTime.now());
         user.setProfilePicture(uploadResult.getImageUrl());
         user.setImagePublicId(uploadResult.getPublicId());
         userRepository.save(user);
 
-        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), "You have successfully updated your profile picture"));
+        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), ActivityType.PROFILE_PICTURE_UPDATED, user.getId()));
 
         log.info("Successfully updated profile picture for user [{}] with id [{}]", user.getUsername(), user.getId());
     }
 
+    /**
+     * Puts the default picture back and releases the uploaded one, if any.
+     */
+    @Transactional
+    public void removeProfilePicture(UUID userId) {
+        User user = getUserById(userId);
+
+        if (user.getImagePublicId() == null) {
+            return;
+        }
+
+        cloudinaryService.deleteImage(user.getImagePublicId());
+
+        user.setDateUpdated(LocalDateTime.now());
+        user.setProfilePicture(DEFAULT_PROFILE_PICTURE);
+        user.setImagePublicId(null);
+        userRepository.save(user);
+    }
+
     public void updateUsername(UUID userId, String username) {
         User user = getUserById(userId);
         user.setUsername(username);
         User updated = userRepository.save(user);
 
-        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), "You have successfully updated your username to: " + updated.getUsername()));
+        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), ActivityType.USERNAME_UPDATED, user.getId(), updated.getUsername()));
 
         log.info("Successfully update profile username for user [%s] with id [%s]".formatted(updated.getUsername(), updated.getId()));
     }
@@ -96,7 +139,7 @@ public class UserService implements UserDetailsService {
         user.setEmail(email);
         User updated = userRepository.save(user);
 
-        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), "You have successfully updated your email to: " + updated.getEmail()));
+        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), ActivityType.EMAIL_UPDATED, user.getId(), updated.getEmail()));
 
         log.info("Successfully update profile email for user [%s] with id [%s]".formatted(updated.getUsername(), updated.getId()));
     }
@@ -106,7 +149,7 @@ public class UserService implements UserDetailsService {
         user.setPassword(passwordEncoder.encode(password));
         User updated = userRepository.save(user);
 
-        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), "You have successfully updated your password"));
+        eventPublisher.publishEvent(new ActivityLogEvent(user.getId(), ActivityType.PASSWORD_UPDATED, user.getId()));
 
         log.info("Successfully update profile password for user [%s] with id [%s]".formatted(updated.getUsername(), updated.getId()));
     }
@@ -119,8 +162,14 @@ public class UserService implements UserDetailsService {
         return userRepository.existsByEmail(email);
     }
 
-    public List<User> getAll() {
-        return userRepository.findAll();
+    /**
+     * One page of the admin user grid, optionally narrowed to users whose username or email
+     * starts with {@code filter}.
+     */
+    public Page<UserWithRole> getAllForAdmin(String filter, Pageable pageable) {
+        Pageable page = AdminGrid.pageRequest(pageable, ADMIN_SORT_COLUMNS, Sort.Order.asc("username"), "u.username");
+
+        return userRepository.findAdminPage(AdminGrid.prefixPattern(filter), page);
     }
 
     public void changeUserRole(UUID userId) {
@@ -164,7 +213,7 @@ public class UserService implements UserDetailsService {
                 .username(registerRequest.getUsername())
                 .email(registerRequest.getEmail())
                 .password(passwordEncoder.encode(registerRequest.getPassword()))
-                .profilePicture("/images/default-profile.png")
+                .profilePicture(DEFAULT_PROFILE_PICTURE)
                 .dateRegistered(LocalDateTime.now())
                 .role(Role.USER) //every new user has user role by default
                 .isActive(true)
@@ -0,0 +1,33 @@
+package app.web;
+
+import app.activitylog.dto.ActivityLogPage;
+import app.activitylog.service.ActivityLogService;
+import app.security.CustomUserDetails;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/activity-log")
+public class ActivityLogApiController {
+
+    private final ActivityLogService activityLogService;
+
+    @GetMapping("/{userId}")
+    public ResponseEntity<ActivityLogPage> getActivityLog(@PathVariable UUID userId,
+                                                          @RequestParam(value = "before", required = false) String before,
+                                                          @RequestParam(value = "size", defaultValue = "20") int size,
+                                                          @AuthenticationPrincipal CustomUserDetails customUserDetails) {
+        // Users may only read their own activity log
+        if (!userId.equals(customUserDetails.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(activityLogService.getActivityLog(userId, before, size));
+    }
+}
@@ -1,21 +1,27 @@
 package app.web;
 
 import app.comment.service.CommentService;
-import app.mapper.DtoMapper;
+import app.moderation.service.ModerationService;
 import app.recipe.service.RecipeService;
 import app.user.service.UserService;
+import app.web.dto.AdminGrid;
 import app.web.dto.CommentForAdminPage;
+import app.web.dto.PurgeSummary;
 import app.web.dto.RecipeForAdminPageInfo;
 import app.web.dto.UserWithRole;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Controller
@@ -26,15 +32,15 @@ public class AdminController {
     private final UserService userService;
     private final RecipeService recipeService;
     private final CommentService commentService;
+    private final ModerationService moderationService;
 
     @GetMapping("/users")
-    public ModelAndView adminUserManagement(@RequestParam(value = "message", required = false) String message) {
-        List<UserWithRole> users = userService.getAll()
-                .stream()
-                .map(DtoMapper::mapUserToUserWithRole)
-                .collect(Collectors.toList());
+    public ModelAndView adminUserManagement(@RequestParam(value = "message", required = false) String message,
+                                            @RequestParam(value = "q", required = false) String filter,
+                                            @PageableDefault(size = 20, sort = "username") Pageable pageable) {
+        Page<UserWithRole> users = userService.getAllForAdmin(filter, pageable);
 
-        ModelAndView modelAndView = new ModelAndView("admin-user-management");
+        ModelAndView modelAndView = gridView("admin-user-management", filter, users, UserService.ADMIN_SORT_COLUMNS);
         modelAndView.addObject("users", users);
 
         if (message != null) {
@@ -58,14 +64,39 @@ public class AdminController {
         return new ModelAndView("redirect:/admin/users", "message", "You have successfully changed the user's status");
     }
 
+    @PutMapping("/users/deactivate")
+    public ModelAndView deactivateUsers(@RequestParam(value = "ids", required = false) List<UUID> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return new ModelAndView("redirect:/admin/users", "message", "No users were selected");
+        }
+
+        int deactivated = moderationService.deactivateUsers(userIds);
+
+        return new ModelAndView("redirect:/admin/users", "message", "You have successfully deactivated " + deactivated + " users");
+    }
+
+    @DeleteMapping("/users/{userId}/comments")
+    public ModelAndView deleteUserComments(@PathVariable UUID userId) {
+        int deleted = moderationService.deleteCommentsByAuthor(userId);
+
+        return new ModelAndView("redirect:/admin/users", "message", "You have successfully deleted " + deleted + " comments of user with [id]: " + userId);
+    }
+
+    @DeleteMapping("/users/{userId}/content")
+    public ModelAndView purgeUserContent(@PathVariable UUID userId) {
+        PurgeSummary purged = moderationService.purgeUserContent(userId);
+
+        return new ModelAndView("redirect:/admin/users", "message", "You have successfully deactivated user with [id]: %s and deleted %d recipes, %d comments, %d likes and %d favorites"
+                .formatted(userId, purged.getRecipes(), purged.getComments(), purged.getLikes(), purged.getFavorites()));
+    }
+
     @GetMapping("/recipes")
-    public ModelAndView adminRecipeManagement(@RequestParam(value = "message", required = false) String message) {
-        List<RecipeForAdminPageInfo> recipes = recipeService.getAllForAdmin()
-                .stream()
-                .map(DtoMapper::mapRecipeToRecipeForAdminPageInfo)
-                .toList();
+    public ModelAndView adminRecipeManagement(@RequestParam(value = "message", required = false) String message,
+                                              @RequestParam(value = "q", required = false) String filter,
+                                              @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable) {
+        Page<RecipeForAdminPageInfo> recipes = recipeService.getAllForAdmin(filter, pageable);
 
-        ModelAndView modelAndView = new ModelAndView("admin-recipe-management");
+        ModelAndView modelAndView = gridView("admin-recipe-management", filter, recipes, RecipeService.ADMIN_SORT_COLUMNS);
         modelAndView.addObject("recipes", recipes);
 
         if (message != null) {
@@ -83,13 +114,12 @@ public class AdminController {
     }
 
     @GetMapping("/comments")
-    public ModelAndView adminCommentManagement(@RequestParam(value = "message", required = false) String message) {
-        List<CommentForAdminPage> comments = commentService.getAll()
-                .stream()
-                .map(DtoMapper::mapCommentToCommentForAdminPage)
-                .toList();
+    public ModelAndView adminCommentManagement(@RequestParam(value = "message", required = false) String message,
+                                               @RequestParam(value = "q", required = false) String filter,
+                                               @PageableDefault(size = 20, sort = "createdDate", direction = Sort.Direction.DESC) Pageable pageable) {
+        Page<CommentForAdminPage> comments = commentService.getAllForAdmin(filter, pageable);
 
-        ModelAndView modelAndView = new ModelAndView("admin-comment-management");
+        ModelAndView modelAndView = gridView("admin-comment-management", filter, comments, CommentService.ADMIN_SORT_COLUMNS);
         modelAndView.addObject("comments", comments);
 
         if (message != null) {
@@ -105,4 +135,28 @@ public class AdminController {
 
         return new ModelAndView("redirect:/admin/comments", "message", "You have successfully deleted comment with [id]: " + commentId);
     }
-}
\ No newline at end of file
+
+    @DeleteMapping("/comments")
+    public ModelAndView deleteComments(@RequestParam(value = "ids", required = false) List<UUID> commentIds) {
+        if (commentIds == null || commentIds.isEmpty()) {
+            return new ModelAndView("redirect:/admin/comments", "message", "No comments were selected");
+        }
+
+        int deleted = moderationService.deleteComments(commentIds);
+
+        return new ModelAndView("redirect:/admin/comments", "message", "You have successfully deleted " + deleted + " comments");
+    }
+
+    // What the grid's filter box, sortable headers and pagination links need to keep their state,
+    // taken from the order the page was fetched in rather than the one requested
+    private static ModelAndView gridView(String viewName, String filter, Page<?> page, Map<String, String> sortColumns) {
+        Sort.Order order = AdminGrid.appliedOrder(page.getPageable(), sortColumns);
+
+        ModelAndView modelAndView = new ModelAndView(viewName);
+        modelAndView.addObject("q", filter == null || filter.isBlank() ? null : filter.trim());
+        modelAndView.addObject("sortProperty", order.getProperty());
+        modelAndView.addObject("sortDirection", order.getDirection().name().toLowerCase());
+
+        return modelAndView;
+    }
+}
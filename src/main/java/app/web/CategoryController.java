@@ -2,8 +2,11 @@ package app.web;
 
 import app.category.service.CategoryService;
 import app.mapper.DtoMapper;
+import app.recipe.service.RecipeMembershipCache;
+import app.security.CustomUserDetails;
 import app.web.dto.CategoryDetails;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,11 +21,15 @@ import java.util.UUID;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final RecipeMembershipCache recipeMembershipCache;
 
     @GetMapping("/{id}")
-    public String categoryView(Model model, @PathVariable UUID id) {
+    public String categoryView(Model model,
+                               @PathVariable UUID id,
+                               @AuthenticationPrincipal CustomUserDetails customUserDetails) {
         CategoryDetails categoryDetails = DtoMapper.mapCategoryToCategoryDetails(categoryService.getById(id));
         model.addAttribute("categoryDetails", categoryDetails);
+        model.addAttribute("memberships", recipeMembershipCache.get(customUserDetails != null ? customUserDetails.getId() : null));
         return "category";
     }
 }
@@ -1,16 +1,21 @@
 package app.web;
 
+import app.comment.repository.CommentStatsView;
 import app.comment.service.CommentService;
-import app.mapper.DtoMapper;
+import app.comment.service.CommentStreamHub;
+import app.exception.CommentStreamFullException;
 import app.security.CustomUserDetails;
-import app.web.dto.CommentByRecipe;
+import app.web.dto.CommentPage;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
 import java.util.UUID;
 
 @RequiredArgsConstructor
@@ -18,22 +23,48 @@ import java.util.UUID;
 @RequestMapping("/api/comments")
 public class CommentsApiController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final CommentService commentService;
+    private final CommentStreamHub commentStreamHub;
 
     @GetMapping("/{recipeId}")
-    public ResponseEntity<List<CommentByRecipe>> getCommentsByRecipe(@PathVariable UUID recipeId) {
-        List<CommentByRecipe> comments = commentService.getCommentsByRecipeId(recipeId)
-                .stream()
-                .map(DtoMapper::mapCommentToCommentByRecipe)
-                .toList();
+    public ResponseEntity<CommentPage> getCommentsByRecipe(@PathVariable UUID recipeId,
+                                                           @RequestParam(value = "since", required = false) String since,
+                                                           @RequestParam(value = "before", required = false) String before,
+                                                           @RequestParam(value = "size", defaultValue = "20") int size,
+                                                           WebRequest webRequest) {
+        CommentStatsView stats = commentService.getCommentStats(recipeId);
+        String eTag = "\"%d-%s\"".formatted(stats.getCount(), stats.getLatest());
+
+        // Answered from the stats alone, before any comment is loaded
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
 
         // If no comments found, return 204 No Content
-        if (comments.isEmpty()) {
-            return ResponseEntity.noContent().build();
+        if (stats.getCount() == 0) {
+            return ResponseEntity.noContent().eTag(eTag).build();
         }
 
-        // Return comments with 200 OK
-        return ResponseEntity.ok(comments);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        CommentPage page = commentService.getComments(recipeId, since, before, pageSize);
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .header(TOTAL_COUNT_HEADER, Long.toString(stats.getCount()))
+                .body(page);
+    }
+
+    /**
+     * Pushes comments added to and deleted from the recipe as they happen. Events missed while
+     * disconnected are not replayed; the client catches up with a {@code since} request instead.
+     */
+    @GetMapping(path = "/{recipeId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamComments(@PathVariable UUID recipeId) {
+        return commentStreamHub.subscribe(recipeId);
     }
 
     @DeleteMapping("/delete/{commentId}")
@@ -47,4 +78,9 @@ public class CommentsApiController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(CommentStreamFullException.class)
+    public ResponseEntity<Void> handleCommentStreamFullException() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+}
@@ -3,8 +3,9 @@ package app.web;
 import app.exception.AlreadyFavoritedException;
 import app.exception.FavoriteNotFoundException;
 import app.favorite.service.FavoriteService;
-import app.recipe.model.Recipe;
 import app.security.CustomUserDetails;
+import app.web.dto.CursorPage;
+import app.web.dto.FavoriteRecipe;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
@@ -12,7 +13,6 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
 import java.util.UUID;
 
 @RequiredArgsConstructor
@@ -20,13 +20,22 @@ import java.util.UUID;
 @RequestMapping("/favorites")
 public class FavoriteController {
 
+    private static final int MAX_PAGE_SIZE = 60;
+
     private final FavoriteService favoriteService;
 
     @GetMapping
-    public String getFavoriteRecipes(Model model, @AuthenticationPrincipal CustomUserDetails customUserDetails) {
-        List<Recipe> userFavoriteRecipes = favoriteService.getUserFavoriteRecipes(customUserDetails.getId());
-
-        model.addAttribute("favoriteRecipes", userFavoriteRecipes);
+    public String getFavoriteRecipes(@RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "size", defaultValue = "12") int size,
+                                     Model model,
+                                     @AuthenticationPrincipal CustomUserDetails customUserDetails) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        CursorPage<FavoriteRecipe> favorites = favoriteService.getUserFavoriteRecipes(customUserDetails.getId(), cursor, pageSize);
+
+        model.addAttribute("favoriteRecipes", favorites.getContent());
+        model.addAttribute("nextCursor", favorites.getNextCursor());
+        model.addAttribute("firstPage", cursor == null);
+        model.addAttribute("pageSize", pageSize);
         return "favorite-recipes";
     }
 
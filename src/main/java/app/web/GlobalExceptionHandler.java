@@ -1,7 +1,9 @@
 package app.web;
 
+import app.exception.ActivityLogUnavailableException;
 import app.exception.CategoryNotFoundException;
 import app.exception.ImageUploadException;
+import app.exception.InvalidCursorException;
 import app.exception.RecipeNotFoundException;
 import app.exception.UserNotFoundException;
 import feign.FeignException;
@@ -45,7 +47,8 @@ public class GlobalExceptionHandler {
         return "error-page";
     }
 
-    @ExceptionHandler(FeignException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler({FeignException.class, ActivityLogUnavailableException.class})
     public String handleFeignException(Model model) {
         model.addAttribute("error", "The activity log service is currently unavailable.");
         return "error-page";
@@ -69,6 +72,14 @@ public class GlobalExceptionHandler {
         return "error-page";
     }
 
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidCursorException.class)
+    public String handleInvalidCursorException(InvalidCursorException ex, Model model) {
+        model.addAttribute("error", ex.getMessage());
+
+        return "error-page";
+    }
+
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler(Exception.class)
     public ModelAndView handleAnyOtherException(Exception exception) {
@@ -1,8 +1,6 @@
 package app.web;
 
 import app.category.service.CategoryService;
-import app.mapper.DtoMapper;
-import app.web.dto.CategoryShort;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -11,8 +9,6 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
-import java.util.List;
-
 @RequiredArgsConstructor
 @Controller
 public class HomeController {
@@ -27,12 +23,7 @@ public class HomeController {
     @GetMapping("/home")
     public String getHomePage(Model model) {
 
-        List<CategoryShort> categories = categoryService.getAll()
-                .stream()
-                .map(DtoMapper::mapCategoryToCategoryShort)
-                .toList();
-
-        model.addAttribute("categories", categories);
+        model.addAttribute("categories", categoryService.getAll());
 
         return "home";
     }
@@ -1,6 +1,5 @@
 package app.web;
 
-import app.exception.RecipeAlreadyLikedException;
 import app.exception.UserCannotLikeOwnRecipeException;
 import app.like.service.LikeService;
 import app.security.CustomUserDetails;
@@ -27,15 +26,22 @@ public class LikeController {
         return "redirect:/recipes/" + recipeId;
     }
 
-    @ExceptionHandler(UserCannotLikeOwnRecipeException.class)
-    public String handleCannotLikeOwnRecipe(UserCannotLikeOwnRecipeException ex, Model model) {
-        model.addAttribute("error", ex.getMessage());
+    @PostMapping("/unlike/{recipeId}")
+    public String unlike(@PathVariable UUID recipeId, @AuthenticationPrincipal CustomUserDetails customUserDetails) {
+        likeService.unlike(customUserDetails.getId(), recipeId);
 
-        return "error-page";
+        return "redirect:/recipes/" + recipeId;
     }
 
-    @ExceptionHandler(RecipeAlreadyLikedException.class)
-    public String handleRecipeAlreadyLiked(RecipeAlreadyLikedException ex, Model model) {
+    @PostMapping("/like/{recipeId}/toggle")
+    public String toggle(@PathVariable UUID recipeId, @AuthenticationPrincipal CustomUserDetails customUserDetails) {
+        likeService.toggle(customUserDetails.getId(), recipeId);
+
+        return "redirect:/recipes/" + recipeId;
+    }
+
+    @ExceptionHandler(UserCannotLikeOwnRecipeException.class)
+    public String handleCannotLikeOwnRecipe(UserCannotLikeOwnRecipeException ex, Model model) {
         model.addAttribute("error", ex.getMessage());
 
         return "error-page";
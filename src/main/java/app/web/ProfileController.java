@@ -1,6 +1,6 @@
 package app.web;
 
-import app.activitylog.dto.ActivityLogResponse;
+import app.activitylog.dto.ActivityLogPage;
 import app.activitylog.service.ActivityLogService;
 import app.mapper.DtoMapper;
 import app.security.CustomUserDetails;
@@ -21,7 +21,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
 import java.util.UUID;
 
 @RequiredArgsConstructor
@@ -29,6 +28,8 @@ import java.util.UUID;
 @RequestMapping("/my-profile")
 public class ProfileController {
 
+    private static final int ACTIVITY_LOG_PAGE_SIZE = 20;
+
     private final UserService userService;
     private final ActivityLogService activityLogService;
 
@@ -160,9 +161,12 @@ public class ProfileController {
     public ModelAndView activityLog(@PathVariable UUID id) {
         ModelAndView modelAndView = new ModelAndView("activity-log");
 
-        List<ActivityLogResponse> activityLog = activityLogService.getActivityLog(id);
+        // Older entries are loaded by the page through the activity-log API
+        ActivityLogPage activityLog = activityLogService.getActivityLog(id, null, ACTIVITY_LOG_PAGE_SIZE);
 
-        modelAndView.addObject("activityLog", activityLog);
+        modelAndView.addObject("activityLog", activityLog.getEntries());
+        modelAndView.addObject("nextCursor", activityLog.getNextCursor());
+        modelAndView.addObject("pageSize", ACTIVITY_LOG_PAGE_SIZE);
         modelAndView.addObject("userId", id);
 
         return modelAndView;
@@ -1,13 +1,13 @@
 package app.web;
 
 import app.category.model.CategoryName;
-import app.favorite.service.FavoriteService;
-import app.like.service.LikeService;
 import app.mapper.DtoMapper;
 import app.recipe.model.Recipe;
+import app.recipe.service.RecipeMembershipCache;
 import app.recipe.service.RecipeService;
 import app.security.CustomUserDetails;
 import app.web.dto.AddRecipe;
+import app.web.dto.CursorPage;
 import app.web.dto.EditRecipe;
 import app.web.dto.RecipeDetails;
 import app.web.dto.RecipeShortInfo;
@@ -30,9 +30,10 @@ import java.util.UUID;
 @RequestMapping("/recipes")
 public class RecipeController {
 
+    private static final int NUMBERED_PAGES = 5;
+
     private final RecipeService recipeService;
-    private final LikeService likeService;
-    private final FavoriteService favoriteService;
+    private final RecipeMembershipCache recipeMembershipCache;
 
     @ModelAttribute(name = "categories")
     public CategoryName[] categoryName() {
@@ -41,23 +42,46 @@ public class RecipeController {
 
     @GetMapping("/all")
     public String allRecipes(@RequestParam(value = "query", required = false) String query,
+                             @RequestParam(value = "cursor", required = false) String cursor,
+                             @AuthenticationPrincipal CustomUserDetails customUserDetails,
                              Model model,
                              @PageableDefault(size = 3) Pageable pageable) {
 
-        Page<RecipeShortInfo> recipes;
+        // Cards are marked as liked or favorite from memory, without a query per card
+        model.addAttribute("memberships", recipeMembershipCache.get(customUserDetails != null ? customUserDetails.getId() : null));
+
+        if (cursor != null && (query == null || query.trim().isEmpty())) {
+            CursorPage<RecipeShortInfo> recipes = recipeService.getAllAfter(cursor, pageable.getPageSize())
+                    .map(DtoMapper::mapRecipeToRecipeShortInfo);
+
+            model.addAttribute("recipes", recipes);
+            model.addAttribute("cursorMode", true);
+            model.addAttribute("pageSize", pageable.getPageSize());
+
+            return "recipes";
+        }
+
+        Page<Recipe> page;
         if (query != null && !query.trim().isEmpty()) {
-            recipes = recipeService.searchRecipes(query, pageable).map(DtoMapper::mapRecipeToRecipeShortInfo);
+            page = recipeService.searchRecipes(query, pageable);
 
-            if (!recipes.hasContent()) {
-                recipes = recipeService.getAll(pageable).map(DtoMapper::mapRecipeToRecipeShortInfo);
+            if (!page.hasContent()) {
+                page = recipeService.getAll(pageable);
             }
 
             model.addAttribute("query", query);
         } else {
-            recipes = recipeService.getAll(pageable).map(DtoMapper::mapRecipeToRecipeShortInfo);
+            page = recipeService.getAll(pageable);
+
+            // Past the numbered pages the listing continues with a cursor instead of an OFFSET
+            if (page.getNumber() == NUMBERED_PAGES - 1 && page.hasNext() && page.hasContent()) {
+                List<Recipe> content = page.getContent();
+                model.addAttribute("nextCursor", RecipeService.cursorAfter(content.get(content.size() - 1)));
+            }
         }
 
-        model.addAttribute("recipes", recipes);
+        model.addAttribute("recipes", page.map(DtoMapper::mapRecipeToRecipeShortInfo));
+        model.addAttribute("numberedPages", NUMBERED_PAGES);
 
         return "recipes";
     }
@@ -66,15 +90,13 @@ public class RecipeController {
     public String recipeDetails(@PathVariable UUID id,
                                 @AuthenticationPrincipal CustomUserDetails customUserDetails,
                                 Model model) {
-        RecipeDetails recipe = DtoMapper.mapRecipeToRecipeDetails(recipeService.getById(id));
+        RecipeDetails recipe = recipeService.getDetails(id, customUserDetails.getId());
         boolean isCreator = recipe.getCreator().equals(customUserDetails.getUsername());
-        boolean hasLiked = likeService.userHasLikedRecipe(customUserDetails.getId(), id);
-        boolean isFavorite = favoriteService.isFavorite(customUserDetails.getId(), recipe.getId());
 
         model.addAttribute("recipe", recipe);
         model.addAttribute("isCreator", isCreator);
-        model.addAttribute("hasLiked", hasLiked);
-        model.addAttribute("isFavorite", isFavorite);
+        model.addAttribute("hasLiked", recipe.isLiked());
+        model.addAttribute("isFavorite", recipe.isFavorite());
 
         return "recipe-details";
     }
@@ -132,6 +154,7 @@ public class RecipeController {
         List<Recipe> myRecipes = recipeService.getRecipesByCreator(customUserDetails.getId());
 
         model.addAttribute("myRecipes", myRecipes);
+        model.addAttribute("memberships", recipeMembershipCache.get(customUserDetails.getId()));
 
         return "my-recipes";
     }
@@ -142,4 +165,4 @@ public class RecipeController {
 
         return "redirect:/recipes/my-recipes";
     }
-}
\ No newline at end of file
+}
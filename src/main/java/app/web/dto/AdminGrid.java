@@ -0,0 +1,77 @@
+package app.web.dto;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+
+/**
+ * Paging, sorting and filtering shared by the admin grids. Each grid names the columns it can be
+ * sorted by and the query path behind each one, so a crafted sort parameter can neither break the
+ * query nor sort on a column without an index; anything else falls back to the grid's default.
+ */
+@UtilityClass
+public class AdminGrid {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Also used in the queries' ESCAPE clauses; not a backslash, which MySQL treats specially
+    private static final String LIKE_ESCAPE = "!";
+
+    /**
+     * @param columns    sortable column names, as used in the {@code sort} parameter, mapped to query paths.
+     * @param fallback   the order used when none of the requested ones is sortable.
+     * @param tieBreaker a unique query path that makes the order total, so rows never move between pages.
+     */
+    public static Pageable pageRequest(Pageable requested, Map<String, String> columns, Sort.Order fallback, String tieBreaker) {
+        Sort.Order order = requested.getSort().stream()
+                .filter(candidate -> columns.containsKey(candidate.getProperty()))
+                .findFirst()
+                .orElse(fallback);
+
+        String path = columns.get(order.getProperty());
+        Sort sort = Sort.by(order.getDirection(), path);
+
+        if (!path.equals(tieBreaker)) {
+            sort = sort.and(Sort.by(order.getDirection(), tieBreaker));
+        }
+
+        return PageRequest.of(requested.getPageNumber(), Math.min(requested.getPageSize(), MAX_PAGE_SIZE), sort);
+    }
+
+    /**
+     * @param applied a page request built by {@link #pageRequest}.
+     * @return the order the page was fetched in, named by its sortable column rather than its query path.
+     */
+    public static Sort.Order appliedOrder(Pageable applied, Map<String, String> columns) {
+        Sort.Order order = applied.getSort().iterator().next();
+
+        return columns.entrySet().stream()
+                .filter(column -> column.getValue().equals(order.getProperty()))
+                .map(column -> new Sort.Order(order.getDirection(), column.getKey()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Not a sortable column: " + order.getProperty()));
+    }
+
+    /**
+     * @return a LIKE pattern matching values that start with the filter, or null for a blank filter.
+     */
+    public static String prefixPattern(String filter) {
+        return filter == null || filter.isBlank() ? null : escape(filter.trim()) + "%";
+    }
+
+    /**
+     * @return a LIKE pattern matching values that contain the filter, or null for a blank filter.
+     */
+    public static String containsPattern(String filter) {
+        return filter == null || filter.isBlank() ? null : "%" + escape(filter.trim()) + "%";
+    }
+
+    private static String escape(String filter) {
+        return filter.replace(LIKE_ESCAPE, LIKE_ESCAPE + LIKE_ESCAPE)
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+    }
+}
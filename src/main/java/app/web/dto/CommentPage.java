@@ -0,0 +1,24 @@
+package app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Comments of a recipe, oldest first. {@code nextCursor} continues in the direction of the
+ * request: passed back as {@code before} it fetches older comments, as {@code since} newer ones.
+ * {@code latestCursor} points at the newest comment of the page and is what a client polls
+ * {@code since}; both are null when there is nothing to continue from.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentPage {
+    private List<CommentByRecipe> comments;
+    private String nextCursor;
+    private String latestCursor;
+}
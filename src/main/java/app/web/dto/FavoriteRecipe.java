@@ -1,15 +1,24 @@
 package app.web.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * A recipe card on the favorites page, read in one query joined from the favorite row.
+ */
 @Data
+@AllArgsConstructor
 public class FavoriteRecipe {
 
+    private UUID favoriteId;
+    private LocalDateTime favoritedDate;
     private UUID recipeId;
-
-    public FavoriteRecipe(UUID recipeId) {
-        this.recipeId = recipeId;
-    }
+    private String title;
+    private String description;
+    private Integer cookTime;
+    private Integer servings;
+    private String image;
 }
@@ -0,0 +1,18 @@
+package app.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How much of a user's content an admin purge removed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurgeSummary {
+    private int recipes;
+    private int comments;
+    private int likes;
+    private int favorites;
+}
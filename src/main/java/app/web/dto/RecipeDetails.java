@@ -1,9 +1,5 @@
 package app.web.dto;
 
-import app.category.model.Category;
-import app.comment.model.Comment;
-import app.like.model.Like;
-import app.user.model.User;
 import lombok.Builder;
 import lombok.Data;
 
@@ -25,12 +21,8 @@ public class RecipeDetails {
     private Integer prepTime;
     private Integer cookTime;
     private Integer servings;
-    private User createdBy;
-    private List<Category> categories;
-    private List<Comment> comments;
+    private String creator;
     private Integer likes;
-
-    public String getCreator() {
-        return createdBy.getUsername();
-    }
+    private boolean liked;
+    private boolean favorite;
 }
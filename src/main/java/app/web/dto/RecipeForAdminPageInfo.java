@@ -1,5 +1,6 @@
 package app.web.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -8,6 +9,7 @@ import java.util.UUID;
 
 @Builder
 @Data
+@AllArgsConstructor
 public class RecipeForAdminPageInfo {
     private UUID id;
     private String title;
@@ -1,6 +1,7 @@
 package app.web.dto;
 
 import app.user.model.Role;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -8,6 +9,7 @@ import java.util.UUID;
 
 @Builder
 @Data
+@AllArgsConstructor
 public class UserWithRole {
     private UUID id;
     private String username;
@@ -0,0 +1,56 @@
+document.addEventListener("DOMContentLoaded", function () {
+    const loadMoreButton = document.querySelector("#loadMoreActivity");
+
+    if (!loadMoreButton) {
+        return;
+    }
+
+    const entries = document.querySelector("#activityLogEntries");
+    const userId = loadMoreButton.dataset.userId;
+    const pageSize = loadMoreButton.dataset.pageSize;
+
+    function formatDate(createdOn) {
+        // createdOn is an ISO local date-time such as 2024-02-10T15:30:00.123
+        return createdOn ? createdOn.replace("T", " ").substring(0, 19) : "";
+    }
+
+    function appendEntry(entry) {
+        const row = document.createElement("tr");
+        const action = document.createElement("td");
+        const date = document.createElement("td");
+
+        action.textContent = entry.action;
+        date.textContent = formatDate(entry.createdOn);
+
+        row.append(action, date);
+        entries.appendChild(row);
+    }
+
+    loadMoreButton.addEventListener("click", function () {
+        const before = encodeURIComponent(loadMoreButton.dataset.nextCursor);
+        loadMoreButton.disabled = true;
+
+        fetch(`/api/activity-log/${userId}?before=${before}&size=${pageSize}`)
+            .then(response => {
+                if (!response.ok) {
+                    throw new Error(`Error fetching activity log: ${response.status}`);
+                }
+
+                return response.json();
+            })
+            .then(page => {
+                page.entries.forEach(appendEntry);
+
+                if (page.nextCursor) {
+                    loadMoreButton.dataset.nextCursor = page.nextCursor;
+                    loadMoreButton.disabled = false;
+                } else {
+                    loadMoreButton.remove();
+                }
+            })
+            .catch(error => {
+                console.error(error);
+                loadMoreButton.disabled = false;
+            });
+    });
+});
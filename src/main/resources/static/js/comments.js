@@ -5,64 +5,163 @@ document.addEventListener("DOMContentLoaded", function () {
     const loggedInUser = document.querySelector("#loggedInUser").value;
     const recipeCreator = document.querySelector("#recipeCreator").value;
 
-    function fetchComments() {
-        fetch(`/api/comments/${recipeId}`)
+    const PAGE_SIZE = 20;
+
+    let eTag = null;          // Version of the comments the page currently shows
+    let latestCursor = null;  // Newest comment shown; fetched "since" after reconnecting
+    let olderCursor = null;   // Oldest comment shown, if there are older ones left to load
+    let total = 0;            // Comments the recipe has, shown or not
+
+    const loadOlderButton = document.createElement("button");
+    loadOlderButton.className = "btn btn-outline-secondary btn-sm w-100 mb-3 d-none";
+    loadOlderButton.textContent = "Load older comments";
+    loadOlderButton.addEventListener("click", loadOlder);
+    commentsList.appendChild(loadOlderButton);
+
+    function fetchComments(params, conditional) {
+        const query = new URLSearchParams({size: PAGE_SIZE, ...params});
+        const headers = conditional && eTag ? {"If-None-Match": eTag} : {};
+
+        return fetch(`/api/comments/${recipeId}?${query}`, {headers: headers, cache: "no-store"})
             .then(response => {
-                if (response.status === 204) {
-                    return []; // Return an empty array if no content
+                if (response.status === 304) {
+                    return null; // Nothing changed since the last poll
                 }
 
                 if (!response.ok) {
                     throw new Error(`Error fetching comments: ${response.status}`);
                 }
 
-                return response.json();
+                const version = response.headers.get("ETag");
+
+                if (response.status === 204) {
+                    return {comments: [], nextCursor: null, latestCursor: null, total: 0, eTag: version};
+                }
+
+                return response.json().then(page => ({
+                    ...page,
+                    total: Number(response.headers.get("X-Total-Count")),
+                    eTag: version
+                }));
+            });
+    }
+
+    // Replaces everything shown with the newest page
+    function loadComments() {
+        return fetchComments({}, false)
+            .then(page => {
+                commentsList.querySelectorAll(".comment-card").forEach(comment => comment.remove());
+
+                page.comments.forEach(comment => commentsList.appendChild(commentCard(comment)));
+                latestCursor = page.latestCursor;
+                olderCursor = page.nextCursor;
+                total = page.total;
+                eTag = page.eTag;
+                refresh();
             })
-            .then(comments => {
-                // Clear existing comments
-                const existingComments = commentsList.querySelectorAll(".comment-card");
-                existingComments.forEach(comment => comment.remove());
-
-                if (comments.length === 0) {
-                    // If no comments, show a message
-                    const commentCard = `
-                        <div class="comment-card card mb-3">
-                            <div class="card-body">
-                                <p class="no-comments text-center text-muted">No comments yet. Be the first to comment!</p>
-                    `;
-                    commentsList.insertAdjacentHTML("beforeend", commentCard);
+            .catch(error => console.error("Error fetching comments:", error));
+    }
+
+    function loadOlder() {
+        fetchComments({before: olderCursor}, false)
+            .then(page => {
+                const first = commentsList.querySelector(".comment-card[data-comment-id]");
+
+                page.comments.forEach(comment => commentsList.insertBefore(commentCard(comment), first));
+                olderCursor = page.nextCursor;
+                refresh();
+            })
+            .catch(error => console.error("Error fetching older comments:", error));
+    }
+
+    // Appends only the comments posted since the newest one shown
+    function fetchNewer() {
+        const params = latestCursor ? {since: latestCursor} : {};
+
+        fetchComments(params, true)
+            .then(page => {
+                if (page === null) {
+                    return;
+                }
+
+                const added = page.comments.filter(comment => !findCard(comment.id));
+                added.forEach(comment => commentsList.appendChild(commentCard(comment)));
+                total += added.length;
+                latestCursor = page.latestCursor || latestCursor;
+
+                if (page.nextCursor) {
+                    fetchNewer();
+                } else if (page.total !== total) {
+                    // Someone else deleted comments; deletes leave nothing to fetch a delta from
+                    loadComments();
                 } else {
-                    // Add new comments
-                    comments.forEach(comment => {
-                        // Show delete button if user is comment creator OR recipe creator
-                        const canDelete = (comment.createdBy === loggedInUser || loggedInUser === recipeCreator);
-                        const deleteButton = canDelete ?
-                            `<button class="btn btn-danger btn-sm delete-comment" data-comment-id="${comment.id}">Delete</button>`
-                            : '';
-
-                        const commentCard = `
-                        <div class="comment-card card mb-3">
-                            <div class="card-body">
-                                <p class="comment-author mb-1">${comment.createdBy}</p>
-                                <p class="comment-text">${comment.content}</p>
-                                <p class="comment-time text-end mb-0">${new Date(comment.createdDate).toLocaleString()}</p>
-                                 <div class="text-end mt-2">
-                                    ${deleteButton}
-                                </div>
-                    `;
-                        commentsList.insertAdjacentHTML("beforeend", commentCard);
-                    });
+                    // Only now is everything up to this version shown
+                    eTag = page.eTag;
+                    refresh();
                 }
-                document.querySelectorAll(".delete-comment").forEach(button => {
-                    button.addEventListener("click", function () {
-                        const commentId = this.getAttribute("data-comment-id");
-                        confirmDelete(commentId);
-                    });
-                });
             })
-            .catch(error => {
-                console.error("Error fetching comments:", error);
-            });
+            .catch(error => console.error("Error fetching new comments:", error));
+    }
+
+    function commentCard(comment) {
+        const card = document.createElement("div");
+        card.className = "comment-card card mb-3";
+        card.dataset.commentId = comment.id;
+
+        const body = document.createElement("div");
+        body.className = "card-body";
+        body.append(
+            paragraph("comment-author mb-1", comment.createdBy),
+            paragraph("comment-text", comment.content),
+            paragraph("comment-time text-end mb-0", new Date(comment.createdDate).toLocaleString()));
+
+        // Show delete button if user is comment creator OR recipe creator
+        if (comment.createdBy === loggedInUser || loggedInUser === recipeCreator) {
+            const actions = document.createElement("div");
+            actions.className = "text-end mt-2";
+
+            const deleteButton = document.createElement("button");
+            deleteButton.className = "btn btn-danger btn-sm delete-comment";
+            deleteButton.textContent = "Delete";
+            deleteButton.addEventListener("click", () => confirmDelete(comment.id));
+
+            actions.appendChild(deleteButton);
+            body.appendChild(actions);
+        }
+
+        card.appendChild(body);
+        return card;
+    }
+
+    function paragraph(className, text) {
+        const element = document.createElement("p");
+        element.className = className;
+        element.textContent = text;
+        return element;
+    }
+
+    function findCard(commentId) {
+        return commentsList.querySelector(`.comment-card[data-comment-id="${commentId}"]`);
+    }
+
+    // Keeps the "load older" button and the empty-state card in line with what is shown
+    function refresh() {
+        commentsList.insertBefore(loadOlderButton, commentsList.querySelector(".comment-card"));
+        loadOlderButton.classList.toggle("d-none", !olderCursor);
+
+        const empty = commentsList.querySelector(".comment-card.no-comments-card");
+        const hasComments = commentsList.querySelector(".comment-card[data-comment-id]") !== null;
+
+        if (hasComments && empty) {
+            empty.remove();
+        } else if (!hasComments && !empty) {
+            commentsList.insertAdjacentHTML("beforeend", `
+                <div class="comment-card no-comments-card card mb-3">
+                    <div class="card-body">
+                        <p class="no-comments text-center text-muted">No comments yet. Be the first to comment!</p>
+                    </div>
+                </div>`);
+        }
     }
 
     function confirmDelete(commentId) {
@@ -84,10 +183,48 @@ document.addEventListener("DOMContentLoaded", function () {
                 if (!response.ok) {
                     throw new Error("Failed to delete comment");
                 }
-                fetchComments();
+
+                const card = findCard(commentId);
+                if (card) {
+                    card.remove();
+                    total--;
+                }
+
+                refresh();
             })
             .catch(error => console.error("Error deleting comment:", error));
     }
 
-    fetchComments();
-});
\ No newline at end of file
+    // Comments are pushed as they are added or deleted; every (re)connect first catches up on
+    // whatever was missed while the stream was down
+    function openStream() {
+        const stream = new EventSource(`/api/comments/${recipeId}/stream`);
+
+        stream.addEventListener("open", fetchNewer);
+
+        stream.addEventListener("comment-added", event => {
+            const comment = JSON.parse(event.data);
+
+            if (!findCard(comment.id)) {
+                commentsList.appendChild(commentCard(comment));
+                total++;
+            }
+
+            latestCursor = event.lastEventId;
+            refresh();
+        });
+
+        stream.addEventListener("comment-deleted", event => {
+            const card = findCard(JSON.parse(event.data).id);
+
+            // Already gone when this viewer deleted it
+            if (card) {
+                card.remove();
+                total--;
+                refresh();
+            }
+        });
+    }
+
+    loadComments().then(openStream);
+});
@@ -14,7 +14,6 @@ import lombok.experimental.UtilityClass;
 import org.springframework.mock.web.MockMultipartFile;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -67,8 +66,23 @@ public class TestBuilder {
                 .prepTime(3)
                 .servings(4)
                 .image("imageUrl")
-                .comments(new ArrayList<>())
-                .likes(new ArrayList<>())
+                .build();
+    }
+
+    public static RecipeDetails aRandomRecipeDetails() {
+        return RecipeDetails.builder()
+                .id(UUID.randomUUID())
+                .title("title")
+                .description("description")
+                .ingredients(List.of("tomato", "cucumber"))
+                .instructions("Instructions")
+                .createdDate(LocalDateTime.now())
+                .cookTime(2)
+                .prepTime(3)
+                .servings(4)
+                .image("imageUrl")
+                .creator("username")
+                .likes(0)
                 .build();
     }
 
@@ -83,8 +97,6 @@ public class TestBuilder {
                 .prepTime(3)
                 .servings(4)
                 .image("imageUrl")
-                .comments(new ArrayList<>())
-                .likes(new ArrayList<>())
                 .build();
     }
 
@@ -0,0 +1,76 @@
+package app.activitylog;
+
+import app.activitylog.service.ActivityLogCircuitBreaker;
+import app.activitylog.service.ActivityLogCircuitBreaker.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityLogCircuitBreakerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldOpen_AfterConsecutiveFailures() {
+        ActivityLogCircuitBreaker breaker = new ActivityLogCircuitBreaker(meterRegistry, 3, 60_000);
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+        assertEquals(State.CLOSED, breaker.getState());
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, meterRegistry.get("activity.log.circuit.state").gauge().value());
+        assertEquals(1, meterRegistry.counter("activity.log.circuit.transitions", "from", "CLOSED", "to", "OPEN").count());
+    }
+
+    @Test
+    void shouldResetFailureCount_OnSuccess() {
+        ActivityLogCircuitBreaker breaker = new ActivityLogCircuitBreaker(meterRegistry, 2, 60_000);
+
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void shouldLetOneProbeThrough_AfterOpenPeriod() {
+        ActivityLogCircuitBreaker breaker = new ActivityLogCircuitBreaker(meterRegistry, 1, 0);
+        breaker.onFailure();
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(1, meterRegistry.counter("activity.log.circuit.transitions", "from", "HALF_OPEN", "to", "CLOSED").count());
+    }
+
+    @Test
+    void shouldReopen_WhenProbeFails() {
+        ActivityLogCircuitBreaker breaker = new ActivityLogCircuitBreaker(meterRegistry, 1, 0);
+        breaker.onFailure();
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(1, meterRegistry.counter("activity.log.circuit.transitions", "from", "HALF_OPEN", "to", "OPEN").count());
+    }
+}
@@ -1,15 +1,21 @@
 package app.activitylog;
 
 import app.activitylog.client.ActivityLogClient;
+import app.activitylog.dto.ActivityLogPage;
 import app.activitylog.dto.ActivityLogRequest;
 import app.activitylog.dto.ActivityLogResponse;
 import app.activitylog.event.ActivityLogEvent;
+import app.activitylog.model.ActivityType;
+import app.activitylog.service.ActivityLogCircuitBreaker;
 import app.activitylog.service.ActivityLogService;
+import app.activitylog.service.ActivityLogShipper;
+import app.activitylog.service.RemoteActivityLogBackend;
+import app.exception.ActivityLogUnavailableException;
 import feign.FeignException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
@@ -28,67 +34,153 @@ class ActivityLogServiceTest {
     @Mock
     private ActivityLogClient activityLogClient;
 
-    @InjectMocks
+    @Mock
+    private ActivityLogShipper activityLogShipper;
+
     private ActivityLogService activityLogService;
 
     private UUID userId;
 
+    private SimpleMeterRegistry meterRegistry;
+
+    private ActivityLogCircuitBreaker circuitBreaker;
+
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new ActivityLogCircuitBreaker(meterRegistry, 2, 60_000);
+        activityLogService = service(10_000);
         userId = UUID.randomUUID();
     }
 
     @Test
-    void handleActivityLogEvent_ShouldCallClientLogActivity() {
-        ActivityLogEvent event = new ActivityLogEvent(userId, "TEST_ACTION");
+    void handleActivityLogEvent_ShouldQueueRequestWithoutCallingClient() {
+        UUID recipeId = UUID.randomUUID();
+        ActivityLogEvent event = new ActivityLogEvent(userId, ActivityType.RECIPE_LIKED, recipeId, "Pancakes");
+        when(activityLogShipper.offer(any(ActivityLogRequest.class))).thenReturn(true);
 
         assertDoesNotThrow(() -> activityLogService.handleActivityLogEvent(event));
-        verify(activityLogClient, times(1)).logActivity(any(ActivityLogRequest.class));
+        verify(activityLogShipper, times(1)).offer(ActivityLogRequest.builder()
+                .userId(userId)
+                .type(ActivityType.RECIPE_LIKED)
+                .subjectId(recipeId)
+                .params(List.of("Pancakes"))
+                .build());
+        verifyNoInteractions(activityLogClient);
     }
 
     @Test
-    void handleActivityLogEvent_ShouldHandleFeignException() {
-        doThrow(FeignException.class).when(activityLogClient).logActivity(any(ActivityLogRequest.class));
-        ActivityLogEvent event = new ActivityLogEvent(userId, "TEST_ACTION");
+    void handleActivityLogEvent_ShouldNotThrow_WhenQueueIsFull() {
+        when(activityLogShipper.offer(any(ActivityLogRequest.class))).thenReturn(false);
+        ActivityLogEvent event = new ActivityLogEvent(userId, ActivityType.PASSWORD_UPDATED, userId);
 
         assertDoesNotThrow(() -> activityLogService.handleActivityLogEvent(event));
-        verify(activityLogClient, times(1)).logActivity(any(ActivityLogRequest.class));
+        verify(activityLogShipper, times(1)).offer(any(ActivityLogRequest.class));
     }
 
     @Test
-    void getActivityLog_ShouldReturnListOfLogs() {
-        List<ActivityLogResponse> mockResponse = Collections.singletonList(new ActivityLogResponse());
-        when(activityLogClient.getActivityLog(userId)).thenReturn(ResponseEntity.ok(mockResponse));
+    void getActivityLog_ShouldReturnPageOfLogs() {
+        ActivityLogPage mockResponse = new ActivityLogPage(Collections.singletonList(new ActivityLogResponse()), "cursor");
+        when(activityLogClient.getActivityLog(userId, null, 20)).thenReturn(ResponseEntity.ok(mockResponse));
 
-        List<ActivityLogResponse> result = activityLogService.getActivityLog(userId);
+        ActivityLogPage result = activityLogService.getActivityLog(userId, null, 20);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
+        assertEquals(1, result.getEntries().size());
+        assertEquals("cursor", result.getNextCursor());
     }
 
     @Test
-    void getActivityLog_ShouldHandleEmptyResponse() {
-        when(activityLogClient.getActivityLog(userId)).thenReturn(ResponseEntity.ok(Collections.emptyList()));
+    void getActivityLog_ShouldPassCursorAndCapPageSize() {
+        when(activityLogClient.getActivityLog(userId, "cursor", ActivityLogService.MAX_PAGE_SIZE))
+                .thenReturn(ResponseEntity.ok(new ActivityLogPage(Collections.emptyList(), null)));
 
-        List<ActivityLogResponse> result = activityLogService.getActivityLog(userId);
+        ActivityLogPage result = activityLogService.getActivityLog(userId, "cursor", 10_000);
 
         assertNotNull(result);
-        assertTrue(result.isEmpty());
+        assertTrue(result.getEntries().isEmpty());
+        verify(activityLogClient, times(1)).getActivityLog(userId, "cursor", ActivityLogService.MAX_PAGE_SIZE);
     }
 
     @Test
     void getActivityLog_ShouldHandleNullResponse() {
-        when(activityLogClient.getActivityLog(userId)).thenReturn(null);
+        when(activityLogClient.getActivityLog(userId, null, 20)).thenReturn(null);
 
-        assertThrows(NullPointerException.class, () -> activityLogService.getActivityLog(userId));
+        assertThrows(NullPointerException.class, () -> activityLogService.getActivityLog(userId, null, 20));
     }
 
     @Test
     void getActivityLog_ShouldThrow_WhenServiceIsDown() {
-        doThrow(FeignException.class).when(activityLogClient).getActivityLog(userId);
+        doThrow(FeignException.class).when(activityLogClient).getActivityLog(userId, null, 20);
+
+        assertThrows(FeignException.class, () -> activityLogService.getActivityLog(userId, null, 20));
+        verify(activityLogClient, times(1)).getActivityLog(userId, null, 20);
+    }
+
+    @Test
+    void getActivityLog_ShouldServeCachedPage_WhileItIsFresh() {
+        ActivityLogPage page = new ActivityLogPage(List.of(new ActivityLogResponse()), null);
+        when(activityLogClient.getActivityLog(userId, null, 20)).thenReturn(ResponseEntity.ok(page));
+
+        assertEquals(page, activityLogService.getActivityLog(userId, null, 20));
+        assertEquals(page, activityLogService.getActivityLog(userId, null, 20));
 
-        assertThrows(FeignException.class, () -> activityLogService.getActivityLog(userId));
-        verify(activityLogClient, times(1)).getActivityLog(userId);
+        verify(activityLogClient, times(1)).getActivityLog(userId, null, 20);
+    }
+
+    @Test
+    void getActivityLog_ShouldFallBackToLastPage_WhenServiceFails() {
+        activityLogService = service(0);
+        ActivityLogPage page = new ActivityLogPage(List.of(new ActivityLogResponse()), null);
+        when(activityLogClient.getActivityLog(userId, null, 20))
+                .thenReturn(ResponseEntity.ok(page))
+                .thenThrow(FeignException.class);
+
+        activityLogService.getActivityLog(userId, null, 20);
+
+        assertEquals(page, activityLogService.getActivityLog(userId, null, 20));
+        verify(activityLogClient, times(2)).getActivityLog(userId, null, 20);
+    }
+
+    @Test
+    void getActivityLog_ShouldStopCallingService_WhenCircuitIsOpen() {
+        activityLogService = service(0);
+        doThrow(FeignException.class).when(activityLogClient).getActivityLog(userId, null, 20);
+
+        assertThrows(FeignException.class, () -> activityLogService.getActivityLog(userId, null, 20));
+        assertThrows(FeignException.class, () -> activityLogService.getActivityLog(userId, null, 20));
+        assertThrows(ActivityLogUnavailableException.class, () -> activityLogService.getActivityLog(userId, null, 20));
+
+        verify(activityLogClient, times(2)).getActivityLog(userId, null, 20);
+        assertEquals(ActivityLogCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void deleteLogsByUserId_ShouldInvalidateCachedPages() {
+        when(activityLogClient.getActivityLog(userId, null, 20))
+                .thenReturn(ResponseEntity.ok(new ActivityLogPage(List.of(new ActivityLogResponse()), null)))
+                .thenReturn(ResponseEntity.ok(new ActivityLogPage(List.of(), null)));
+        when(activityLogClient.clearUserLogs(userId)).thenReturn(ResponseEntity.ok("Logs cleared"));
+
+        activityLogService.getActivityLog(userId, null, 20);
+        activityLogService.deleteLogsByUserId(userId);
+
+        assertTrue(activityLogService.getActivityLog(userId, null, 20).getEntries().isEmpty());
+        verify(activityLogClient, times(2)).getActivityLog(userId, null, 20);
+    }
+
+    @Test
+    void deleteLogsByUserId_ShouldKeepOtherUsersCachedPages() {
+        UUID otherUserId = UUID.randomUUID();
+        ActivityLogPage page = new ActivityLogPage(List.of(new ActivityLogResponse()), null);
+        when(activityLogClient.getActivityLog(otherUserId, null, 20)).thenReturn(ResponseEntity.ok(page));
+        when(activityLogClient.clearUserLogs(userId)).thenReturn(ResponseEntity.ok("Logs cleared"));
+
+        activityLogService.getActivityLog(otherUserId, null, 20);
+        activityLogService.deleteLogsByUserId(userId);
+
+        assertEquals(page, activityLogService.getActivityLog(otherUserId, null, 20));
+        verify(activityLogClient, times(1)).getActivityLog(otherUserId, null, 20);
     }
 
     @Test
@@ -106,4 +198,9 @@ class ActivityLogServiceTest {
         assertThrows(FeignException.class, () -> activityLogService.deleteLogsByUserId(userId));
         verify(activityLogClient, times(1)).clearUserLogs(userId);
     }
+
+    private ActivityLogService service(long cacheTtlMs) {
+        return new ActivityLogService(new RemoteActivityLogBackend(activityLogClient, activityLogShipper, circuitBreaker,
+                meterRegistry, cacheTtlMs, 3_600_000, 100));
+    }
 }
@@ -0,0 +1,222 @@
+package app.activitylog;
+
+import app.activitylog.client.ActivityLogClient;
+import app.activitylog.dto.ActivityLogRequest;
+import app.activitylog.model.ActivityType;
+import app.activitylog.service.ActivityLogShipper;
+import app.activitylog.service.ActivityLogShipper.OverflowPolicy;
+import app.activitylog.service.ActivityLogSpool;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityLogShipperTest {
+
+    @Mock
+    private ActivityLogClient activityLogClient;
+
+    @TempDir
+    private Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ActivityLogSpool spool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        spool = new ActivityLogSpool(tempDir, 1024, 4, meterRegistry);
+        spool.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        spool.close();
+    }
+
+    @Test
+    void flush_ShouldShipQueuedEventsInBatches() {
+        ActivityLogShipper shipper = shipper(OverflowPolicy.DROP, 10, 2);
+        List<ActivityLogRequest> requests = requests(5);
+        requests.forEach(shipper::offer);
+
+        shipper.flush();
+
+        ArgumentCaptor<List<ActivityLogRequest>> batches = ArgumentCaptor.captor();
+        verify(activityLogClient, times(3)).logActivities(batches.capture());
+        assertEquals(requests, batches.getAllValues().stream().flatMap(List::stream).toList());
+        assertEquals(5, meterRegistry.counter("activity.log.events", "outcome", "shipped").count());
+        assertEquals(0, meterRegistry.get("activity.log.queue.depth").gauge().value());
+    }
+
+    @Test
+    void offer_ShouldDropEvent_WhenQueueIsFullAndPolicyIsDrop() {
+        ActivityLogShipper shipper = shipper(OverflowPolicy.DROP, 2, 10);
+        List<ActivityLogRequest> requests = requests(3);
+
+        assertTrue(shipper.offer(requests.get(0)));
+        assertTrue(shipper.offer(requests.get(1)));
+        assertFalse(shipper.offer(requests.get(2)));
+
+        assertEquals(2, meterRegistry.get("activity.log.queue.depth").gauge().value());
+        assertEquals(1, meterRegistry.counter("activity.log.events", "outcome", "dropped", "reason", "overflow").count());
+    }
+
+    @Test
+    void offer_ShouldGiveUpAfterTimeout_WhenQueueStaysFullAndPolicyIsBlock() {
+        ActivityLogShipper shipper = shipper(OverflowPolicy.BLOCK, 1, 10);
+        List<ActivityLogRequest> requests = requests(2);
+        shipper.offer(requests.get(0));
+
+        assertFalse(shipper.offer(requests.get(1)));
+        assertEquals(1, meterRegistry.counter("activity.log.events", "outcome", "dropped", "reason", "overflow").count());
+    }
+
+    @Test
+    void offer_ShouldSpillOverflowAndShipItAfterTheQueue_WhenPolicyIsSpill() {
+        ActivityLogShipper shipper = shipper(OverflowPolicy.SPILL, 2, 10);
+        List<ActivityLogRequest> requests = requests(4);
+
+        requests.forEach(request -> assertTrue(shipper.offer(request)));
+        shipper.flush();
+
+        ArgumentCaptor<List<ActivityLogRequest>> batches = ArgumentCaptor.captor();
+        verify(activityLogClient, times(2)).logActivities(batches.capture());
+        assertEquals(requests.subList(0, 2), batches.getAllValues().get(0));
+        assertEquals(requests.subList(2, 4), batches.getAllValues().get(1));
+        assertEquals(2, meterRegistry.counter("activity.log.events", "outcome", "spooled").count());
+    }
+
+    @Test
+    void flush_ShouldSpoolFailedBatchesAndReplayThemInOrder_WhenServiceRecovers() throws Exception {
+        // No flush interval, so the replay backoff never holds the second flush back
+        ActivityLogShipper shipper = new ActivityLogShipper(activityLogClient, spool, meterRegistry, OverflowPolicy.DROP, 10, 2, 0, 10, 0);
+        List<ActivityLogRequest> requests = requests(5);
+        doThrow(FeignException.class).doThrow(FeignException.class).doReturn(null)
+                .when(activityLogClient).logActivities(anyList());
+
+        requests.subList(0, 3).forEach(shipper::offer);
+        shipper.flush();
+        assertFalse(spool.isEmpty());
+
+        // Events arriving while the spool is not empty are queued behind it
+        requests.subList(3, 5).forEach(shipper::offer);
+        shipper.flush();
+
+        ArgumentCaptor<List<ActivityLogRequest>> batches = ArgumentCaptor.captor();
+        verify(activityLogClient, times(5)).logActivities(batches.capture());
+        List<List<ActivityLogRequest>> delivered = batches.getAllValues().subList(2, batches.getAllValues().size());
+        assertEquals(requests, delivered.stream().flatMap(List::stream).toList());
+        assertTrue(spool.isEmpty());
+        assertEquals(5, meterRegistry.counter("activity.log.events", "outcome", "shipped").count());
+    }
+
+    @Test
+    void flush_ShouldBackOffReplay_WhileServiceIsDown() {
+        ActivityLogShipper shipper = shipper(OverflowPolicy.DROP, 10, 10);
+        doThrow(FeignException.class).when(activityLogClient).logActivities(anyList());
+        requests(3).forEach(shipper::offer);
+
+        shipper.flush();
+        shipper.flush();
+
+        // The first send fails, the spool replay is attempted once, then waits for its backoff
+        verify(activityLogClient, times(2)).logActivities(anyList());
+        assertEquals(3, meterRegistry.counter("activity.log.events", "outcome", "spooled").count());
+    }
+
+    @Test
+    void flush_ShouldDropRejectedBatchAndMoveOn_WhenServiceRefusesIt() throws Exception {
+        ActivityLogShipper shipper = new ActivityLogShipper(activityLogClient, spool, meterRegistry, OverflowPolicy.DROP, 10, 2, 0, 10, 0);
+        List<ActivityLogRequest> requests = requests(4);
+        FeignException badRequest = new FeignException.BadRequest("Bad Request", Request.create(Request.HttpMethod.POST,
+                "/api/v1/activity-log/batch", Map.of(), null, StandardCharsets.UTF_8, null), null, Map.of());
+        doThrow(FeignException.class).doThrow(badRequest).doReturn(null)
+                .when(activityLogClient).logActivities(anyList());
+
+        // The first send fails and is spooled; its replay is refused and the batch dropped
+        requests.subList(0, 2).forEach(shipper::offer);
+        shipper.flush();
+        assertTrue(spool.isEmpty());
+
+        // Nothing is left to hold newer events back
+        requests.subList(2, 4).forEach(shipper::offer);
+        shipper.flush();
+
+        ArgumentCaptor<List<ActivityLogRequest>> batches = ArgumentCaptor.captor();
+        verify(activityLogClient, times(3)).logActivities(batches.capture());
+        assertEquals(requests.subList(2, 4), batches.getAllValues().get(2));
+        assertEquals(2, meterRegistry.counter("activity.log.events", "outcome", "dropped", "reason", "rejected").count());
+        assertEquals(2, meterRegistry.counter("activity.log.events", "outcome", "shipped").count());
+    }
+
+    @Test
+    void worker_ShouldKeepShipping_AfterAFlushThrows() throws Exception {
+        ActivityLogShipper shipper = new ActivityLogShipper(activityLogClient, spool, meterRegistry, OverflowPolicy.DROP, 10, 10, 10, 10, 0);
+        // Too many parameters to encode, so spooling the failed batch throws
+        ActivityLogRequest unencodable = ActivityLogRequest.builder()
+                .userId(UUID.randomUUID())
+                .type(ActivityType.COMMENT_ADDED)
+                .params(Collections.nCopies(256, "param"))
+                .build();
+        List<ActivityLogRequest> requests = requests(2);
+        doThrow(FeignException.class).doReturn(null)
+                .when(activityLogClient).logActivities(anyList());
+
+        shipper.start();
+        try {
+            shipper.offer(unencodable);
+            verify(activityLogClient, timeout(5_000)).logActivities(List.of(unencodable));
+
+            requests.forEach(shipper::offer);
+            Counter shipped = meterRegistry.counter("activity.log.events", "outcome", "shipped");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (shipped.count() < requests.size() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(requests.size(), shipped.count());
+        } finally {
+            shipper.stop();
+        }
+    }
+
+    private ActivityLogShipper shipper(OverflowPolicy policy, int capacity, int batchSize) {
+        return new ActivityLogShipper(activityLogClient, spool, meterRegistry, policy, capacity, batchSize, 1000, 10, 60_000);
+    }
+
+    private static List<ActivityLogRequest> requests(int count) {
+        UUID userId = UUID.randomUUID();
+
+        return IntStream.range(0, count)
+                .mapToObj(i -> ActivityLogRequest.builder()
+                        .userId(userId)
+                        .type(ActivityType.COMMENT_ADDED)
+                        .subjectId(UUID.randomUUID())
+                        .params(List.of("Recipe " + i + " – café"))
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,200 @@
+package app.activitylog;
+
+import app.activitylog.dto.ActivityLogRequest;
+import app.activitylog.model.ActivityType;
+import app.activitylog.service.ActivityLogSpool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityLogSpoolTest {
+
+    @TempDir
+    private Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ActivityLogSpool spool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        spool = open(1024, 16);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        spool.close();
+    }
+
+    @Test
+    void read_ShouldReturnAppendedEventsInOrder() throws IOException {
+        List<ActivityLogRequest> requests = requests(5);
+        spool.append(requests.subList(0, 2));
+        spool.append(requests.subList(2, 5));
+
+        ActivityLogSpool.Batch first = spool.read(3);
+        spool.acknowledge(first);
+        ActivityLogSpool.Batch second = spool.read(3);
+        spool.acknowledge(second);
+
+        assertEquals(requests.subList(0, 3), first.requests());
+        assertEquals(requests.subList(3, 5), second.requests());
+        assertTrue(spool.isEmpty());
+    }
+
+    @Test
+    void read_ShouldNotConsumeEvents_UntilAcknowledged() throws IOException {
+        List<ActivityLogRequest> requests = requests(2);
+        spool.append(requests);
+
+        spool.read(2);
+
+        assertFalse(spool.isEmpty());
+        assertEquals(requests, spool.read(2).requests());
+    }
+
+    @Test
+    void open_ShouldResumeFromCheckpoint_AfterRestart() throws IOException {
+        List<ActivityLogRequest> requests = requests(4);
+        spool.append(requests);
+        spool.acknowledge(spool.read(1));
+        spool.close();
+
+        spool = open(1024, 16);
+
+        assertEquals(requests.subList(1, 4), spool.read(10).requests());
+    }
+
+    @Test
+    void open_ShouldTruncateTornRecord_AtEndOfActiveSegment() throws IOException {
+        List<ActivityLogRequest> requests = requests(2);
+        spool.append(requests);
+        spool.close();
+
+        try (FileChannel segment = FileChannel.open(segments().get(0), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            segment.write(ByteBuffer.allocate(12).putInt(200).putInt(42).putInt(7).flip());
+        }
+
+        spool = open(1024, 16);
+        ActivityLogRequest next = requests(1).get(0);
+        spool.append(List.of(next));
+
+        assertEquals(List.of(requests.get(0), requests.get(1), next), spool.read(10).requests());
+    }
+
+    @Test
+    void read_ShouldSkipCorruptRecords() throws IOException {
+        spool.append(requests(1));
+        spool.close();
+
+        Path segment = segments().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 0x01;
+        Files.write(segment, bytes);
+
+        spool = open(1024, 16);
+
+        assertTrue(spool.isEmpty());
+    }
+
+    @Test
+    void read_ShouldSkipRecordWithUnknownTypeCode_AndDeliverTheOthers() throws IOException {
+        List<ActivityLogRequest> requests = requests(3);
+        spool.append(requests);
+        spool.close();
+
+        // Rewrite the second record's type code, with a matching checksum, so it is intact but undecodable
+        Path segment = segments().get(0);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int second = Integer.BYTES * 2 + bytes.getInt(0);
+        int length = bytes.getInt(second);
+        bytes.put(second + Integer.BYTES * 2 + 2 * Long.BYTES, (byte) 0xEE);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.slice(second + Integer.BYTES * 2, length));
+        bytes.putInt(second + Integer.BYTES, (int) crc.getValue());
+        Files.write(segment, bytes.array());
+
+        spool = open(1024, 16);
+        ActivityLogSpool.Batch batch = spool.read(10);
+
+        assertEquals(List.of(requests.get(0), requests.get(2)), batch.requests());
+        spool.acknowledge(batch);
+        assertTrue(spool.isEmpty());
+    }
+
+    @Test
+    void append_ShouldRotateSegments_AndDeleteThemOnceDelivered() throws IOException {
+        List<ActivityLogRequest> requests = requests(40);
+        for (ActivityLogRequest request : requests) {
+            spool.append(List.of(request));
+        }
+        assertTrue(segments().size() > 1);
+
+        ActivityLogSpool.Batch batch = spool.read(requests.size());
+        spool.acknowledge(batch);
+
+        assertEquals(requests, batch.requests());
+        assertEquals(1, segments().size());
+        assertEquals(0, Files.size(segments().get(0)));
+    }
+
+    @Test
+    void append_ShouldDiscardOldestSegment_WhenSpoolIsFull() throws IOException {
+        spool.close();
+        spool = open(256, 2);
+        List<ActivityLogRequest> requests = requests(40);
+
+        for (ActivityLogRequest request : requests) {
+            spool.append(List.of(request));
+        }
+
+        List<ActivityLogRequest> kept = spool.read(requests.size()).requests();
+        double dropped = meterRegistry.counter("activity.log.events", "outcome", "dropped", "reason", "spool-full").count();
+
+        assertEquals(2, segments().size());
+        assertEquals(requests.size(), kept.size() + (int) dropped);
+        assertEquals(requests.subList(requests.size() - kept.size(), requests.size()), kept);
+    }
+
+    private ActivityLogSpool open(long segmentBytes, int maxSegments) throws IOException {
+        ActivityLogSpool opened = new ActivityLogSpool(directory, segmentBytes, maxSegments, meterRegistry);
+        opened.open();
+        return opened;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static List<ActivityLogRequest> requests(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> ActivityLogRequest.builder()
+                        .userId(UUID.randomUUID())
+                        .type(ActivityType.RECIPE_LIKED)
+                        .subjectId(UUID.randomUUID())
+                        .params(List.of("Recipe #" + i))
+                        .build())
+                .toList();
+    }
+}
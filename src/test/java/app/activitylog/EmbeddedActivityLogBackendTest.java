@@ -0,0 +1,216 @@
+package app.activitylog;
+
+import app.activitylog.dto.ActivityLogPage;
+import app.activitylog.dto.ActivityLogRequest;
+import app.activitylog.dto.ActivityLogResponse;
+import app.activitylog.model.ActivityType;
+import app.activitylog.service.EmbeddedActivityLogBackend;
+import app.exception.InvalidCursorException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddedActivityLogBackendTest {
+
+    @TempDir
+    private Path directory;
+
+    private EmbeddedActivityLogBackend backend;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        backend = open(1024);
+        userId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        backend.close();
+    }
+
+    @Test
+    void getActivityLog_ShouldReturnUsersEntriesNewestFirst() {
+        UUID otherUserId = UUID.randomUUID();
+        record(userId, "Created recipe");
+        record(otherUserId, "Liked recipe");
+        record(userId, "Commented on recipe");
+
+        List<ActivityLogResponse> activityLog = backend.getActivityLog(userId, null, 100).getEntries();
+
+        assertEquals(List.of("Commented on recipe", "Created recipe"), actions(activityLog));
+        assertTrue(activityLog.stream().allMatch(entry -> entry.getUserId().equals(userId) && entry.getCreatedOn() != null));
+    }
+
+    @Test
+    void getActivityLog_ShouldPageBackwardsFromCursor() {
+        for (int i = 0; i < 5; i++) {
+            record(userId, "Action " + i);
+        }
+
+        ActivityLogPage firstPage = backend.getActivityLog(userId, null, 2);
+        ActivityLogPage secondPage = backend.getActivityLog(userId, firstPage.getNextCursor(), 2);
+        ActivityLogPage lastPage = backend.getActivityLog(userId, secondPage.getNextCursor(), 2);
+
+        assertEquals(List.of("Action 4", "Action 3"), actions(firstPage));
+        assertEquals(List.of("Action 2", "Action 1"), actions(secondPage));
+        assertEquals(List.of("Action 0"), actions(lastPage));
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void getActivityLog_ShouldRejectMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> backend.getActivityLog(userId, "not a cursor!", 2));
+    }
+
+    @Test
+    void clear_ShouldHideEarlierEntries_EvenAfterRestart() throws IOException {
+        record(userId, "Before clear");
+        backend.clear(userId);
+        record(userId, "After clear");
+
+        assertEquals(List.of("After clear"), actions(backend.getActivityLog(userId, null, 100)));
+
+        backend.close();
+        backend = open(1024);
+
+        assertEquals(List.of("After clear"), actions(backend.getActivityLog(userId, null, 100)));
+    }
+
+    @Test
+    void clear_ShouldDeleteLeadingSegments_OnceAllTheirEntriesAreCleared() throws IOException {
+        UUID otherUserId = UUID.randomUUID();
+        for (int i = 0; i < 50; i++) {
+            record(userId, "Action " + i);
+        }
+        record(otherUserId, "Kept");
+        assertTrue(segments().size() > 1);
+
+        backend.clear(userId);
+
+        assertEquals(1, segments().size());
+        assertEquals(List.of("Kept"), actions(backend.getActivityLog(otherUserId, null, 100)));
+
+        backend.close();
+        backend = open(1024);
+
+        assertTrue(backend.getActivityLog(userId, null, 100).getEntries().isEmpty());
+        assertEquals(List.of("Kept"), actions(backend.getActivityLog(otherUserId, null, 100)));
+    }
+
+    @Test
+    void clear_ShouldKeepSegments_BehindOneWithLiveEntries() throws IOException {
+        UUID otherUserId = UUID.randomUUID();
+        record(otherUserId, "Kept");
+        for (int i = 0; i < 50; i++) {
+            record(userId, "Action " + i);
+        }
+        int segments = segments().size();
+
+        backend.clear(userId);
+
+        assertEquals(segments, segments().size());
+
+        backend.close();
+        backend = open(1024);
+
+        assertTrue(backend.getActivityLog(userId, null, 100).getEntries().isEmpty());
+        assertEquals(List.of("Kept"), actions(backend.getActivityLog(otherUserId, null, 100)));
+    }
+
+    @Test
+    void open_ShouldRebuildIndexAcrossSegments() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            record(userId, "Action " + i);
+        }
+        backend.close();
+        assertTrue(segments().size() > 1);
+
+        backend = open(1024);
+
+        List<ActivityLogResponse> activityLog = backend.getActivityLog(userId, null, 100).getEntries();
+        assertEquals(50, activityLog.size());
+        assertEquals(List.of("Action 49"), activityLog.get(0).getParams());
+        assertEquals(List.of("Action 0"), activityLog.get(49).getParams());
+    }
+
+    @Test
+    void open_ShouldTruncateTornRecord_AtEndOfLog() throws IOException {
+        record(userId, "Written");
+        backend.close();
+
+        Path last = segments().get(segments().size() - 1);
+        try (FileChannel segment = FileChannel.open(last, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            segment.write(ByteBuffer.allocate(10).putInt(500).putInt(1).flip());
+        }
+
+        backend = open(1024);
+        record(userId, "Written after restart");
+
+        assertEquals(List.of("Written after restart", "Written"), actions(backend.getActivityLog(userId, null, 100)));
+    }
+
+    @Test
+    void record_ShouldCutOversizedParameter_AtCharacterBoundary() {
+        // Two bytes per character, so the 65,535-byte limit falls in the middle of one
+        record(userId, "é".repeat(40_000));
+
+        assertEquals(List.of("é".repeat(32_767)), actions(backend.getActivityLog(userId, null, 100)));
+    }
+
+    @Test
+    void record_ShouldRejectTooManyParameters() {
+        ActivityLogRequest request = ActivityLogRequest.builder()
+                .userId(userId)
+                .type(ActivityType.RECIPE_ADDED)
+                .params(Collections.nCopies(256, "param"))
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> backend.record(request));
+        assertTrue(backend.getActivityLog(userId, null, 100).getEntries().isEmpty());
+    }
+
+    private EmbeddedActivityLogBackend open(long segmentBytes) throws IOException {
+        EmbeddedActivityLogBackend opened = new EmbeddedActivityLogBackend(directory, segmentBytes);
+        opened.open();
+        return opened;
+    }
+
+    private void record(UUID userId, String title) {
+        assertTrue(backend.record(ActivityLogRequest.builder()
+                .userId(userId)
+                .type(ActivityType.RECIPE_ADDED)
+                .subjectId(UUID.randomUUID())
+                .params(List.of(title))
+                .build()));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<String> actions(ActivityLogPage page) {
+        return actions(page.getEntries());
+    }
+
+    private static List<String> actions(List<ActivityLogResponse> activityLog) {
+        return activityLog.stream().map(entry -> entry.getParams().get(0)).toList();
+    }
+}
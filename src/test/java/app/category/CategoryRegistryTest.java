@@ -0,0 +1,88 @@
+package app.category;
+
+import app.category.model.Category;
+import app.category.model.CategoryName;
+import app.category.repository.CategoryRepository;
+import app.category.service.CategoryRegistry;
+import app.exception.CategoryNotFoundException;
+import app.web.dto.CategoryShort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CategoryRegistryTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private CategoryRegistry categoryRegistry;
+
+    @Test
+    void getAllShouldReturnCategoriesInEnumOrder() {
+        when(categoryRepository.findAll()).thenReturn(List.of(aCategory(CategoryName.SOUPS), aCategory(CategoryName.VEGAN)));
+
+        categoryRegistry.refresh();
+
+        assertThat(categoryRegistry.getAll())
+                .extracting(CategoryShort::getName)
+                .containsExactly(CategoryName.VEGAN, CategoryName.SOUPS);
+    }
+
+    @Test
+    void getReferenceShouldNotQueryOnceLoaded() {
+        Category category = aCategory(CategoryName.BEVERAGES);
+        Category reference = Category.builder().id(category.getId()).build();
+
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+        when(categoryRepository.getReferenceById(category.getId())).thenReturn(reference);
+
+        categoryRegistry.refresh();
+
+        assertThat(categoryRegistry.getReference(CategoryName.BEVERAGES)).isSameAs(reference);
+        assertThat(categoryRegistry.getReference(CategoryName.BEVERAGES)).isSameAs(reference);
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void getReferenceShouldReloadWhenCategoryIsMissing() {
+        Category category = aCategory(CategoryName.DESSERTS);
+        Category reference = Category.builder().id(category.getId()).build();
+
+        when(categoryRepository.findAll()).thenReturn(List.of(), List.of(category));
+        when(categoryRepository.getReferenceById(category.getId())).thenReturn(reference);
+
+        categoryRegistry.refresh();
+
+        assertThat(categoryRegistry.getReference(CategoryName.DESSERTS)).isSameAs(reference);
+        verify(categoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    void getReferenceShouldThrowExceptionWhenCategoryNotFound() {
+        when(categoryRepository.findAll()).thenReturn(List.of());
+
+        assertThatThrownBy(() -> categoryRegistry.getReference(CategoryName.BEVERAGES))
+                .isInstanceOf(CategoryNotFoundException.class)
+                .hasMessage("Category with name " + CategoryName.BEVERAGES + " not found");
+
+        verify(categoryRepository, never()).getReferenceById(any());
+    }
+
+    private static Category aCategory(CategoryName name) {
+        return Category.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .build();
+    }
+}
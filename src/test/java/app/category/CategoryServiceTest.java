@@ -3,6 +3,7 @@ package app.category;
 import app.category.model.Category;
 import app.category.model.CategoryName;
 import app.category.repository.CategoryRepository;
+import app.category.service.CategoryRegistry;
 import app.category.service.CategoryService;
 import app.exception.CategoryNotFoundException;
 import app.recipe.model.Recipe;
@@ -26,47 +27,24 @@ public class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CategoryRegistry categoryRegistry;
+
     @InjectMocks
     private CategoryService categoryService;
 
     @Test
-    void getAllShouldReturnCategoryShort() {
-        // Arrange
-        Category category1 = Category.builder()
-                .id(UUID.fromString("5ec33a5a-8f51-4f29-a7af-1294573da68f"))
-                .name(CategoryName.BEVERAGES)
-                .build();
-
-        Category category2 = Category.builder()
-                .id(UUID.fromString("2938bf5e-b39f-41f4-a731-830b5eac6566"))
-                .name(CategoryName.VEGAN)
-                .build();
-
-        List<Category> mockCategories = Arrays.asList(category1, category2);
-        when(categoryRepository.findAll()).thenReturn(mockCategories);
-
-        CategoryShort categoryShort1 = CategoryShort.builder()
-                .id(UUID.fromString("5ec33a5a-8f51-4f29-a7af-1294573da68f"))
-                .name(CategoryName.BEVERAGES)
-                .build();
-
-        CategoryShort categoryShort2 = CategoryShort.builder()
-                .id(UUID.fromString("2938bf5e-b39f-41f4-a731-830b5eac6566"))
-                .name(CategoryName.VEGAN)
-                .build();
+    void getAllShouldReturnCategoryShortsFromRegistry() {
+        List<CategoryShort> categories = List.of(
+                CategoryShort.builder().id(UUID.randomUUID()).name(CategoryName.BEVERAGES).build(),
+                CategoryShort.builder().id(UUID.randomUUID()).name(CategoryName.VEGAN).build());
 
-        // Act
-        List<Category> result = categoryService.getAll();
+        when(categoryRegistry.getAll()).thenReturn(categories);
 
-        // Assert
-        assertThat(result).hasSize(2);
-        assertThat(result).extracting(Category::getId)
-                .containsExactly(categoryShort1.getId(), categoryShort2.getId());
-        assertThat(result).extracting(Category::getName)
-                .containsExactly(categoryShort1.getName(), categoryShort2.getName());
+        List<CategoryShort> result = categoryService.getAll();
 
-        // Verify that repository.findAll() was called once
-        verify(categoryRepository, times(1)).findAll();
+        assertThat(result).isSameAs(categories);
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
@@ -108,37 +86,27 @@ public class CategoryServiceTest {
     }
 
     @Test
-    void getByNameShouldReturnCategory() {
-        UUID categoryId = UUID.randomUUID();
-        CategoryName categoryName = CategoryName.BEVERAGES;
-
-        Category category = Category.builder()
-                .id(categoryId)
-                .name(categoryName)
-                .description("Random description")
+    void getByNameShouldReturnReferenceFromRegistry() {
+        Category reference = Category.builder()
+                .id(UUID.randomUUID())
                 .build();
 
-        when(categoryRepository.findByName(categoryName)).thenReturn(Optional.of(category));
+        when(categoryRegistry.getReference(CategoryName.BEVERAGES)).thenReturn(reference);
 
         Category result = categoryService.getByName(CategoryName.BEVERAGES);
 
-        assertThat(result).isNotNull();
-        assertThat(result.getId()).isEqualTo(categoryId);
-        assertThat(result.getName()).isEqualTo(CategoryName.BEVERAGES);
-        assertThat(result.getDescription()).isEqualTo("Random description");
-
-        verify(categoryRepository, times(1)).findByName(categoryName);
+        assertThat(result).isSameAs(reference);
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
     void getByNameShouldThrowExceptionWhenCategoryNotFound() {
         CategoryName categoryName = CategoryName.BEVERAGES;
-        when(categoryRepository.findByName(categoryName)).thenReturn(Optional.empty());
+        when(categoryRegistry.getReference(categoryName))
+                .thenThrow(new CategoryNotFoundException("Category with name " + categoryName + " not found"));
 
         assertThatThrownBy(() -> categoryService.getByName(categoryName))
                 .isInstanceOf(CategoryNotFoundException.class)
                 .hasMessage("Category with name " + categoryName + " not found");
-
-        verify(categoryRepository, times(1)).findByName(categoryName);
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,16 @@
 package app.cloudinary;
 
 import app.cloudinary.dto.ImageUploadResult;
+import app.cloudinary.image.ImageProcessor;
+import app.cloudinary.model.StoredImage;
+import app.cloudinary.repository.PendingImageDeletionRepository;
+import app.cloudinary.repository.StoredImageRepository;
 import app.cloudinary.service.CloudinaryService;
 import app.exception.ImageUploadException;
+import com.cloudinary.Api;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.Uploader;
+import com.cloudinary.api.ApiResponse;
 import com.cloudinary.utils.ObjectUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,11 +19,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.lenient;
@@ -31,12 +45,25 @@ class CloudinaryServiceTest {
     @Mock
     private Uploader uploader;
 
+    @Mock
+    private ImageProcessor imageProcessor;
+
+    @Mock
+    private StoredImageRepository storedImageRepository;
+
+    @Mock
+    private PendingImageDeletionRepository pendingImageDeletionRepository;
+
+    @Mock
+    private Api api;
+
     @InjectMocks
     private CloudinaryService cloudinaryService;
 
     @BeforeEach
     void setUp() {
         lenient().when(cloudinary.uploader()).thenReturn(uploader); // Prevents the exception while still keeping the stubbing
+        lenient().when(imageProcessor.process(Mockito.any(Path.class))).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
     @Test
@@ -47,11 +74,13 @@ class CloudinaryServiceTest {
                 "public_id", "sample_public_id"
         );
 
-        Mockito.when(uploader.upload(Mockito.any(byte[].class), Mockito.anyMap()))
+        Mockito.when(uploader.upload(Mockito.any(File.class), Mockito.anyMap()))
                 .thenReturn(fakeUploadResult);
 
         ImageUploadResult result = cloudinaryService.uploadImage(mockFile);
 
+        Mockito.verify(uploader, Mockito.never()).upload(Mockito.any(byte[].class), Mockito.anyMap());
+
         assertNotNull(result);
         assertEquals("https://res.cloudinary.com/demo/image/upload/sample.jpg", result.getImageUrl());
         assertEquals("sample_public_id", result.getPublicId());
@@ -61,20 +90,123 @@ class CloudinaryServiceTest {
     public void testUploadImageShouldThrowExceptionWhenUploadFails() throws Exception {
         MultipartFile mockFile = new MockMultipartFile("file", "test.jpg", "image/jpeg", "dummy data".getBytes());
 
-        Mockito.when(uploader.upload(Mockito.any(byte[].class), Mockito.anyMap()))
+        Mockito.when(uploader.upload(Mockito.any(File.class), Mockito.anyMap()))
                 .thenThrow(new IOException("Cloudinary upload failed"));
 
         assertThrows(ImageUploadException.class, () -> cloudinaryService.uploadImage(mockFile));
     }
 
     @Test
-    public void testDeleteImageShouldCallCloudinaryDestroy() throws Exception {
+    public void testStageAndUploadImageShouldUploadStagedFile() throws Exception {
+        MultipartFile mockFile = new MockMultipartFile("file", "test.jpg", "image/jpeg", "dummy data".getBytes());
+        Map<String, Object> fakeUploadResult = Map.of(
+                "secure_url", "https://res.cloudinary.com/demo/image/upload/sample.jpg",
+                "public_id", "sample_public_id"
+        );
+
+        Mockito.when(uploader.upload(Mockito.any(File.class), Mockito.anyMap()))
+                .thenReturn(fakeUploadResult);
+
+        Path staged = cloudinaryService.stageImage(mockFile);
+        ImageUploadResult result = cloudinaryService.uploadImage(staged);
+
+        assertEquals("dummy data", Files.readString(staged));
+        assertEquals("sample_public_id", result.getPublicId());
+        Mockito.verify(uploader).upload(staged.toFile(), ObjectUtils.emptyMap());
+
+        Files.delete(staged);
+    }
+
+    @Test
+    public void testUploadImageShouldReuseStoredImageWithSameContent() throws Exception {
+        MultipartFile mockFile = new MockMultipartFile("file", "test.jpg", "image/jpeg", "dummy data".getBytes());
+        StoredImage stored = aStoredImage();
+
+        Mockito.when(storedImageRepository.findByContentHash(Mockito.anyString())).thenReturn(Optional.of(stored));
+        Mockito.when(storedImageRepository.acquire(stored.getId())).thenReturn(1);
+
+        ImageUploadResult result = cloudinaryService.uploadImage(mockFile);
+
+        assertEquals(stored.getUrl(), result.getImageUrl());
+        assertEquals(stored.getPublicId(), result.getPublicId());
+        Mockito.verifyNoInteractions(uploader, imageProcessor);
+        Mockito.verify(storedImageRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    public void testUploadImageShouldRecordNewImageByContentHash() throws Exception {
+        MultipartFile mockFile = new MockMultipartFile("file", "test.jpg", "image/jpeg", "dummy data".getBytes());
+        Map<String, Object> fakeUploadResult = Map.of(
+                "secure_url", "https://res.cloudinary.com/demo/image/upload/sample.jpg",
+                "public_id", "sample_public_id"
+        );
+
+        Mockito.when(uploader.upload(Mockito.any(File.class), Mockito.anyMap()))
+                .thenReturn(fakeUploadResult);
+
+        cloudinaryService.uploadImage(mockFile);
+
+        Mockito.verify(storedImageRepository).save(Mockito.argThat(image ->
+                // SHA-256 of "dummy data"
+                image.getContentHash().equals("797bb0abff798d7200af7685dca7901edffc52bf26500d5bd97282658ee24152")
+                        && image.getPublicId().equals("sample_public_id")
+                        && image.getReferenceCount() == 1));
+    }
+
+    @Test
+    public void testUploadImageShouldDiscardDuplicate_whenSameImageWasRecordedConcurrently() throws Exception {
+        MultipartFile mockFile = new MockMultipartFile("file", "test.jpg", "image/jpeg", "dummy data".getBytes());
+        Map<String, Object> fakeUploadResult = Map.of(
+                "secure_url", "https://res.cloudinary.com/demo/image/upload/duplicate.jpg",
+                "public_id", "duplicate_public_id"
+        );
+        StoredImage stored = aStoredImage();
+
+        Mockito.when(uploader.upload(Mockito.any(File.class), Mockito.anyMap()))
+                .thenReturn(fakeUploadResult);
+        Mockito.when(storedImageRepository.findByContentHash(Mockito.anyString()))
+                .thenReturn(Optional.empty(), Optional.of(stored));
+        Mockito.when(storedImageRepository.save(Mockito.any(StoredImage.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate content hash"));
+        Mockito.when(storedImageRepository.acquire(stored.getId())).thenReturn(1);
+
+        ImageUploadResult result = cloudinaryService.uploadImage(mockFile);
+
+        assertEquals(stored.getPublicId(), result.getPublicId());
+        Mockito.verify(pendingImageDeletionRepository).save(Mockito.argThat(deletion ->
+                deletion.getPublicId().equals("duplicate_public_id")));
+    }
+
+    @Test
+    public void testDeleteImageShouldKeepImage_whenOtherReferencesRemain() throws Exception {
+        Mockito.when(storedImageRepository.release("shared_public_id")).thenReturn(1);
+        Mockito.when(storedImageRepository.deleteIfUnreferenced("shared_public_id")).thenReturn(0);
+
+        cloudinaryService.deleteImage("shared_public_id");
+
+        Mockito.verifyNoInteractions(pendingImageDeletionRepository);
+    }
+
+    @Test
+    public void testDeleteImageShouldDestroyImage_whenLastReferenceIsReleased() throws Exception {
+        Mockito.when(storedImageRepository.release("shared_public_id")).thenReturn(1);
+        Mockito.when(storedImageRepository.deleteIfUnreferenced("shared_public_id")).thenReturn(1);
+
+        cloudinaryService.deleteImage("shared_public_id");
+
+        Mockito.verify(pendingImageDeletionRepository).save(Mockito.argThat(deletion ->
+                deletion.getPublicId().equals("shared_public_id")));
+    }
+
+    @Test
+    public void testDeleteImageShouldQueueDeletionInsteadOfCallingCloudinary() throws Exception {
         String publicId = "test_public_id";
 
         cloudinaryService.deleteImage(publicId);
 
-        Mockito.verify(uploader, Mockito.times(1))
-                .destroy(publicId, ObjectUtils.emptyMap());
+        Mockito.verify(pendingImageDeletionRepository, Mockito.times(1)).save(Mockito.argThat(deletion ->
+                deletion.getPublicId().equals(publicId) && deletion.getAttempts() == 0));
+        Mockito.verifyNoInteractions(uploader);
     }
 
     @Test
@@ -82,16 +214,41 @@ class CloudinaryServiceTest {
         cloudinaryService.deleteImage(null);
         cloudinaryService.deleteImage("");
 
-        Mockito.verifyNoInteractions(uploader);
+        Mockito.verifyNoInteractions(uploader, pendingImageDeletionRepository);
     }
 
     @Test
-    public void testDeleteImageShouldThrowExceptionWhenDeletionFails() throws Exception {
-        String publicId = "test_public_id";
+    public void testDestroyImagesShouldTreatMissingImagesAsDeleted() throws Exception {
+        ApiResponse response = Mockito.mock(ApiResponse.class);
+        Mockito.when(cloudinary.api()).thenReturn(api);
+        Mockito.when(api.deleteResources(Mockito.anyIterable(), Mockito.anyMap())).thenReturn(response);
+        Mockito.when(response.get("deleted")).thenReturn(Map.of(
+                "first", "deleted",
+                "second", "not_found",
+                "third", "error"
+        ));
+
+        Set<String> destroyed = cloudinaryService.destroyImages(List.of("first", "second", "third"));
+
+        assertEquals(Set.of("first", "second"), destroyed);
+    }
 
-        Mockito.when(uploader.destroy(Mockito.anyString(), Mockito.anyMap()))
+    @Test
+    public void testDestroyImagesShouldThrowExceptionWhenDeletionFails() throws Exception {
+        Mockito.when(cloudinary.api()).thenReturn(api);
+        Mockito.when(api.deleteResources(Mockito.anyIterable(), Mockito.anyMap()))
                 .thenThrow(new IOException("Cloudinary deletion failed"));
 
-        assertThrows(ImageUploadException.class, () -> cloudinaryService.deleteImage(publicId));
+        assertThrows(ImageUploadException.class, () -> cloudinaryService.destroyImages(List.of("test_public_id")));
+    }
+
+    private static StoredImage aStoredImage() {
+        return StoredImage.builder()
+                .id(UUID.randomUUID())
+                .contentHash("797bb0abff798d7200af7685dca7901edffc52bf26500d5bd97282658ee24152")
+                .publicId("stored_public_id")
+                .url("https://res.cloudinary.com/demo/image/upload/stored.jpg")
+                .referenceCount(1)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package app.cloudinary;
+
+import app.cloudinary.image.ImageProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageProcessorTest {
+
+    private final ImageProcessor imageProcessor = new ImageProcessor();
+    private final List<Path> files = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void process_shouldDownscaleLargePhotos() throws IOException {
+        Path source = write(jpeg(image(4000, 3000, BufferedImage.TYPE_INT_RGB)), ".jpg");
+
+        Path processed = track(imageProcessor.process(source));
+        BufferedImage result = ImageIO.read(processed.toFile());
+
+        assertNotEquals(source, processed);
+        assertEquals(1600, result.getWidth());
+        assertEquals(1200, result.getHeight());
+        assertTrue(Files.size(processed) < Files.size(source));
+    }
+
+    @Test
+    void process_shouldKeepSmallUprightImages() throws IOException {
+        Path source = write(jpeg(image(800, 600, BufferedImage.TYPE_INT_RGB)), ".jpg");
+
+        assertEquals(source, imageProcessor.process(source));
+    }
+
+    @Test
+    void process_shouldKeepFilesItCannotDecode() throws IOException {
+        Path source = write("not an image".getBytes(), ".upload");
+
+        assertEquals(source, imageProcessor.process(source));
+    }
+
+    @Test
+    void process_shouldKeepTransparency() throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image(2000, 1000, BufferedImage.TYPE_INT_ARGB), "png", png);
+        Path source = write(png.toByteArray(), ".png");
+
+        Path processed = track(imageProcessor.process(source));
+        BufferedImage result = ImageIO.read(processed.toFile());
+
+        assertTrue(processed.toString().endsWith(".png"));
+        assertTrue(result.getColorModel().hasAlpha());
+        assertEquals(1600, result.getWidth());
+    }
+
+    @Test
+    void process_shouldRotateAccordingToExifOrientation() throws IOException {
+        // Stored landscape, tagged "rotate 90 degrees clockwise to display"
+        byte[] jpeg = withExifOrientation(jpeg(image(400, 200, BufferedImage.TYPE_INT_RGB)), 6);
+        Path source = write(jpeg, ".jpg");
+
+        Path processed = track(imageProcessor.process(source));
+        BufferedImage result = ImageIO.read(processed.toFile());
+
+        assertEquals(200, result.getWidth());
+        assertEquals(400, result.getHeight());
+    }
+
+    private Path write(byte[] content, String suffix) throws IOException {
+        Path file = track(Files.createTempFile("image-processor-", suffix));
+        Files.write(file, content);
+        return file;
+    }
+
+    private Path track(Path file) {
+        files.add(file);
+        return file;
+    }
+
+    private static BufferedImage image(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(200, 80, 40, 160));
+        graphics.fillOval(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Inserts a minimal big-endian EXIF APP1 segment with a single orientation entry right after
+     * the JFIF APP0 segment.
+     */
+    private static byte[] withExifOrientation(byte[] jpeg, int orientation) {
+        byte[] exif = {
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0
+        };
+        int app0Length = ((jpeg[4] & 0xFF) << 8) | (jpeg[5] & 0xFF);
+        int insertAt = 4 + app0Length;
+        int segmentLength = exif.length + 2;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, insertAt);
+        out.write(0xFF);
+        out.write(0xE1);
+        out.write(segmentLength >> 8);
+        out.write(segmentLength & 0xFF);
+        out.write(exif, 0, exif.length);
+        out.write(jpeg, insertAt, jpeg.length - insertAt);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,233 @@
+package app.cloudinary;
+
+import app.cloudinary.image.ImageProcessor;
+import app.cloudinary.repository.PendingImageDeletionRepository;
+import app.cloudinary.repository.StoredImageRepository;
+import app.cloudinary.service.CloudinaryService;
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.sun.net.httpserver.HttpServer;
+import org.mockito.Mockito;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares peak heap usage of uploading N images concurrently by copying each multipart part
+ * into a byte array versus streaming it from disk through {@link CloudinaryService}.
+ * <p>
+ * Uploads go to a local HTTP sink that discards the request body, so only the client side is
+ * measured. Run with {@code gradle imageUploadBenchmark -Pargs="16 10"} for 16 concurrent uploads
+ * of 10 MB each.
+ */
+public class ImageUploadHeapBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int uploads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int sizeMb = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        HttpServer sink = startSink();
+        Path source = randomFile(sizeMb);
+
+        try {
+            Cloudinary cloudinary = new Cloudinary(ObjectUtils.asMap(
+                    "cloud_name", "benchmark",
+                    "api_key", "key",
+                    "api_secret", "secret",
+                    "upload_prefix", "http://localhost:" + sink.getAddress().getPort()));
+            // Every part has the same content, so the stored image lookup always misses to keep each upload real
+            StoredImageRepository storedImages = Mockito.mock(StoredImageRepository.class);
+            CloudinaryService cloudinaryService = new CloudinaryService(cloudinary, new ImageProcessor(), storedImages,
+                    Mockito.mock(PendingImageDeletionRepository.class));
+
+            // Warm up both paths so class loading and connection setup are not measured
+            run(uploads, source, file -> cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap()));
+            run(uploads, source, cloudinaryService::uploadImage);
+
+            long bytesPeak = run(uploads, source, file -> cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap()));
+            long streamingPeak = run(uploads, source, cloudinaryService::uploadImage);
+
+            System.out.printf("%d concurrent uploads of %d MB%n", uploads, sizeMb);
+            System.out.printf("getBytes():  peak heap %,d MB%n", bytesPeak / (1024 * 1024));
+            System.out.printf("streaming:   peak heap %,d MB%n", streamingPeak / (1024 * 1024));
+        } finally {
+            sink.stop(0);
+            Files.deleteIfExists(source);
+        }
+    }
+
+    private static long run(int uploads, Path source, Upload upload) throws Exception {
+        List<DiskMultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < uploads; i++) {
+            files.add(new DiskMultipartFile(source));
+        }
+
+        System.gc();
+        resetPeakHeap();
+
+        ExecutorService executor = Executors.newFixedThreadPool(uploads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        for (MultipartFile file : files) {
+            results.add(executor.submit(() -> {
+                start.await();
+                upload.upload(file);
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        long peak = peakHeap();
+        for (DiskMultipartFile file : files) {
+            file.delete();
+        }
+
+        return peak;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static HttpServer startSink() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+
+            byte[] response = "{\"secure_url\":\"https://example.com/image.jpg\",\"public_id\":\"image\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+
+        return server;
+    }
+
+    private static Path randomFile(int sizeMb) throws IOException {
+        Path file = Files.createTempFile("benchmark-image-", ".jpg");
+        byte[] chunk = new byte[1024 * 1024];
+        Random random = new Random(42);
+
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < sizeMb; i++) {
+                random.nextBytes(chunk);
+                out.write(chunk);
+            }
+        }
+
+        return file;
+    }
+
+    @FunctionalInterface
+    private interface Upload {
+        void upload(MultipartFile file) throws Exception;
+    }
+
+    /**
+     * Disk-backed part, like the ones Tomcat hands out once an upload exceeds the in-memory threshold.
+     */
+    private static class DiskMultipartFile implements MultipartFile {
+
+        private final Path file;
+
+        DiskMultipartFile(Path source) throws IOException {
+            this.file = Files.createTempFile("benchmark-part-", ".tmp");
+            Files.copy(source, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        void delete() throws IOException {
+            Files.deleteIfExists(file);
+        }
+
+        @Override
+        public String getName() {
+            return "image";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return "image.jpg";
+        }
+
+        @Override
+        public String getContentType() {
+            return "image/jpeg";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getSize() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return file.toFile().length();
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(file);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.move(file, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        @Override
+        public void transferTo(Path dest) throws IOException {
+            Files.move(file, dest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
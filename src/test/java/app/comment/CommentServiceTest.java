@@ -1,13 +1,21 @@
 package app.comment;
 
 import app.activitylog.event.ActivityLogEvent;
+import app.activitylog.model.ActivityType;
+import app.comment.event.CommentChangedEvent;
 import app.comment.model.Comment;
 import app.comment.repository.CommentRepository;
 import app.comment.service.CommentService;
+import app.exception.InvalidCursorException;
 import app.recipe.model.Recipe;
+import app.recipe.model.RecipeSnapshot;
 import app.recipe.service.RecipeService;
 import app.user.model.User;
 import app.user.service.UserService;
+import app.web.dto.CommentByRecipe;
+import app.web.dto.CommentForAdminPage;
+import app.web.dto.CommentPage;
+import app.web.dto.KeysetCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +25,10 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -24,7 +36,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -96,10 +108,11 @@ class CommentServiceTest {
     void shouldSaveCommentWhenRecipeAndUserExist() {
         String content = "This recipe is amazing!";
 
-        when(recipeService.getById(recipeId)).thenReturn(recipe);
+        when(recipeService.getSnapshot(recipeId)).thenReturn(new RecipeSnapshot(recipeId, recipe.getTitle(), UUID.randomUUID()));
+        when(recipeService.getReference(recipeId)).thenReturn(recipe);
         when(userService.getUserById(userId)).thenReturn(user);
 
-        ArgumentCaptor<ActivityLogEvent> eventCaptor = ArgumentCaptor.forClass(ActivityLogEvent.class);
+        ArgumentCaptor<Object> eventCaptor = ArgumentCaptor.forClass(Object.class);
 
         commentService.add(content, recipeId, userId);
 
@@ -110,27 +123,74 @@ class CommentServiceTest {
                         comment.getCreatedDate() != null
         ));
 
-        Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(eventCaptor.capture());
+        Mockito.verify(eventPublisher, Mockito.times(2)).publishEvent(eventCaptor.capture());
 
-        ActivityLogEvent capturedEvent = eventCaptor.getValue();
-        String expectedAction = "You have successfully commented [%s], on recipe: %s".formatted(content, recipe.getTitle());
+        ActivityLogEvent capturedEvent = (ActivityLogEvent) eventCaptor.getAllValues().get(0);
+        CommentChangedEvent changedEvent = (CommentChangedEvent) eventCaptor.getAllValues().get(1);
+        String expectedAction = "You have successfully commented on recipe: " + recipe.getTitle();
 
         assertEquals(userId, capturedEvent.getUserId());
+        assertEquals(ActivityType.COMMENT_ADDED, capturedEvent.getType());
+        assertEquals(recipeId, capturedEvent.getSubjectId());
         assertEquals(expectedAction, capturedEvent.getAction());
+        // The comment itself is not part of the activity log
+        assertFalse(capturedEvent.getParams().contains(content));
+
+        assertEquals(CommentChangedEvent.Change.ADDED, changedEvent.getChange());
+        assertEquals(recipeId, changedEvent.getRecipeId());
+        assertEquals(content, changedEvent.getComment().getContent());
+        assertEquals(user.getUsername(), changedEvent.getComment().getCreatedBy());
+    }
+
+    @Test
+    void shouldReturnNewestCommentsOldestFirst_WithCursorToOlderOnes() {
+        CommentByRecipe newest = commentByRecipe("Delicious!", LocalDateTime.now());
+        CommentByRecipe older = commentByRecipe("Great recipe!", LocalDateTime.now().minusDays(1));
+        CommentByRecipe oldest = commentByRecipe("Nice", LocalDateTime.now().minusDays(2));
+
+        when(commentRepository.findNewestByRecipeId(recipeId, PageRequest.of(0, 3)))
+                .thenReturn(List.of(newest, older, oldest));
+
+        CommentPage page = commentService.getComments(recipeId, null, null, 2);
+
+        assertThat(page.getComments()).containsExactly(older, newest);
+        assertEquals(new KeysetCursor(older.getCreatedDate(), older.getId()).encode(), page.getNextCursor());
+        assertEquals(new KeysetCursor(newest.getCreatedDate(), newest.getId()).encode(), page.getLatestCursor());
     }
 
     @Test
-    void shouldReturnCommentsByRecipeId() {
-        when(commentRepository.findAllByRecipeIdOrderByCreatedDate(recipeId))
-                .thenReturn(List.of(comment1, comment2));
+    void shouldReturnOnlyNewerComments_WhenSinceIsGiven() {
+        KeysetCursor since = new KeysetCursor(LocalDateTime.now().minusDays(1), UUID.randomUUID());
+        CommentByRecipe newer = commentByRecipe("Delicious!", LocalDateTime.now());
 
-        List<Comment> result = commentService.getCommentsByRecipeId(recipeId);
+        when(commentRepository.findOldestByRecipeIdAfter(recipeId, since.getDate(), since.getId(), PageRequest.of(0, 21)))
+                .thenReturn(List.of(newer));
 
-        assertThat(result).hasSize(2)
-                .extracting(Comment::getContent)
-                .containsExactly("Great recipe!", "Delicious!");
+        CommentPage page = commentService.getComments(recipeId, since.encode(), null, 20);
 
-        verify(commentRepository).findAllByRecipeIdOrderByCreatedDate(recipeId);
+        assertThat(page.getComments()).containsExactly(newer);
+        assertNull(page.getNextCursor());
+        assertEquals(new KeysetCursor(newer.getCreatedDate(), newer.getId()).encode(), page.getLatestCursor());
+    }
+
+    @Test
+    void shouldKeepSinceAsLatestCursor_WhenThereAreNoNewerComments() {
+        String since = new KeysetCursor(LocalDateTime.now(), UUID.randomUUID()).encode();
+
+        when(commentRepository.findOldestByRecipeIdAfter(eq(recipeId), any(), any(), any())).thenReturn(List.of());
+
+        CommentPage page = commentService.getComments(recipeId, since, null, 20);
+
+        assertThat(page.getComments()).isEmpty();
+        assertEquals(since, page.getLatestCursor());
+    }
+
+    @Test
+    void shouldRejectSinceAndBeforeTogether() {
+        String cursor = new KeysetCursor(LocalDateTime.now(), UUID.randomUUID()).encode();
+
+        assertThrows(InvalidCursorException.class, () -> commentService.getComments(recipeId, cursor, cursor, 20));
+        verifyNoInteractions(commentRepository);
     }
 
     @Test
@@ -149,14 +209,15 @@ class CommentServiceTest {
 
         boolean result = commentService.deleteComment(commentId, "JohnDoe");
 
-        ArgumentCaptor<ActivityLogEvent> eventCaptor = ArgumentCaptor.forClass(ActivityLogEvent.class);
+        ArgumentCaptor<Object> eventCaptor = ArgumentCaptor.forClass(Object.class);
 
         verify(commentRepository).delete(comment1);
 
-        Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(eventCaptor.capture());
+        Mockito.verify(eventPublisher, Mockito.times(2)).publishEvent(eventCaptor.capture());
 
-        ActivityLogEvent capturedEvent = eventCaptor.getValue();
-        String expectedAction = "You have successfully removed your comment [%s], from recipe: %s".formatted("Great recipe!", recipe.getTitle());
+        ActivityLogEvent capturedEvent = (ActivityLogEvent) eventCaptor.getAllValues().get(0);
+        assertEquals(CommentChangedEvent.deleted(recipeId, commentId), eventCaptor.getAllValues().get(1));
+        String expectedAction = "You have successfully removed your comment from recipe: " + recipe.getTitle();
 
         assertThat(result).isTrue();
         assertEquals(userId, capturedEvent.getUserId());
@@ -173,6 +234,17 @@ class CommentServiceTest {
         verify(commentRepository).delete(comment1);
 
         Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(Mockito.any(ActivityLogEvent.class));
+        Mockito.verify(eventPublisher).publishEvent(CommentChangedEvent.deleted(recipeId, commentId));
+    }
+
+    @Test
+    void shouldPublishDeletedEventWhenAdminDeletesComment() {
+        when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment1));
+
+        commentService.delete(commentId);
+
+        verify(commentRepository).delete(comment1);
+        verify(eventPublisher).publishEvent(CommentChangedEvent.deleted(recipeId, commentId));
     }
 
     @Test
@@ -186,25 +258,30 @@ class CommentServiceTest {
     }
 
     @Test
-    void shouldReturnAllCommentsForAdminPage() {
-        when(commentRepository.findAll()).thenReturn(List.of(comment1, comment2));
+    void shouldReturnAdminPageFilteredByAuthorPrefixOrContent() {
+        Page<CommentForAdminPage> page = new PageImpl<>(List.of(
+                new CommentForAdminPage(commentId, "JohnDoe", "Great recipe!", LocalDateTime.now())));
+        when(commentRepository.findAdminPage(any(), any(), any())).thenReturn(page);
 
-        List<Comment> result = commentService.getAll();
+        Page<CommentForAdminPage> result = commentService.getAllForAdmin("great", PageRequest.of(0, 20, Sort.by("author")));
 
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getContent()).isEqualTo(comment1.getContent());
-        assertThat(result.get(1).getContent()).isEqualTo(comment2.getContent());
-
-        verify(commentRepository).findAll();
+        assertThat(result.getContent()).extracting(CommentForAdminPage::getContent).containsExactly("Great recipe!");
+        verify(commentRepository).findAdminPage("great%", "%great%",
+                PageRequest.of(0, 20, Sort.by(Sort.Order.asc("u.username"), Sort.Order.asc("c.id"))));
     }
 
     @Test
-    void shouldReturnEmptyListWhenNoCommentsExist() {
-        when(commentRepository.findAll()).thenReturn(List.of());
+    void shouldNotFilterAdminPage_WhenFilterIsBlank() {
+        when(commentRepository.findAdminPage(any(), any(), any())).thenReturn(Page.empty());
 
-        List<Comment> result = commentService.getAll();
+        Page<CommentForAdminPage> result = commentService.getAllForAdmin("  ", PageRequest.of(0, 20));
 
         assertThat(result).isEmpty();
-        verify(commentRepository).findAll();
+        verify(commentRepository).findAdminPage(null, null,
+                PageRequest.of(0, 20, Sort.by(Sort.Order.desc("c.createdDate"), Sort.Order.desc("c.id"))));
+    }
+
+    private static CommentByRecipe commentByRecipe(String content, LocalDateTime createdDate) {
+        return new CommentByRecipe(UUID.randomUUID(), content, "JohnDoe", createdDate);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,140 @@
+package app.comment;
+
+import app.comment.event.CommentChangedEvent;
+import app.comment.service.CommentStreamHub;
+import app.exception.CommentStreamFullException;
+import app.web.dto.CommentByRecipe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommentStreamHubTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void onCommentChanged_ShouldSendEventsToSubscribersOfThatRecipeOnly() {
+        CommentStreamHub hub = hub(Runnable::run, 8, 10);
+        UUID recipeId = UUID.randomUUID();
+        RecordingEmitter subscriber = new RecordingEmitter();
+        RecordingEmitter otherRecipe = new RecordingEmitter();
+        hub.subscribe(recipeId, subscriber);
+        hub.subscribe(UUID.randomUUID(), otherRecipe);
+
+        CommentByRecipe comment = new CommentByRecipe(UUID.randomUUID(), "Tasty", "JohnDoe", LocalDateTime.now());
+        hub.onCommentChanged(CommentChangedEvent.added(recipeId, comment));
+        hub.onCommentChanged(CommentChangedEvent.deleted(recipeId, comment.getId()));
+
+        assertEquals(2, subscriber.sent.size());
+        assertTrue(subscriber.sent.get(0).contains("event:comment-added"));
+        assertTrue(subscriber.sent.get(0).contains("Tasty"));
+        assertTrue(subscriber.sent.get(1).contains("event:comment-deleted"));
+        assertTrue(otherRecipe.sent.isEmpty());
+    }
+
+    @Test
+    void onCommentChanged_ShouldEvictSubscriber_WhenItFallsAWholeBufferBehind() {
+        // Nothing is ever sent, as if the client stopped reading
+        List<Runnable> parked = new ArrayList<>();
+        CommentStreamHub hub = hub(parked::add, 2, 10);
+        UUID recipeId = UUID.randomUUID();
+        hub.subscribe(recipeId, new RecordingEmitter());
+
+        for (int i = 0; i < 3; i++) {
+            hub.onCommentChanged(CommentChangedEvent.deleted(recipeId, UUID.randomUUID()));
+        }
+
+        assertEquals(0, hub.getSubscriberCount());
+        assertEquals(1, meterRegistry.counter("comments.stream.evictions", "reason", "slow-consumer").count());
+    }
+
+    @Test
+    void heartbeat_ShouldDropSubscriber_WhenSendFails() {
+        CommentStreamHub hub = hub(Runnable::run, 8, 10);
+        hub.subscribe(UUID.randomUUID(), new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        });
+
+        hub.heartbeat();
+
+        assertEquals(0, hub.getSubscriberCount());
+        assertEquals(0, meterRegistry.get("comments.stream.subscribers").gauge().value());
+    }
+
+    @Test
+    void heartbeat_ShouldEvictSubscriber_WhenItsSendIsBlockedPastTheTimeout() throws InterruptedException {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CommentStreamHub hub = new CommentStreamHub(task -> new Thread(task).start(), meterRegistry, 8, 10, 60_000, 0);
+        UUID recipeId = UUID.randomUUID();
+
+        // A client that stopped reading: the write blocks until the test releases it
+        hub.subscribe(recipeId, new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                sending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        RecordingEmitter idle = new RecordingEmitter();
+        hub.subscribe(UUID.randomUUID(), idle);
+
+        hub.onCommentChanged(CommentChangedEvent.deleted(recipeId, UUID.randomUUID()));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        hub.heartbeat();
+        release.countDown();
+
+        assertEquals(1, hub.getSubscriberCount());
+        assertEquals(1, meterRegistry.counter("comments.stream.evictions", "reason", "stalled").count());
+    }
+
+    @Test
+    void subscribe_ShouldRejectSubscriber_WhenHubIsFull() {
+        CommentStreamHub hub = hub(Runnable::run, 8, 1);
+        hub.subscribe(UUID.randomUUID(), new RecordingEmitter());
+
+        assertThrows(CommentStreamFullException.class, () -> hub.subscribe(UUID.randomUUID(), new RecordingEmitter()));
+        assertEquals(1, hub.getSubscriberCount());
+    }
+
+    private CommentStreamHub hub(TaskExecutor sender, int bufferSize, int maxSubscribers) {
+        return new CommentStreamHub(sender, meterRegistry, bufferSize, maxSubscribers, 60_000, 60_000);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sent.add(builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining()));
+        }
+    }
+}
@@ -11,13 +11,18 @@ import app.recipe.model.Recipe;
 import app.recipe.repository.RecipeRepository;
 import app.user.model.User;
 import app.user.repository.UserRepository;
+import app.web.dto.CursorPage;
+import app.web.dto.FavoriteRecipe;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.UUID;
 
 import static app.TestBuilder.aRandomRecipeWithoutId;
 import static app.TestBuilder.aRandomWithoutId;
@@ -54,7 +59,7 @@ public class FavoriteServiceIT {
         wireMockServer = new WireMockServer(8081); // Same port as the real service
         wireMockServer.start();
 
-        wireMockServer.stubFor(post(urlEqualTo("/api/v1/activity-log"))
+        wireMockServer.stubFor(post(urlEqualTo("/api/v1/activity-log/batch"))
                 .willReturn(aResponse().withStatus(200))); // Mock successful response
 
         User user = aRandomWithoutId();
@@ -140,8 +145,36 @@ public class FavoriteServiceIT {
 
         favoriteRepository.save(favorite);
 
-        List<Recipe> userFavoriteRecipes = favoriteService.getUserFavoriteRecipes(savedUser.getId());
+        CursorPage<FavoriteRecipe> userFavoriteRecipes = favoriteService.getUserFavoriteRecipes(savedUser.getId(), null, 10);
 
-        assertEquals(1, userFavoriteRecipes.size());
+        assertEquals(1, userFavoriteRecipes.getContent().size());
+        assertEquals(savedRecipe.getId(), userFavoriteRecipes.getContent().get(0).getRecipeId());
+        assertEquals(savedRecipe.getTitle(), userFavoriteRecipes.getContent().get(0).getTitle());
+        assertFalse(userFavoriteRecipes.hasNext());
+    }
+
+    @Test
+    void testGetUserFavoriteRecipes_shouldPageNewestFirst() {
+        List<UUID> recipeIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Recipe recipe = aRandomRecipeWithoutId();
+            recipe.setCreatedBy(savedUser);
+            recipeIds.add(recipeRepository.save(recipe).getId());
+            favoriteService.addRecipeToFavorites(savedUser.getId(), recipeIds.get(i));
+        }
+
+        List<UUID> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<FavoriteRecipe> page = favoriteService.getUserFavoriteRecipes(savedUser.getId(), cursor, 2);
+            page.getContent().forEach(favorite -> listed.add(favorite.getRecipeId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Ties on the favorite date are broken by id, so only the set is guaranteed here
+        assertEquals(5, listed.size());
+        assertEquals(new HashSet<>(recipeIds), new HashSet<>(listed));
+
+        eventCaptureConfig.clearCapturedEvents();
     }
 }
@@ -7,9 +7,14 @@ import app.favorite.model.Favorite;
 import app.favorite.repository.FavoriteRepository;
 import app.favorite.service.FavoriteService;
 import app.recipe.model.Recipe;
+import app.recipe.model.RecipeSnapshot;
+import app.recipe.service.RecipeMembershipCache;
 import app.recipe.service.RecipeService;
 import app.user.model.User;
 import app.user.service.UserService;
+import app.web.dto.CursorPage;
+import app.web.dto.FavoriteRecipe;
+import app.web.dto.KeysetCursor;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,7 +23,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -39,6 +46,9 @@ public class FavoriteServiceTest {
     @Mock
     private RecipeService recipeService;
 
+    @Mock
+    private RecipeMembershipCache recipeMembershipCache;
+
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
@@ -75,7 +85,8 @@ public class FavoriteServiceTest {
     @Test
     void testAddRecipeToFavorites_ShouldAddFavorite() {
         when(userService.getUserById(userId)).thenReturn(user);
-        when(recipeService.getById(recipeId)).thenReturn(recipe);
+        when(recipeService.getSnapshot(recipeId)).thenReturn(new RecipeSnapshot(recipeId, recipe.getTitle(), UUID.randomUUID()));
+        when(recipeService.getReference(recipeId)).thenReturn(recipe);
         when(favoriteRepository.findByUserIdAndRecipeId(userId, recipeId)).thenReturn(Optional.empty());
 
         favoriteService.addRecipeToFavorites(userId, recipeId);
@@ -88,6 +99,7 @@ public class FavoriteServiceTest {
         assertEquals("You have successfully added recipe: " + recipe.getTitle() + " to your favorites", capturedEvent.getAction());
 
         verify(favoriteRepository, times(1)).save(any(Favorite.class));
+        verify(recipeMembershipCache, times(1)).setFavorite(userId, recipeId, true);
     }
 
     @Test
@@ -111,11 +123,12 @@ public class FavoriteServiceTest {
                 .build();
 
         when(favoriteRepository.findByUserIdAndRecipeId(userId, recipeId)).thenReturn(Optional.of(favorite));
-        when(recipeService.getById(recipeId)).thenReturn(recipe);
+        when(recipeService.getSnapshot(recipeId)).thenReturn(new RecipeSnapshot(recipeId, recipe.getTitle(), UUID.randomUUID()));
 
         favoriteService.removeRecipeFromFavorites(userId, recipeId);
 
         verify(favoriteRepository, times(1)).delete(favorite);
+        verify(recipeMembershipCache, times(1)).setFavorite(userId, recipeId, false);
 
         ArgumentCaptor<ActivityLogEvent> eventCaptor = ArgumentCaptor.forClass(ActivityLogEvent.class);
         verify(eventPublisher).publishEvent(eventCaptor.capture());
@@ -138,68 +151,37 @@ public class FavoriteServiceTest {
     }
 
     @Test
-    void testGetUserFavoriteRecipes_ShouldReturnFavorites() {
+    void testGetUserFavoriteRecipes_ShouldReturnFirstPageWithCursor() {
         UUID userId = user.getId();
+        LocalDateTime now = LocalDateTime.now();
+        FavoriteRecipe newest = favoriteRecipe("Recipe 1", now);
+        FavoriteRecipe older = favoriteRecipe("Recipe 2", now.minusMinutes(1));
+        FavoriteRecipe oldest = favoriteRecipe("Recipe 3", now.minusMinutes(2));
 
-        UUID recipeId1 = UUID.randomUUID();
-        UUID recipeId2 = UUID.randomUUID();
-
-        Favorite favorite1 = Favorite.builder()
-                .user(user)
-                .recipe(Recipe.builder()
-                        .id(recipeId1)
-                        .title("Recipe 1")
-                        .build())
-                .build();
-
-        Favorite favorite2 = Favorite.builder()
-                .user(user)
-                .recipe(Recipe.builder()
-                        .id(recipeId2)
-                        .title("Recipe 2")
-                        .build())
-                .build();
-
-        List<Favorite> favorites = List.of(favorite1, favorite2);
-        when(favoriteRepository.findAllByUser_Id(userId)).thenReturn(favorites);
-
-        List<Recipe> expectedRecipes = List.of(
-                Recipe.builder()
-                        .id(recipeId1)
-                        .title("Recipe 1")
-                        .build(),
-                Recipe.builder()
-                        .id(recipeId2)
-                        .title("Recipe 2")
-                        .build());
-
-        when(recipeService.getRecipesByIds(List.of(recipeId1, recipeId2))).thenReturn(expectedRecipes);
+        when(favoriteRepository.findNewestByUserId(userId, PageRequest.of(0, 3))).thenReturn(List.of(newest, older, oldest));
 
-        List<Recipe> result = favoriteService.getUserFavoriteRecipes(userId);
+        CursorPage<FavoriteRecipe> result = favoriteService.getUserFavoriteRecipes(userId, null, 2);
 
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals("Recipe 1", result.get(0).getTitle());
-        assertEquals("Recipe 2", result.get(1).getTitle());
+        assertEquals(List.of(newest, older), result.getContent());
+        assertEquals(new KeysetCursor(older.getFavoritedDate(), older.getFavoriteId()), KeysetCursor.decode(result.getNextCursor()));
     }
 
     @Test
-    void testIsFavorite_ShouldReturnTrue() {
-        UUID userId = UUID.randomUUID();
-        UUID recipeId = UUID.randomUUID();
+    void testGetUserFavoriteRecipes_ShouldContinueAfterCursor() {
+        UUID userId = user.getId();
+        FavoriteRecipe oldest = favoriteRecipe("Recipe 3", LocalDateTime.now().minusMinutes(2));
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.now().minusMinutes(1), UUID.randomUUID());
 
-        when(favoriteRepository.findByUserIdAndRecipeId(userId, recipeId)).thenReturn(Optional.of(new Favorite()));
+        when(favoriteRepository.findNewestByUserIdBefore(userId, cursor.getDate(), cursor.getId(), PageRequest.of(0, 3)))
+                .thenReturn(List.of(oldest));
 
-        assertTrue(favoriteService.isFavorite(userId, recipeId));
-    }
+        CursorPage<FavoriteRecipe> result = favoriteService.getUserFavoriteRecipes(userId, cursor.encode(), 2);
 
-    @Test
-    void testIsFavorite_ShouldReturnFalse() {
-        UUID userId = UUID.randomUUID();
-        UUID recipeId = UUID.randomUUID();
-
-        when(favoriteRepository.findByUserIdAndRecipeId(userId, recipeId)).thenReturn(Optional.empty());
+        assertEquals(List.of(oldest), result.getContent());
+        assertFalse(result.hasNext());
+    }
 
-        assertFalse(favoriteService.isFavorite(userId, recipeId));
+    private static FavoriteRecipe favoriteRecipe(String title, LocalDateTime favoritedDate) {
+        return new FavoriteRecipe(UUID.randomUUID(), favoritedDate, UUID.randomUUID(), title, "description", 20, 4, "image");
     }
 }
@@ -0,0 +1,87 @@
+package app.like;
+
+import app.like.service.LikeCounter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LikeCounterTest {
+
+    private final LikeCounter likeCounter = new LikeCounter();
+
+    @Test
+    void drain_shouldReturnDeltasAndResetThem() {
+        UUID recipeId = UUID.randomUUID();
+
+        likeCounter.increment(recipeId);
+        likeCounter.increment(recipeId);
+
+        assertEquals(2, likeCounter.pending(recipeId));
+        assertEquals(Map.of(recipeId, 2L), likeCounter.drain());
+        assertEquals(0, likeCounter.pending(recipeId));
+        assertTrue(likeCounter.drain().isEmpty());
+    }
+
+    @Test
+    void restore_shouldKeepDeltasForNextDrain() {
+        UUID recipeId = UUID.randomUUID();
+
+        likeCounter.increment(recipeId);
+        Map<UUID, Long> deltas = likeCounter.drain();
+        likeCounter.increment(recipeId);
+
+        likeCounter.restore(deltas);
+
+        assertEquals(Map.of(recipeId, 2L), likeCounter.drain());
+    }
+
+    @Test
+    void increment_shouldNotLoseUpdates_whenCalledConcurrently() throws InterruptedException {
+        UUID recipeId = UUID.randomUUID();
+        Thread[] threads = new Thread[8];
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    likeCounter.increment(recipeId);
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(Map.of(recipeId, 8000L), likeCounter.drain());
+    }
+
+    @Test
+    void drain_shouldNotLoseUpdates_whenCalledConcurrentlyWithIncrements() throws InterruptedException {
+        UUID recipeId = UUID.randomUUID();
+        Thread[] threads = new Thread[8];
+        long drained = 0;
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    likeCounter.increment(recipeId);
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                drained += likeCounter.drain().getOrDefault(recipeId, 0L);
+            }
+        }
+
+        drained += likeCounter.drain().getOrDefault(recipeId, 0L);
+
+        assertEquals(80_000L, drained);
+    }
+}
@@ -2,22 +2,24 @@ package app.like;
 
 import app.activitylog.event.ActivityLogEvent;
 import app.config.EventCaptureConfig;
-import app.exception.RecipeAlreadyLikedException;
 import app.exception.UserCannotLikeOwnRecipeException;
 import app.like.model.Like;
 import app.like.repository.LikeRepository;
 import app.like.service.LikeService;
 import app.recipe.model.Recipe;
 import app.recipe.repository.RecipeRepository;
+import app.recipe.service.RecipeMembershipCache;
 import app.user.model.User;
 import app.user.repository.UserRepository;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
+import java.util.UUID;
 
 import static app.TestBuilder.aRandomRecipeWithoutId;
 import static app.TestBuilder.aRandomWithoutId;
@@ -41,6 +43,9 @@ public class LikeServiceIT {
     @Autowired
     private RecipeRepository recipeRepository;
 
+    @Autowired
+    private RecipeMembershipCache recipeMembershipCache;
+
     @Autowired
     private EventCaptureConfig eventCaptureConfig; // Captures the events.The @EventListener inside EventCaptureConfig will catch events published by the service in a real database-backed test
 
@@ -51,7 +56,7 @@ public class LikeServiceIT {
         wireMockServer = new WireMockServer(8081); // Same port as the real service
         wireMockServer.start();
 
-        wireMockServer.stubFor(post(urlEqualTo("/api/v1/activity-log"))
+        wireMockServer.stubFor(post(urlEqualTo("/api/v1/activity-log/batch"))
                 .willReturn(aResponse().withStatus(200))); // Mock successful response
     }
 
@@ -126,6 +131,51 @@ public class LikeServiceIT {
 
         likeRepository.save(like);
 
-        assertThrows(RecipeAlreadyLikedException.class, () -> likeService.like(likeCreator.getId(), savedRecipe.getId()));
+        assertFalse(likeService.like(likeCreator.getId(), savedRecipe.getId()));
+        assertEquals(1, likeRepository.count());
+    }
+
+    @Test
+    void testLike_shouldFail_whenUserDoesNotExist() {
+        User recipeCreator = aRandomWithoutId();
+        Recipe recipe = aRandomRecipeWithoutId();
+        recipe.setCreatedBy(recipeCreator);
+
+        userRepository.save(recipeCreator);
+        Recipe savedRecipe = recipeRepository.save(recipe);
+
+        assertThrows(DataIntegrityViolationException.class, () -> likeService.like(UUID.randomUUID(), savedRecipe.getId()));
+        assertEquals(0, likeRepository.count());
+    }
+
+    @Test
+    void testUnlike_shouldRemoveLike_andLikeAgainAfterwards() {
+        User recipeCreator = aRandomWithoutId();
+        User likeCreator = aRandomWithoutId();
+        likeCreator.setUsername("likeCreator");
+        likeCreator.setEmail("likeCreator@gmail.com");
+        Recipe recipe = aRandomRecipeWithoutId();
+        recipe.setCreatedBy(recipeCreator);
+
+        userRepository.save(recipeCreator);
+        User likerUser = userRepository.save(likeCreator);
+
+        Recipe savedRecipe = recipeRepository.save(recipe);
+
+        assertTrue(likeService.like(likerUser.getId(), savedRecipe.getId()));
+        assertEquals(1, likeRepository.count());
+
+        assertTrue(likeService.unlike(likerUser.getId(), savedRecipe.getId()));
+        assertEquals(0, likeRepository.count());
+        assertFalse(likeService.unlike(likerUser.getId(), savedRecipe.getId()));
+
+        assertTrue(likeService.toggle(likerUser.getId(), savedRecipe.getId()));
+        assertEquals(1, likeRepository.count());
+        assertTrue(recipeMembershipCache.get(likerUser.getId()).isLiked(savedRecipe.getId()));
+
+        likeService.unlike(likerUser.getId(), savedRecipe.getId());
+        assertFalse(recipeMembershipCache.get(likerUser.getId()).isLiked(savedRecipe.getId()));
+
+        eventCaptureConfig.clearCapturedEvents();
     }
 }
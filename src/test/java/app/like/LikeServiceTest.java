@@ -1,15 +1,16 @@
 package app.like;
 
 import app.activitylog.event.ActivityLogEvent;
-import app.exception.RecipeAlreadyLikedException;
 import app.exception.UserCannotLikeOwnRecipeException;
-import app.like.model.Like;
 import app.like.repository.LikeRepository;
+import app.like.service.LikeCounter;
 import app.like.service.LikeService;
 import app.recipe.model.Recipe;
+import app.recipe.model.RecipeSnapshot;
+import app.recipe.service.RecipeMembershipCache;
 import app.recipe.service.RecipeService;
 import app.user.model.User;
-import app.user.service.UserService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,10 +22,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,10 +38,13 @@ class LikeServiceTest {
     private LikeRepository likeRepository;
 
     @Mock
-    private UserService userService;
+    private RecipeService recipeService;
 
     @Mock
-    private RecipeService recipeService;
+    private LikeCounter likeCounter;
+
+    @Mock
+    private RecipeMembershipCache recipeMembershipCache;
 
     @Mock
     private ApplicationEventPublisher eventPublisher;
@@ -60,6 +67,7 @@ class LikeServiceTest {
 
         recipe = new Recipe();
         recipe.setId(recipeId);
+        recipe.setTitle("Pancakes");
         User recipeCreator = new User();
         recipeCreator.setId(UUID.randomUUID()); // Different user
         recipe.setCreatedBy(recipeCreator);
@@ -67,17 +75,16 @@ class LikeServiceTest {
 
     @Test
     void shouldLikeRecipeSuccessfully() {
-        when(userService.getUserById(userId)).thenReturn(user);
-        when(recipeService.getById(recipeId)).thenReturn(recipe);
-        when(likeRepository.save(any(Like.class))).thenReturn(new Like());
+        when(recipeService.getSnapshot(recipeId)).thenReturn(snapshotOf(recipe));
+        when(likeRepository.insertIfAbsent(any(UUID.class), eq(userId), eq(recipeId), any(LocalDateTime.class))).thenReturn(1);
 
         ArgumentCaptor<ActivityLogEvent> eventCaptor = ArgumentCaptor.forClass(ActivityLogEvent.class);
 
-        likeService.like(userId, recipeId);
+        assertTrue(likeService.like(userId, recipeId));
 
-        verify(userService).getUserById(userId);
-        verify(recipeService).getById(recipeId);
-        verify(likeRepository).save(any(Like.class));
+        verify(recipeService).getSnapshot(recipeId);
+        verify(likeCounter).increment(recipeId);
+        verify(recipeMembershipCache).setLiked(userId, recipeId, true);
 
         Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(eventCaptor.capture());
 
@@ -92,40 +99,97 @@ class LikeServiceTest {
     void shouldThrowExceptionWhenUserLikesOwnRecipe() {
         recipe.setCreatedBy(user);
 
-        when(userService.getUserById(userId)).thenReturn(user);
-        when(recipeService.getById(recipeId)).thenReturn(recipe);
+        when(recipeService.getSnapshot(recipeId)).thenReturn(snapshotOf(recipe));
 
         assertThrows(UserCannotLikeOwnRecipeException.class, () -> likeService.like(userId, recipeId));
 
-        verify(likeRepository, never()).save(any(Like.class));
+        verifyNoInteractions(likeRepository);
+    }
+
+    @Test
+    void shouldDoNothingWhenRecipeAlreadyLiked() {
+        when(recipeService.getSnapshot(recipeId)).thenReturn(snapshotOf(recipe));
+        when(likeRepository.insertIfAbsent(any(UUID.class), eq(userId), eq(recipeId), any(LocalDateTime.class))).thenReturn(0);
+
+        assertFalse(likeService.like(userId, recipeId));
+
+        verifyNoInteractions(likeCounter, recipeMembershipCache, eventPublisher);
+    }
+
+    @Test
+    void shouldDoNothingWhenConcurrentLikeWinsTheRace() {
+        when(recipeService.getSnapshot(recipeId)).thenReturn(snapshotOf(recipe));
+        when(likeRepository.insertIfAbsent(any(UUID.class), eq(userId), eq(recipeId), any(LocalDateTime.class)))
+                .thenThrow(integrityViolation(ConstraintViolationException.ConstraintKind.UNIQUE));
+
+        assertFalse(likeService.like(userId, recipeId));
+
+        verifyNoInteractions(likeCounter, eventPublisher);
+    }
+
+    @Test
+    void shouldRethrowWhenLikeViolatesAnotherConstraint() {
+        DataIntegrityViolationException violation = integrityViolation(ConstraintViolationException.ConstraintKind.OTHER);
+
+        when(recipeService.getSnapshot(recipeId)).thenReturn(snapshotOf(recipe));
+        when(likeRepository.insertIfAbsent(any(UUID.class), eq(userId), eq(recipeId), any(LocalDateTime.class)))
+                .thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class, () -> likeService.like(userId, recipeId)));
+
+        verifyNoInteractions(likeCounter, recipeMembershipCache, eventPublisher);
     }
 
     @Test
-    void shouldThrowExceptionWhenRecipeAlreadyLiked() {
-        when(userService.getUserById(userId)).thenReturn(user);
-        when(recipeService.getById(recipeId)).thenReturn(recipe);
-        doThrow(new DataIntegrityViolationException("Unique constraint violated")).when(likeRepository).save(any(Like.class));
+    void shouldUnlikeRecipeAndDecrementCount() {
+        when(recipeService.getSnapshot(recipeId)).thenReturn(snapshotOf(recipe));
+        when(likeRepository.deleteByUserIdAndRecipeId(userId, recipeId)).thenReturn(1);
+
+        assertTrue(likeService.unlike(userId, recipeId));
 
-        assertThrows(RecipeAlreadyLikedException.class, () -> likeService.like(userId, recipeId));
+        verify(likeCounter).decrement(recipeId);
+        verify(recipeMembershipCache).setLiked(userId, recipeId, false);
+        verify(eventPublisher).publishEvent(any(ActivityLogEvent.class));
     }
 
     @Test
-    void shouldReturnTrueWhenUserHasLikedRecipe() {
-        when(likeRepository.existsByUser_IdAndRecipe_Id(userId, recipeId)).thenReturn(true);
+    void shouldDoNothingWhenUnlikingRecipeThatIsNotLiked() {
+        when(recipeService.getSnapshot(recipeId)).thenReturn(snapshotOf(recipe));
+        when(likeRepository.deleteByUserIdAndRecipeId(userId, recipeId)).thenReturn(0);
 
-        boolean result = likeService.userHasLikedRecipe(userId, recipeId);
+        assertFalse(likeService.unlike(userId, recipeId));
 
-        assertTrue(result);
-        verify(likeRepository).existsByUser_IdAndRecipe_Id(userId, recipeId);
+        verifyNoInteractions(likeCounter, eventPublisher);
     }
 
     @Test
-    void shouldReturnFalseWhenUserHasNotLikedRecipe() {
-        when(likeRepository.existsByUser_IdAndRecipe_Id(userId, recipeId)).thenReturn(false);
+    void toggle_ShouldLikeRecipe_WhenItIsNotLiked() {
+        when(recipeService.getSnapshot(recipeId)).thenReturn(snapshotOf(recipe));
+        when(likeRepository.deleteByUserIdAndRecipeId(userId, recipeId)).thenReturn(0);
+        when(likeRepository.insertIfAbsent(any(UUID.class), eq(userId), eq(recipeId), any(LocalDateTime.class))).thenReturn(1);
 
-        boolean result = likeService.userHasLikedRecipe(userId, recipeId);
+        assertTrue(likeService.toggle(userId, recipeId));
+
+        verify(likeCounter).increment(recipeId);
+    }
+
+    @Test
+    void toggle_ShouldUnlikeRecipe_WhenItIsLiked() {
+        when(recipeService.getSnapshot(recipeId)).thenReturn(snapshotOf(recipe));
+        when(likeRepository.deleteByUserIdAndRecipeId(userId, recipeId)).thenReturn(1);
+
+        assertFalse(likeService.toggle(userId, recipeId));
+
+        verify(likeRepository, never()).insertIfAbsent(any(), any(), any(), any());
+        verify(likeCounter).decrement(recipeId);
+    }
+
+    private static DataIntegrityViolationException integrityViolation(ConstraintViolationException.ConstraintKind kind) {
+        return new DataIntegrityViolationException("Constraint violated",
+                new ConstraintViolationException("Constraint violated", new SQLException(), "insert into likes", kind, null));
+    }
 
-        assertFalse(result);
-        verify(likeRepository).existsByUser_IdAndRecipe_Id(userId, recipeId);
+    private static RecipeSnapshot snapshotOf(Recipe recipe) {
+        return new RecipeSnapshot(recipe.getId(), recipe.getTitle(), recipe.getCreatedBy().getId());
     }
-}
\ No newline at end of file
+}
@@ -2,9 +2,7 @@ package app.mapper;
 
 import app.category.model.Category;
 import app.category.model.CategoryName;
-import app.comment.model.Comment;
 import app.recipe.model.Recipe;
-import app.user.model.Role;
 import app.user.model.User;
 import app.web.dto.*;
 import org.junit.jupiter.api.Test;
@@ -42,28 +40,6 @@ class DtoMapperTest {
         assertEquals(user.getIsActive(), profileInfo.getIsActive());
     }
 
-    @Test
-    void mapUserToUserWithRole_ShouldMapCorrectly() {
-        User user = User.builder()
-                .id(UUID.randomUUID())
-                .username("testUser")
-                .email("test@example.com")
-                .profilePicture("profile.jpg")
-                .dateRegistered(LocalDateTime.now())
-                .dateUpdated(LocalDateTime.now())
-                .isActive(true)
-                .role(Role.USER)
-                .build();
-
-        UserWithRole userWithRole = DtoMapper.mapUserToUserWithRole(user);
-
-        assertNotNull(userWithRole);
-        assertEquals(user.getId(), userWithRole.getId());
-        assertEquals(user.getUsername(), userWithRole.getUsername());
-        assertEquals(user.getEmail(), userWithRole.getEmail());
-        assertEquals(user.getRole(), userWithRole.getRole());
-    }
-
     @Test
     void mapRecipeToRecipeShortInfo_ShouldMapCorrectly() {
         Recipe recipe = Recipe.builder()
@@ -88,32 +64,19 @@ class DtoMapperTest {
     }
 
     @Test
-    void mapCommentToCommentByRecipe_ShouldMapCorrectly() {
-        User user = User.builder()
-                .id(UUID.randomUUID())
-                .username("testUser")
-                .email("test@example.com")
-                .profilePicture("profile.jpg")
-                .dateRegistered(LocalDateTime.now())
-                .dateUpdated(LocalDateTime.now())
-                .isActive(true)
-                .role(Role.USER)
-                .build();
-
-        Comment comment = Comment.builder()
+    void mapRecipeToRecipeShortInfo_ShouldUseCardRendition_forCloudinaryImages() {
+        Recipe recipe = Recipe.builder()
                 .id(UUID.randomUUID())
-                .content("Nice recipe!")
-                .creator(user)
-                .createdDate(LocalDateTime.now())
+                .title("title")
+                .image("https://res.cloudinary.com/demo/image/upload/v1712/sample.jpg")
+                .cookTime(30)
+                .servings(2)
                 .build();
 
-        CommentByRecipe commentByRecipe = DtoMapper.mapCommentToCommentByRecipe(comment);
+        RecipeShortInfo shortInfo = DtoMapper.mapRecipeToRecipeShortInfo(recipe);
 
-        assertNotNull(commentByRecipe);
-        assertEquals(comment.getId(), commentByRecipe.getId());
-        assertEquals(comment.getContent(), commentByRecipe.getContent());
-        assertEquals(comment.getCreator().getUsername(), commentByRecipe.getCreatedBy());
-        assertEquals(comment.getCreatedDate(), commentByRecipe.getCreatedDate());
+        assertEquals("https://res.cloudinary.com/demo/image/upload/c_fill,g_auto,w_600,h_400,q_auto,f_auto/v1712/sample.jpg",
+                shortInfo.getImage());
     }
 
     @Test
@@ -0,0 +1,185 @@
+package app.moderation;
+
+import app.comment.model.Comment;
+import app.comment.repository.CommentRepository;
+import app.config.EventCaptureConfig;
+import app.favorite.model.Favorite;
+import app.favorite.repository.FavoriteRepository;
+import app.like.model.Like;
+import app.like.repository.LikeRepository;
+import app.moderation.service.ModerationService;
+import app.recipe.model.Recipe;
+import app.recipe.repository.RecipeRepository;
+import app.user.model.User;
+import app.user.repository.UserRepository;
+import app.web.dto.PurgeSummary;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static app.TestBuilder.aRandomRecipeWithoutId;
+import static app.TestBuilder.aRandomWithoutId;
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// A tiny batch size, so every operation has to run several batches
+@SpringBootTest(classes = EventCaptureConfig.class, properties = "moderation.batch-size=2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ActiveProfiles("test")
+public class ModerationServiceIT {
+
+    @Autowired
+    private ModerationService moderationService;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private WireMockServer wireMockServer;
+
+    private User spammer;
+    private User member;
+
+    @BeforeAll
+    void startWireMock() {
+        wireMockServer = new WireMockServer(8081); // Same port as the real service
+        wireMockServer.start();
+
+        wireMockServer.stubFor(post(urlEqualTo("/api/v1/activity-log/batch"))
+                .willReturn(aResponse().withStatus(200)));
+        wireMockServer.stubFor(delete(urlPathEqualTo("/api/v1/activity-log"))
+                .willReturn(aResponse().withStatus(200).withBody("Activity log cleared")));
+    }
+
+    @BeforeEach
+    void setUp() {
+        spammer = userRepository.save(aUser("spammer"));
+        member = userRepository.save(aUser("member"));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        commentRepository.deleteAll();
+        likeRepository.deleteAll();
+        favoriteRepository.deleteAll();
+        recipeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @AfterAll
+    void stopWireMock() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void testDeleteComments_shouldDeleteOnlyTheGivenComments() {
+        Recipe recipe = recipeRepository.save(aRecipe(member));
+        List<Comment> comments = IntStream.range(0, 5)
+                .mapToObj(i -> commentRepository.save(aComment(spammer, recipe)))
+                .toList();
+
+        int deleted = moderationService.deleteComments(List.of(
+                comments.get(0).getId(), comments.get(1).getId(), comments.get(2).getId(), UUID.randomUUID()));
+
+        assertEquals(3, deleted);
+        assertEquals(List.of(comments.get(3).getId(), comments.get(4).getId()).stream().sorted().toList(),
+                commentRepository.findAll().stream().map(Comment::getId).sorted().toList());
+    }
+
+    @Test
+    void testDeleteCommentsByAuthor_shouldKeepOtherAuthorsComments() {
+        Recipe recipe = recipeRepository.save(aRecipe(member));
+        IntStream.range(0, 5).forEach(i -> commentRepository.save(aComment(spammer, recipe)));
+        Comment kept = commentRepository.save(aComment(member, recipe));
+
+        int deleted = moderationService.deleteCommentsByAuthor(spammer.getId());
+
+        assertEquals(5, deleted);
+        assertEquals(List.of(kept.getId()), commentRepository.findAll().stream().map(Comment::getId).toList());
+    }
+
+    @Test
+    void testDeactivateUsers_shouldCountOnlyUsersThatWereActive() {
+        User inactive = aUser("inactive");
+        inactive.setIsActive(false);
+        inactive = userRepository.save(inactive);
+
+        int deactivated = moderationService.deactivateUsers(List.of(spammer.getId(), member.getId(), inactive.getId()));
+
+        assertEquals(2, deactivated);
+        assertTrue(userRepository.findAll().stream().noneMatch(User::getIsActive));
+    }
+
+    @Test
+    void testPurgeUserContent_shouldDeleteTheUsersContentAndEverythingAttachedToIt() {
+        Recipe memberRecipe = recipeRepository.save(aRecipe(member));
+        List<Recipe> spamRecipes = IntStream.range(0, 3)
+                .mapToObj(i -> recipeRepository.save(aRecipe(spammer)))
+                .toList();
+
+        // The spammer's own activity
+        commentRepository.save(aComment(spammer, memberRecipe));
+        likeRepository.save(Like.builder().user(spammer).recipe(memberRecipe).likedDate(LocalDateTime.now()).build());
+        favoriteRepository.save(Favorite.builder().user(spammer).recipe(memberRecipe).build());
+
+        // Other users' activity on the spam recipes goes with them
+        Comment kept = commentRepository.save(aComment(member, memberRecipe));
+        spamRecipes.forEach(recipe -> {
+            commentRepository.save(aComment(member, recipe));
+            likeRepository.save(Like.builder().user(member).recipe(recipe).likedDate(LocalDateTime.now()).build());
+            favoriteRepository.save(Favorite.builder().user(member).recipe(recipe).build());
+        });
+
+        PurgeSummary purged = moderationService.purgeUserContent(spammer.getId());
+
+        assertEquals(new PurgeSummary(3, 1, 1, 1), purged);
+        assertEquals(List.of(memberRecipe.getId()), recipeRepository.findAll().stream().map(Recipe::getId).toList());
+        assertEquals(List.of(kept.getId()), commentRepository.findAll().stream().map(Comment::getId).toList());
+        assertEquals(0, likeRepository.count());
+        assertEquals(0, favoriteRepository.count());
+        assertFalse(userRepository.findById(spammer.getId()).orElseThrow().getIsActive());
+        assertTrue(userRepository.findById(member.getId()).orElseThrow().getIsActive());
+        wireMockServer.verify(deleteRequestedFor(urlPathEqualTo("/api/v1/activity-log"))
+                .withQueryParam("userId", equalTo(spammer.getId().toString())));
+    }
+
+    private static User aUser(String username) {
+        User user = aRandomWithoutId();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+
+    private static Recipe aRecipe(User creator) {
+        Recipe recipe = aRandomRecipeWithoutId();
+        recipe.setCreatedBy(creator);
+        return recipe;
+    }
+
+    private static Comment aComment(User creator, Recipe recipe) {
+        return Comment.builder()
+                .content("Visit my site")
+                .creator(creator)
+                .recipe(recipe)
+                .createdDate(LocalDateTime.now())
+                .build();
+    }
+}
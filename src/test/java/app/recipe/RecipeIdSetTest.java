@@ -0,0 +1,62 @@
+package app.recipe;
+
+import app.recipe.model.RecipeIdSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeIdSetTest {
+
+    @Test
+    void of_ShouldContainEveryIdOnce() {
+        List<UUID> ids = IntStream.range(0, 100).mapToObj(i -> UUID.randomUUID()).toList();
+        List<UUID> withDuplicates = new ArrayList<>(ids);
+        withDuplicates.addAll(ids.subList(0, 10));
+
+        RecipeIdSet set = RecipeIdSet.of(withDuplicates);
+
+        assertEquals(100, set.size());
+        ids.forEach(id -> assertTrue(set.contains(id)));
+        assertFalse(set.contains(UUID.randomUUID()));
+    }
+
+    @Test
+    void with_ShouldAddIdWithoutChangingOriginal() {
+        UUID first = new UUID(-1, 5);
+        UUID second = new UUID(1, 5);
+        RecipeIdSet set = RecipeIdSet.of(List.of(second));
+
+        RecipeIdSet added = set.with(first);
+
+        assertTrue(added.contains(first));
+        assertTrue(added.contains(second));
+        assertFalse(set.contains(first));
+        assertSame(added, added.with(first));
+    }
+
+    @Test
+    void without_ShouldRemoveOnlyThatId() {
+        UUID removed = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        RecipeIdSet set = RecipeIdSet.of(List.of(removed, kept));
+
+        RecipeIdSet result = set.without(removed);
+
+        assertEquals(1, result.size());
+        assertFalse(result.contains(removed));
+        assertTrue(result.contains(kept));
+        assertSame(result, result.without(removed));
+    }
+
+    @Test
+    void empty_ShouldContainNothing() {
+        assertEquals(0, RecipeIdSet.EMPTY.size());
+        assertFalse(RecipeIdSet.EMPTY.contains(UUID.randomUUID()));
+        assertEquals(1, RecipeIdSet.EMPTY.with(UUID.randomUUID()).size());
+    }
+}
@@ -0,0 +1,152 @@
+package app.recipe;
+
+import app.cloudinary.dto.ImageUploadResult;
+import app.cloudinary.service.CloudinaryService;
+import app.exception.ImageUploadException;
+import app.recipe.event.RecipeImageStagedEvent;
+import app.recipe.repository.PendingImageUpload;
+import app.recipe.service.RecipeImageUploader;
+import app.recipe.service.RecipeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeImageUploaderTest {
+
+    @Mock
+    private CloudinaryService cloudinaryService;
+
+    @Mock
+    private RecipeService recipeService;
+
+    private RecipeImageUploader recipeImageUploader;
+
+    private UUID recipeId;
+    private Path stagedImage;
+    private ImageUploadResult uploadResult;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Run uploads on the calling thread without waiting between retries
+        recipeImageUploader = new RecipeImageUploader(cloudinaryService, recipeService, Runnable::run, 3, 0);
+
+        recipeId = UUID.randomUUID();
+        stagedImage = Files.createTempFile("recipe-image-", ".upload");
+        uploadResult = new ImageUploadResult("image-url", "public-id");
+    }
+
+    @Test
+    void onImageStaged_shouldApplyUploadedImage() {
+        when(cloudinaryService.uploadImage(stagedImage)).thenReturn(uploadResult);
+        when(recipeService.completeImageUpload(recipeId, stagedImage, uploadResult)).thenReturn(true);
+
+        recipeImageUploader.onImageStaged(new RecipeImageStagedEvent(recipeId, stagedImage));
+
+        verify(recipeService, times(1)).completeImageUpload(recipeId, stagedImage, uploadResult);
+        verify(cloudinaryService, never()).deleteImage(any());
+        assertFalse(Files.exists(stagedImage));
+    }
+
+    @Test
+    void onImageStaged_shouldRetryFailedUploads() {
+        when(cloudinaryService.uploadImage(stagedImage))
+                .thenThrow(new ImageUploadException("Failed to upload image to Cloudinary"))
+                .thenReturn(uploadResult);
+        when(recipeService.completeImageUpload(recipeId, stagedImage, uploadResult)).thenReturn(true);
+
+        recipeImageUploader.onImageStaged(new RecipeImageStagedEvent(recipeId, stagedImage));
+
+        verify(cloudinaryService, times(2)).uploadImage(stagedImage);
+        verify(recipeService, times(1)).completeImageUpload(recipeId, stagedImage, uploadResult);
+    }
+
+    @Test
+    void onImageStaged_shouldMarkRecipe_whenAllAttemptsFail() {
+        when(cloudinaryService.uploadImage(stagedImage)).thenThrow(new ImageUploadException("Failed to upload image to Cloudinary"));
+
+        recipeImageUploader.onImageStaged(new RecipeImageStagedEvent(recipeId, stagedImage));
+
+        verify(cloudinaryService, times(3)).uploadImage(stagedImage);
+        verify(recipeService, times(1)).markImageUploadFailed(recipeId, stagedImage);
+        verify(recipeService, never()).completeImageUpload(any(), any(), any());
+        assertFalse(Files.exists(stagedImage));
+    }
+
+    @Test
+    void onImageStaged_shouldDeleteUpload_whenRecipeWasDeleted() {
+        when(cloudinaryService.uploadImage(stagedImage)).thenReturn(uploadResult);
+        when(recipeService.completeImageUpload(recipeId, stagedImage, uploadResult)).thenReturn(false);
+
+        recipeImageUploader.onImageStaged(new RecipeImageStagedEvent(recipeId, stagedImage));
+
+        verify(cloudinaryService, times(1)).deleteImage("public-id");
+    }
+
+    @Test
+    void onImageStaged_shouldDeferUpload_whenExecutorIsSaturated() {
+        AtomicBoolean saturated = new AtomicBoolean(true);
+        recipeImageUploader = new RecipeImageUploader(cloudinaryService, recipeService, task -> {
+            if (saturated.get()) {
+                throw new TaskRejectedException("Upload queue is full");
+            }
+            task.run();
+        }, 3, 0);
+
+        recipeImageUploader.onImageStaged(new RecipeImageStagedEvent(recipeId, stagedImage));
+
+        // Nothing runs on the caller's thread and the staged image is kept for the recovery run
+        verifyNoInteractions(cloudinaryService);
+        assertTrue(Files.exists(stagedImage));
+
+        saturated.set(false);
+        when(recipeService.getPendingImageUploads()).thenReturn(List.of(pending(recipeId, stagedImage)));
+        when(cloudinaryService.uploadImage(stagedImage)).thenReturn(uploadResult);
+        when(recipeService.completeImageUpload(recipeId, stagedImage, uploadResult)).thenReturn(true);
+
+        recipeImageUploader.resumePendingUploads();
+
+        verify(recipeService, times(1)).completeImageUpload(recipeId, stagedImage, uploadResult);
+        assertFalse(Files.exists(stagedImage));
+    }
+
+    @Test
+    void resumePendingUploads_shouldMarkUploadFailed_whenStagedImageIsGone() throws IOException {
+        Files.delete(stagedImage);
+        when(recipeService.getPendingImageUploads()).thenReturn(List.of(pending(recipeId, stagedImage)));
+
+        recipeImageUploader.resumePendingUploads();
+
+        verify(recipeService, times(1)).markImageUploadFailed(recipeId, stagedImage);
+        verifyNoInteractions(cloudinaryService);
+    }
+
+    private static PendingImageUpload pending(UUID recipeId, Path stagedImage) {
+        return new PendingImageUpload() {
+            @Override
+            public UUID getId() {
+                return recipeId;
+            }
+
+            @Override
+            public String getStagedImage() {
+                return stagedImage.toString();
+            }
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package app.recipe;
+
+import app.recipe.repository.RecipeIngredient;
+import app.recipe.repository.RecipeRepository;
+import app.recipe.repository.SearchableRecipe;
+import app.recipe.search.RecipeSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeSearchIndexTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @InjectMocks
+    private RecipeSearchIndex recipeSearchIndex;
+
+    private UUID pastaId;
+    private UUID saladId;
+    private UUID soupId;
+
+    @BeforeEach
+    void setUp() {
+        pastaId = UUID.randomUUID();
+        saladId = UUID.randomUUID();
+        soupId = UUID.randomUUID();
+
+        recipeSearchIndex.index(pastaId, "Creamy Pasta", "Pasta with a creamy garlic sauce", List.of("pasta", "cream", "garlic"));
+        recipeSearchIndex.index(saladId, "Greek Salad", "Fresh salad with feta", List.of("tomato", "cucumber", "feta"));
+        recipeSearchIndex.index(soupId, "Tomato Soup", "Warm soup, great with pasta on the side", List.of("tomato", "onion"));
+    }
+
+    @Test
+    void search_shouldRankTitleMatchesFirst() {
+        Page<UUID> result = recipeSearchIndex.search("pasta", PageRequest.of(0, 10));
+
+        assertEquals(2, result.getTotalElements());
+        assertEquals(List.of(pastaId, soupId), result.getContent());
+    }
+
+    @Test
+    void search_shouldMatchIngredients() {
+        Page<UUID> result = recipeSearchIndex.search("cucumber", PageRequest.of(0, 10));
+
+        assertEquals(List.of(saladId), result.getContent());
+    }
+
+    @Test
+    void search_shouldExpandLastTokenAsPrefix() {
+        Page<UUID> result = recipeSearchIndex.search("Tom", PageRequest.of(0, 10));
+
+        assertEquals(2, result.getTotalElements());
+        assertTrue(result.getContent().containsAll(List.of(saladId, soupId)));
+    }
+
+    @Test
+    void search_shouldPageResults() {
+        Pageable firstPage = PageRequest.of(0, 1);
+        Pageable secondPage = PageRequest.of(1, 1);
+
+        Page<UUID> first = recipeSearchIndex.search("tomato", firstPage);
+        Page<UUID> second = recipeSearchIndex.search("tomato", secondPage);
+
+        assertEquals(2, first.getTotalElements());
+        assertEquals(1, first.getContent().size());
+        assertEquals(1, second.getContent().size());
+        assertNotEquals(first.getContent().get(0), second.getContent().get(0));
+    }
+
+    @Test
+    void search_shouldReturnEmptyPage_whenOnlyStopWordsAreGiven() {
+        Page<UUID> result = recipeSearchIndex.search("the and", PageRequest.of(0, 10));
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void index_shouldReplacePreviousTerms_whenRecipeIsUpdated() {
+        recipeSearchIndex.index(pastaId, "Mushroom Risotto", "Rice cooked slowly", List.of("rice", "mushroom"));
+
+        assertEquals(List.of(soupId), recipeSearchIndex.search("pasta", PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(pastaId), recipeSearchIndex.search("risotto", PageRequest.of(0, 10)).getContent());
+        assertEquals(3, recipeSearchIndex.size());
+    }
+
+    @Test
+    void remove_shouldDropRecipeFromResults() {
+        recipeSearchIndex.remove(soupId);
+
+        assertEquals(List.of(saladId), recipeSearchIndex.search("tomato", PageRequest.of(0, 10)).getContent());
+        assertEquals(2, recipeSearchIndex.size());
+    }
+
+    @Test
+    void rebuild_shouldLoadRecipesAndIngredientsFromRepository() {
+        UUID id = UUID.randomUUID();
+        SearchableRecipe recipe = searchableRecipe(id, "Banana Bread", "Moist and sweet");
+        RecipeIngredient ingredient = recipeIngredient(id, "walnuts");
+
+        when(recipeRepository.findAllSearchable(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(recipe), PageRequest.of(0, 1000), false));
+        when(recipeRepository.findIngredientsByRecipeIdIn(anyCollection())).thenReturn(List.of(ingredient));
+
+        recipeSearchIndex.rebuild();
+
+        assertEquals(1, recipeSearchIndex.size());
+        assertEquals(List.of(id), recipeSearchIndex.search("walnuts", PageRequest.of(0, 10)).getContent());
+        assertTrue(recipeSearchIndex.search("pasta", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    private static SearchableRecipe searchableRecipe(UUID id, String title, String description) {
+        return new SearchableRecipe() {
+            public UUID getId() {
+                return id;
+            }
+
+            public String getTitle() {
+                return title;
+            }
+
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+
+    private static RecipeIngredient recipeIngredient(UUID recipeId, String ingredient) {
+        return new RecipeIngredient() {
+            public UUID getRecipeId() {
+                return recipeId;
+            }
+
+            public String getIngredient() {
+                return ingredient;
+            }
+        };
+    }
+}
@@ -7,27 +7,55 @@ import app.category.repository.CategoryRepository;
 import app.category.service.CategoryService;
 import app.cloudinary.dto.ImageUploadResult;
 import app.cloudinary.service.CloudinaryService;
+import app.comment.model.Comment;
+import app.comment.repository.CommentRepository;
 import app.config.EventCaptureConfig;
+import app.exception.RecipeNotFoundException;
+import app.favorite.model.Favorite;
+import app.favorite.repository.FavoriteRepository;
+import app.like.model.Like;
+import app.like.repository.LikeRepository;
+import app.like.service.LikeCounter;
+import app.recipe.model.ImageStatus;
 import app.recipe.model.Recipe;
+import app.recipe.model.RecipeSnapshot;
 import app.recipe.repository.RecipeRepository;
 import app.recipe.service.RecipeService;
+import app.scheduler.LikeCountFlushScheduler;
 import app.user.model.User;
 import app.user.repository.UserRepository;
 import app.user.service.UserService;
 import app.web.dto.AddRecipe;
+import app.web.dto.CursorPage;
 import app.web.dto.EditRecipe;
+import app.web.dto.RecipeDetails;
+import app.web.dto.RecipeForAdminPageInfo;
 import com.github.tomakehurst.wiremock.WireMockServer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import static app.TestBuilder.*;
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verify;
@@ -55,6 +83,24 @@ public class RecipeServiceIT {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LikeCounter likeCounter;
+
+    @Autowired
+    private LikeCountFlushScheduler likeCountFlushScheduler;
+
     @MockitoBean
     private CloudinaryService cloudinaryService;
 
@@ -68,7 +114,7 @@ public class RecipeServiceIT {
         wireMockServer = new WireMockServer(8081); // Same port as the real service
         wireMockServer.start();
 
-        wireMockServer.stubFor(post(urlEqualTo("/api/v1/activity-log"))
+        wireMockServer.stubFor(post(urlEqualTo("/api/v1/activity-log/batch"))
                 .willReturn(aResponse().withStatus(200))); // Mock successful response
 
         Category randomCategory1 = aRandomCategoryWithoutId();
@@ -80,6 +126,8 @@ public class RecipeServiceIT {
 
     @AfterEach
     void cleanUp() {
+        likeRepository.deleteAll();
+        favoriteRepository.deleteAll();
         recipeRepository.deleteAll();
         userRepository.deleteAll();
     }
@@ -90,7 +138,7 @@ public class RecipeServiceIT {
     }
 
     @Test
-    public void testCreate_shouldCreateRecipe() {
+    public void testCreate_shouldCreateRecipe() throws IOException {
         AddRecipe addRecipe = aRandomAddRecipe();
         User randomUser = aRandomWithoutId();
 
@@ -98,10 +146,12 @@ public class RecipeServiceIT {
 
         MultipartFile newImage = mock(MultipartFile.class);
         addRecipe.setImage(newImage);
+        Path stagedImage = Files.createTempFile("recipe-image-", ".upload");
         ImageUploadResult uploadResult = new ImageUploadResult("http://newimageurl.com", "newPublicId");
 
-        // Mock Cloudinary service's uploadImage method
-        when(cloudinaryService.uploadImage(newImage)).thenReturn(uploadResult);
+        // Mock Cloudinary service's stageImage and uploadImage methods
+        when(cloudinaryService.stageImage(newImage)).thenReturn(stagedImage);
+        when(cloudinaryService.uploadImage(stagedImage)).thenReturn(uploadResult);
 
         Recipe recipe = recipeService.create(addRecipe, user.getId());
 
@@ -109,8 +159,17 @@ public class RecipeServiceIT {
         ActivityLogEvent event = capturedEvents.get(0);
         String expectedMessage = "You have successfully added recipe: " + recipe.getTitle();
 
-        assertEquals("newPublicId", recipe.getImagePublicId());
-        assertEquals("http://newimageurl.com", recipe.getImage());
+        assertEquals(RecipeService.PLACEHOLDER_IMAGE, recipe.getImage());
+
+        // The upload runs in the background and updates the row when it finishes
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            Recipe uploaded = recipeRepository.findById(recipe.getId()).orElseThrow();
+
+            assertEquals(ImageStatus.READY, uploaded.getImageStatus());
+            assertEquals("newPublicId", uploaded.getImagePublicId());
+            assertEquals("http://newimageurl.com", uploaded.getImage());
+        });
+        assertFalse(Files.exists(stagedImage));
 
         assertFalse(capturedEvents.isEmpty(), "No events were captured!");
         assertEquals(expectedMessage, event.getAction());
@@ -119,7 +178,7 @@ public class RecipeServiceIT {
     }
 
     @Test
-    void testUpdate_shouldUpdateRecipe() {
+    void testUpdate_shouldUpdateRecipe() throws IOException {
         User user = aRandomWithoutId();
         EditRecipe editRecipe = EditRecipe.builder()
                 .title("newTitle")
@@ -144,15 +203,21 @@ public class RecipeServiceIT {
         // Mock the CloudinaryService to simulate deleting the old image
         doNothing().when(cloudinaryService).deleteImage("oldPublicId");
 
-        // Mock the uploadImage method to simulate uploading the new image
+        // Mock the stageImage and uploadImage methods to simulate uploading the new image
         MultipartFile newImage = mock(MultipartFile.class);
         editRecipe.setImage(newImage);
+        Path stagedImage = Files.createTempFile("recipe-image-", ".upload");
         ImageUploadResult uploadResult = new ImageUploadResult("newPublicId", "http://newimageurl.com");
-        when(cloudinaryService.uploadImage(newImage)).thenReturn(uploadResult);
+        when(cloudinaryService.stageImage(newImage)).thenReturn(stagedImage);
+        when(cloudinaryService.uploadImage(stagedImage)).thenReturn(uploadResult);
 
         recipeService.update(editRecipe);
 
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertEquals(ImageStatus.READY, recipeRepository.findById(save.getId()).orElseThrow().getImageStatus()));
+
         Recipe updatedRecipe = recipeRepository.findById(save.getId()).get();
+        verify(cloudinaryService, times(1)).deleteImage("oldPublicId");
 
         List<ActivityLogEvent> capturedEvents = eventCaptureConfig.getCapturedEvents();
         ActivityLogEvent event = capturedEvents.get(0);
@@ -221,4 +286,193 @@ public class RecipeServiceIT {
 
         verify(cloudinaryService, times(1)).deleteImage("oldPublicId");
     }
+
+    @Test
+    void testGetAllAfter_shouldWalkAllRecipesNewestFirst() {
+        User user = userRepository.save(aRandomWithoutId());
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+
+        // Two recipes share a timestamp so the id has to break the tie
+        for (LocalDateTime createdDate : List.of(now, now, now.minusHours(1), now.minusHours(2), now.minusHours(3))) {
+            Recipe recipe = aRandomRecipeWithoutId();
+            recipe.setCreatedBy(user);
+            recipe.setCreatedDate(createdDate);
+            recipeRepository.save(recipe);
+        }
+
+        List<Recipe> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Recipe> page = recipeService.getAllAfter(cursor, 2);
+            walked.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<Recipe> expected = recipeService.getAll(PageRequest.of(0, 10)).getContent();
+
+        assertEquals(5, walked.size());
+        assertEquals(expected.stream().map(Recipe::getId).toList(), walked.stream().map(Recipe::getId).toList());
+    }
+
+    @Test
+    void testGetDetails_shouldLoadViewerStateWithinTwoStatements() {
+        User creator = userRepository.save(aRandomWithoutId());
+        User viewer = aRandomWithoutId();
+        viewer.setUsername("viewer");
+        viewer.setEmail("viewer@example.com");
+        viewer = userRepository.save(viewer);
+
+        Recipe recipe = aRandomRecipeWithoutId();
+        recipe.setCreatedBy(creator);
+        recipe.setLikeCount(1);
+        recipe = recipeRepository.save(recipe);
+
+        likeRepository.save(Like.builder().user(creator).recipe(recipe).build());
+        likeRepository.save(Like.builder().user(viewer).recipe(recipe).build());
+        favoriteRepository.save(Favorite.builder().user(viewer).recipe(recipe).build());
+        // The second like has not been flushed yet and is only known to the counter
+        likeCounter.increment(recipe.getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        RecipeDetails viewerDetails = recipeService.getDetails(recipe.getId(), viewer.getId());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(recipe.getTitle(), viewerDetails.getTitle());
+        assertEquals(creator.getUsername(), viewerDetails.getCreator());
+        assertEquals(List.copyOf(recipe.getIngredients()), viewerDetails.getIngredients());
+        assertEquals(2, viewerDetails.getLikes());
+        assertTrue(viewerDetails.isLiked());
+        assertTrue(viewerDetails.isFavorite());
+
+        RecipeDetails creatorDetails = recipeService.getDetails(recipe.getId(), creator.getId());
+
+        assertTrue(creatorDetails.isLiked());
+        assertFalse(creatorDetails.isFavorite());
+
+        likeCountFlushScheduler.flushLikeCounts();
+
+        assertEquals(2, recipeRepository.findById(recipe.getId()).orElseThrow().getLikeCount());
+        assertEquals(2, recipeService.getDetails(recipe.getId(), viewer.getId()).getLikes());
+    }
+
+    @Test
+    void testAfterSingletonsInstantiated_shouldBackfillLikeCounts_whenLikesAreUncounted() {
+        User creator = userRepository.save(aRandomWithoutId());
+        Recipe recipe = aRandomRecipeWithoutId();
+        recipe.setCreatedBy(creator);
+        recipe = recipeRepository.save(recipe);
+        likeRepository.save(Like.builder().user(creator).recipe(recipe).build());
+
+        assertTrue(recipeService.hasUncountedLikes());
+
+        likeCountFlushScheduler.afterSingletonsInstantiated();
+
+        assertEquals(1, recipeRepository.findById(recipe.getId()).orElseThrow().getLikeCount());
+        assertFalse(recipeService.hasUncountedLikes());
+    }
+
+    @Test
+    void testDelete_shouldDeleteCommentsLikesAndFavoritesWithoutLoadingThem() {
+        User creator = userRepository.save(aRandomWithoutId());
+        Recipe recipe = aRandomRecipeWithoutId();
+        recipe.setCreatedBy(creator);
+        recipe.setCategories(categoryRepository.findAll());
+        recipe = recipeRepository.save(recipe);
+
+        for (int i = 0; i < 5; i++) {
+            User viewer = aRandomWithoutId();
+            viewer.setUsername("viewer" + i);
+            viewer.setEmail("viewer" + i + "@example.com");
+            viewer = userRepository.save(viewer);
+
+            commentRepository.save(Comment.builder().content("Nice").creator(viewer).recipe(recipe).createdDate(LocalDateTime.now()).build());
+            likeRepository.save(Like.builder().user(viewer).recipe(recipe).build());
+            favoriteRepository.save(Favorite.builder().user(viewer).recipe(recipe).build());
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        recipeService.delete(recipe.getId());
+        eventCaptureConfig.clearCapturedEvents();
+
+        // One select, then one delete per table however many rows refer to the recipe
+        assertEquals(6, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(recipeRepository.existsById(recipe.getId()));
+        assertEquals(0, commentRepository.count());
+        assertEquals(0, likeRepository.count());
+        assertEquals(0, favoriteRepository.count());
+        assertEquals(2, categoryRepository.count());
+    }
+
+    @Test
+    void testGetSnapshot_shouldBeCachedUntilRecipeChanges() {
+        User user = userRepository.save(aRandomWithoutId());
+        Recipe recipe = aRandomRecipeWithoutId();
+        recipe.setCreatedBy(user);
+        recipe = recipeRepository.save(recipe);
+        UUID recipeId = recipe.getId();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        RecipeSnapshot first = recipeService.getSnapshot(recipeId);
+        RecipeSnapshot second = recipeService.getSnapshot(recipeId);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertSame(first, second);
+        assertEquals(user.getId(), first.getCreatorId());
+
+        EditRecipe editRecipe = EditRecipe.builder()
+                .id(recipeId)
+                .title("newTitle")
+                .description(recipe.getDescription())
+                .instructions(recipe.getInstructions())
+                .categories(List.of(CategoryName.MAIN_COURSE))
+                .ingredients(String.join(",", recipe.getIngredients()))
+                .cookTime(recipe.getCookTime())
+                .prepTime(recipe.getPrepTime())
+                .servings(recipe.getServings())
+                .build();
+
+        recipeService.update(editRecipe);
+
+        assertEquals("newTitle", recipeService.getSnapshot(recipeId).getTitle());
+
+        recipeService.delete(recipeId);
+
+        assertThrows(RecipeNotFoundException.class, () -> recipeService.getSnapshot(recipeId));
+
+        eventCaptureConfig.clearCapturedEvents();
+    }
+
+    @Test
+    void testGetAllForAdmin_shouldFilterSortByAuthorAndPage() {
+        User alice = aRandomWithoutId();
+        alice.setUsername("alice");
+        alice.setEmail("alice@example.com");
+        User bob = aRandomWithoutId();
+        bob.setUsername("bob");
+        bob.setEmail("bob@example.com");
+        userRepository.saveAll(List.of(alice, bob));
+
+        for (User author : List.of(bob, alice, bob)) {
+            Recipe recipe = aRandomRecipeWithoutId();
+            recipe.setTitle("Soup by " + author.getUsername());
+            recipe.setCreatedBy(author);
+            recipeRepository.save(recipe);
+        }
+
+        Page<RecipeForAdminPageInfo> firstPage = recipeService.getAllForAdmin("Soup",
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "author")));
+        Page<RecipeForAdminPageInfo> byAuthor = recipeService.getAllForAdmin("bob", PageRequest.of(0, 10, Sort.by("title")));
+
+        assertEquals(3, firstPage.getTotalElements());
+        assertEquals(List.of("alice", "bob"), firstPage.getContent().stream().map(RecipeForAdminPageInfo::getAuthor).toList());
+        assertEquals(2, byAuthor.getTotalElements());
+        assertTrue(recipeService.getAllForAdmin("Stew", PageRequest.of(0, 10)).isEmpty());
+    }
 }
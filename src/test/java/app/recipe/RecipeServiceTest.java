@@ -6,9 +6,18 @@ import app.category.model.CategoryName;
 import app.category.service.CategoryService;
 import app.cloudinary.dto.ImageUploadResult;
 import app.cloudinary.service.CloudinaryService;
+import app.config.CacheConfiguration;
+import app.exception.InvalidCursorException;
 import app.exception.RecipeNotFoundException;
+import app.like.service.LikeCounter;
+import app.recipe.event.RecipeImageStagedEvent;
+import app.recipe.event.RecipeSavedEvent;
+import app.recipe.event.RecipesDeletedEvent;
+import app.recipe.model.ImageStatus;
 import app.recipe.model.Recipe;
+import app.recipe.repository.DeletableRecipe;
 import app.recipe.repository.RecipeRepository;
+import app.recipe.search.RecipeSearchIndex;
 import app.recipe.service.RecipeService;
 import app.user.model.User;
 import app.user.service.UserService;
@@ -17,17 +26,23 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.List;
@@ -53,6 +68,18 @@ class RecipeServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private RecipeSearchIndex recipeSearchIndex;
+
+    @Mock
+    private LikeCounter likeCounter;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache recipeSnapshots;
+
     @InjectMocks
     private RecipeService recipeService;
 
@@ -80,8 +107,6 @@ class RecipeServiceTest {
                 .cookTime(30)
                 .prepTime(10)
                 .categories(new ArrayList<>())
-                .likes(new ArrayList<>())
-                .comments(new ArrayList<>())
                 .build();
     }
 
@@ -93,7 +118,9 @@ class RecipeServiceTest {
 
         Page<Recipe> recipePage = new PageImpl<>(recipes, pageable, recipes.size());
 
-        when(recipeRepository.findAll(pageable)).thenReturn(recipePage);
+        Pageable newestFirst = PageRequest.of(0, 5, Sort.by(Sort.Order.desc("createdDate"), Sort.Order.desc("id")));
+
+        when(recipeRepository.findAll(newestFirst)).thenReturn(recipePage);
 
         Page<Recipe> result = recipeService.getAll(pageable);
 
@@ -101,7 +128,57 @@ class RecipeServiceTest {
         assertEquals(1, result.getTotalElements());
         assertEquals("Test Recipe", result.getContent().get(0).getTitle());
 
-        verify(recipeRepository).findAll(pageable);
+        verify(recipeRepository).findAll(newestFirst);
+    }
+
+    @Test
+    void testGetAllAfter_shouldReturnCursor_whenMoreRecipesExist() {
+        Recipe older = aRecipeCreatedAt(LocalDateTime.now().minusDays(1));
+        Recipe oldest = aRecipeCreatedAt(LocalDateTime.now().minusDays(2));
+
+        when(recipeRepository.findNewest(PageRequest.of(0, 2))).thenReturn(List.of(recipe, older));
+
+        CursorPage<Recipe> firstPage = recipeService.getAllAfter(null, 1);
+
+        assertEquals(List.of(recipe), firstPage.getContent());
+        assertTrue(firstPage.hasNext());
+
+        KeysetCursor cursor = KeysetCursor.decode(firstPage.getNextCursor());
+        assertEquals(recipe.getCreatedDate(), cursor.getDate());
+        assertEquals(recipe.getId(), cursor.getId());
+
+        when(recipeRepository.findNewestBefore(recipe.getCreatedDate(), recipe.getId(), PageRequest.of(0, 2)))
+                .thenReturn(List.of(older, oldest));
+
+        CursorPage<Recipe> secondPage = recipeService.getAllAfter(firstPage.getNextCursor(), 1);
+
+        assertEquals(List.of(older), secondPage.getContent());
+        verify(recipeRepository, never()).count();
+    }
+
+    @Test
+    void testGetAllAfter_shouldNotReturnCursor_onLastPage() {
+        when(recipeRepository.findNewest(PageRequest.of(0, 4))).thenReturn(List.of(recipe));
+
+        CursorPage<Recipe> page = recipeService.getAllAfter(null, 3);
+
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.hasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetAllAfter_shouldThrow_whenCursorIsMalformed() {
+        assertThrows(InvalidCursorException.class, () -> recipeService.getAllAfter("not-a-cursor", 3));
+    }
+
+    private Recipe aRecipeCreatedAt(LocalDateTime createdDate) {
+        return Recipe.builder()
+                .id(UUID.randomUUID())
+                .title("Recipe")
+                .createdDate(createdDate)
+                .createdBy(user)
+                .build();
     }
 
     @Test
@@ -121,12 +198,20 @@ class RecipeServiceTest {
         assertEquals(user, recipeById.getCreatedBy());
         assertEquals(2, recipeById.getServings());
         assertEquals("test-image-url", recipeById.getImage());
-        assertEquals(0, recipeById.getComments().size());
-        assertEquals(0, recipeById.getLikes().size());
 
         verify(recipeRepository, times(1)).findById(recipeId);
     }
 
+    @Test
+    void testGetDetails_shouldThrow_whenRecipeDoesNotExist() {
+        UUID viewerId = UUID.randomUUID();
+        when(recipeRepository.findDetailsById(recipeId, viewerId)).thenReturn(Optional.empty());
+
+        assertThrows(RecipeNotFoundException.class, () -> recipeService.getDetails(recipeId, viewerId));
+
+        verify(recipeRepository, never()).findIngredientsByRecipeIdIn(any());
+    }
+
     @Test
     void testGetRecipesByCreator() {
         List<Recipe> expectedRecipes = List.of(recipe);
@@ -160,11 +245,11 @@ class RecipeServiceTest {
                 .prepTime(15)
                 .build();
 
-        ImageUploadResult uploadResult = new ImageUploadResult("image-url", "public-id");
+        Path stagedImage = Path.of("staged-image");
 
         when(recipeRepository.save(any(Recipe.class))).thenReturn(recipe);
         when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
-        when(cloudinaryService.uploadImage(any(MultipartFile.class))).thenReturn(uploadResult);
+        when(cloudinaryService.stageImage(any(MultipartFile.class))).thenReturn(stagedImage);
         when(categoryService.getByName(CategoryName.MAIN_COURSE)).thenReturn(Category.builder()
                 .name(CategoryName.MAIN_COURSE).build());
 
@@ -174,7 +259,9 @@ class RecipeServiceTest {
 
         verify(recipeRepository).save(recipe);
         verify(categoryService).getByName(CategoryName.MAIN_COURSE);
-        verify(cloudinaryService).uploadImage(any());
+        verify(cloudinaryService).stageImage(any());
+        verify(cloudinaryService, never()).deleteImage(any());
+        verify(eventPublisher).publishEvent(new RecipeImageStagedEvent(recipeId, stagedImage));
 
         //TODO: test the event action
         assertEquals("New Title", updatedRecipe.getTitle());
@@ -185,8 +272,8 @@ class RecipeServiceTest {
         assertEquals(4, updatedRecipe.getServings());
         assertEquals(45, updatedRecipe.getCookTime());
         assertEquals(15, updatedRecipe.getPrepTime());
-        assertEquals("image-url", updatedRecipe.getImage());
-        assertEquals("public-id", updatedRecipe.getImagePublicId());
+        assertEquals("test-image-url", updatedRecipe.getImage());
+        assertEquals(ImageStatus.PENDING, updatedRecipe.getImageStatus());
     }
 
     @Test
@@ -220,20 +307,28 @@ class RecipeServiceTest {
         addRecipe.setCookTime(45);
         addRecipe.setPrepTime(15);
 
-        ImageUploadResult uploadResult = new ImageUploadResult("image-url", "public-id");
+        Path stagedImage = Path.of("staged-image");
 
         when(userService.getUserById(user.getId())).thenReturn(user);
         when(recipeRepository.save(any(Recipe.class))).thenReturn(recipe);
-        when(cloudinaryService.uploadImage(any(MultipartFile.class))).thenReturn(uploadResult);
+        when(cloudinaryService.stageImage(any(MultipartFile.class))).thenReturn(stagedImage);
 
         Recipe createdRecipe = recipeService.create(addRecipe, user.getId());
 
+        ArgumentCaptor<Recipe> recipeCaptor = ArgumentCaptor.forClass(Recipe.class);
         ArgumentCaptor<ActivityLogEvent> eventCaptor = ArgumentCaptor.forClass(ActivityLogEvent.class);
 
         String actualIngredients = String.join(", ", createdRecipe.getIngredients());
 
-        verify(recipeRepository, times(1)).save(any(Recipe.class));
+        verify(recipeRepository, times(1)).save(recipeCaptor.capture());
+        verify(cloudinaryService, never()).uploadImage(any(Path.class));
+        verify(eventPublisher).publishEvent(new RecipeImageStagedEvent(recipeId, stagedImage));
+        verify(eventPublisher).publishEvent(RecipeSavedEvent.of(recipe));
         verify(eventPublisher, Mockito.times(1)).publishEvent(eventCaptor.capture());
+        verifyNoInteractions(recipeSearchIndex);
+
+        assertEquals(RecipeService.PLACEHOLDER_IMAGE, recipeCaptor.getValue().getImage());
+        assertEquals(ImageStatus.PENDING, recipeCaptor.getValue().getImageStatus());
 
         ActivityLogEvent capturedEvent = eventCaptor.getValue();
         String expectedAction = "You have successfully added recipe: " + createdRecipe.getTitle();
@@ -254,44 +349,117 @@ class RecipeServiceTest {
     }
 
     @Test
-    void deleteShouldRemoveRecipeWhenExists() {
+    void createShouldDiscardStagedImage_whenSaveFails() {
+        AddRecipe addRecipe = new AddRecipe();
+        addRecipe.setTitle("New Recipe");
+        addRecipe.setDescription("A new delicious recipe");
+        addRecipe.setIngredients("Salt, Sugar");
+        addRecipe.setInstructions("Mix well and cook");
+        addRecipe.setCategories(List.of());
+        addRecipe.setImage(mock(MultipartFile.class));
+        addRecipe.setServings(4);
+        addRecipe.setCookTime(45);
+
+        Path stagedImage = Path.of("staged-image");
+
+        when(userService.getUserById(user.getId())).thenReturn(user);
+        when(cloudinaryService.stageImage(any(MultipartFile.class))).thenReturn(stagedImage);
+        when(recipeRepository.save(any(Recipe.class))).thenThrow(new DataIntegrityViolationException("title is null"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> recipeService.create(addRecipe, user.getId()));
+
+        verify(cloudinaryService).discardStagedImage(stagedImage);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void completeImageUploadShouldIgnoreStaleUpload_whenUploadsFinishOutOfOrder() {
+        Path firstImage = Path.of("first-image");
+        Path secondImage = Path.of("second-image");
+        recipe.setImageStatus(ImageStatus.PENDING);
+        recipe.setStagedImage(secondImage.toString());
+        when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+
+        // The second edit's upload finishes first and is applied
+        assertTrue(recipeService.completeImageUpload(recipeId, secondImage, new ImageUploadResult("second-url", "second-id")));
+        // The first edit's upload finishes later and is left to the caller to release
+        assertFalse(recipeService.completeImageUpload(recipeId, firstImage, new ImageUploadResult("first-url", "first-id")));
+
+        assertEquals("second-url", recipe.getImage());
+        assertEquals("second-id", recipe.getImagePublicId());
+        assertEquals(ImageStatus.READY, recipe.getImageStatus());
+        assertNull(recipe.getStagedImage());
+        verify(cloudinaryService).deleteImage("test-image-public-id");
+        verify(cloudinaryService, never()).deleteImage("second-id");
+    }
+
+    @Test
+    void markImageUploadFailedShouldIgnoreStaleUpload_whenANewerImageIsStaged() {
+        recipe.setImageStatus(ImageStatus.PENDING);
+        recipe.setStagedImage("second-image");
         when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
 
+        recipeService.markImageUploadFailed(recipeId, Path.of("first-image"));
+
+        assertEquals(ImageStatus.PENDING, recipe.getImageStatus());
+        assertEquals("second-image", recipe.getStagedImage());
+    }
+
+    @Test
+    void deleteShouldRemoveRecipeAndItsChildrenWithBulkStatements() {
+        List<UUID> ids = List.of(recipeId);
+        when(recipeRepository.findDeletableById(recipeId)).thenReturn(Optional.of(deletable(recipe)));
+        when(recipeRepository.deleteAllByIdIn(ids)).thenReturn(1);
+        when(cacheManager.getCache(CacheConfiguration.RECIPE_SNAPSHOTS)).thenReturn(recipeSnapshots);
+
         recipeService.delete(recipeId);
 
-        verify(recipeRepository, times(1)).delete(recipe);
+        InOrder inOrder = inOrder(recipeRepository);
+        inOrder.verify(recipeRepository).deleteCommentsByRecipeIdIn(ids);
+        inOrder.verify(recipeRepository).deleteLikesByRecipeIdIn(ids);
+        inOrder.verify(recipeRepository).deleteAllByIdIn(ids);
+        verify(recipeRepository, never()).findById(any());
+        verify(recipeRepository, never()).delete(any());
+        verify(cloudinaryService).deleteImage("test-image-public-id");
+        verify(recipeSnapshots).evict(recipeId);
+        verify(eventPublisher).publishEvent(new RecipesDeletedEvent(ids));
+        verifyNoInteractions(recipeSearchIndex);
+
+        ArgumentCaptor<ActivityLogEvent> event = ArgumentCaptor.forClass(ActivityLogEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(user.getId(), event.getValue().getUserId());
+        assertEquals("You have successfully deleted recipe: " + recipe.getTitle(), event.getValue().getAction());
     }
 
     @Test
-    void testGetAllForAdmin() {
-        Recipe recipe2 = new Recipe();
-        recipe2.setId(UUID.randomUUID());
-        recipe2.setTitle("Recipe 2");
-        recipe2.setDescription("Description 2");
-        recipe2.setCreatedBy(user);
-        recipe2.setCreatedDate(LocalDateTime.now());
+    void deleteShouldThrowWhenRecipeDoesNotExist() {
+        when(recipeRepository.findDeletableById(recipeId)).thenReturn(Optional.empty());
 
-        List<Recipe> recipeList = List.of(recipe, recipe2);
+        assertThrows(RecipeNotFoundException.class, () -> recipeService.delete(recipeId));
 
-        when(recipeRepository.findAll()).thenReturn(recipeList);
+        verify(recipeRepository, never()).deleteAllByIdIn(any());
+        verifyNoInteractions(cloudinaryService);
+    }
 
-        List<Recipe> result = recipeService.getAllForAdmin();
+    @Test
+    void testGetAllForAdmin_ShouldTranslateSortAndFilter() {
+        Page<RecipeForAdminPageInfo> page = new PageImpl<>(List.of());
+        when(recipeRepository.findAdminPage(any(), any())).thenReturn(page);
 
-        assertNotNull(result);
-        assertEquals(2, result.size());
+        Page<RecipeForAdminPageInfo> result = recipeService.getAllForAdmin(" 50%_off ",
+                PageRequest.of(2, 500, Sort.by(Sort.Direction.ASC, "author")));
 
-        assertEquals(recipe.getId(), result.get(0).getId());
-        assertEquals(recipe.getTitle(), result.get(0).getTitle());
-        assertEquals(recipe.getCreatedBy().getUsername(), result.get(0).getCreatedBy().getUsername());
-        assertEquals(recipe.getCreatedDate(), result.get(0).getCreatedDate());
+        assertSame(page, result);
+        verify(recipeRepository).findAdminPage("50!%!_off%",
+                PageRequest.of(2, 100, Sort.by(Sort.Order.asc("u.username"), Sort.Order.asc("r.id"))));
+    }
 
-        assertEquals(recipe2.getId(), result.get(1).getId());
-        assertEquals(recipe2.getTitle(), result.get(1).getTitle());
-        assertEquals(recipe2.getCreatedBy().getUsername(), result.get(1).getCreatedBy().getUsername());
-        assertEquals(recipe2.getCreatedBy().getUsername(), result.get(1).getCreatedBy().getUsername());
-        assertEquals(recipe2.getCreatedDate(), result.get(1).getCreatedDate());
+    @Test
+    void testGetAllForAdmin_ShouldFallBackToNewestFirst_WhenSortIsNotAllowed() {
+        recipeService.getAllForAdmin(null, PageRequest.of(0, 20, Sort.by("description")));
 
-        verify(recipeRepository, times(1)).findAll();
+        verify(recipeRepository).findAdminPage(null,
+                PageRequest.of(0, 20, Sort.by(Sort.Order.desc("r.createdDate"), Sort.Order.desc("r.id"))));
     }
 
     @Test
@@ -307,54 +475,48 @@ class RecipeServiceTest {
         recipe2.setPrepTime(10);
         recipe2.setServings(1);
 
-        List<Recipe> recipeList = List.of(recipe, recipe2);
-        Page<Recipe> recipePage = new PageImpl<>(recipeList, pageable, recipeList.size());
+        // The index ranks recipe2 first, the repository returns them in a different order
+        Page<UUID> matches = new PageImpl<>(List.of(recipe2.getId(), recipe.getId()), pageable, 2);
 
-        when(recipeRepository.findAllByTitleContainingIgnoreCase(query, pageable)).thenReturn(recipePage);
+        when(recipeSearchIndex.search(query, pageable)).thenReturn(matches);
+        when(recipeRepository.findAllByIdIn(matches.getContent())).thenReturn(List.of(recipe, recipe2));
 
         Page<Recipe> result = recipeService.searchRecipes(query, pageable);
 
         assertNotNull(result);
         assertEquals(2, result.getContent().size());
+        assertEquals(2, result.getTotalElements());
 
-        assertEquals(recipe.getId(), result.getContent().get(0).getId());
-        assertEquals(recipe.getTitle(), result.getContent().get(0).getTitle());
+        assertEquals(recipe2.getId(), result.getContent().get(0).getId());
+        assertEquals(recipe2.getTitle(), result.getContent().get(0).getTitle());
 
-        assertEquals(recipe2.getId(), result.getContent().get(1).getId());
-        assertEquals(recipe2.getTitle(), result.getContent().get(1).getTitle());
+        assertEquals(recipe.getId(), result.getContent().get(1).getId());
+        assertEquals(recipe.getTitle(), result.getContent().get(1).getTitle());
 
-        verify(recipeRepository, times(1)).findAllByTitleContainingIgnoreCase(query, pageable);
+        verify(recipeSearchIndex, times(1)).search(query, pageable);
     }
 
-    @Test
-    void testGetRecipesByIds() {
-        UUID id1 = UUID.randomUUID();
-        UUID id2 = UUID.randomUUID();
-        List<UUID> favoriteRecipeIds = List.of(id1, id2);
-
-        Recipe recipe1 = new Recipe();
-        recipe1.setId(id1);
-        recipe1.setTitle("Spaghetti Bolognese");
-
-        Recipe recipe2 = new Recipe();
-        recipe2.setId(id2);
-        recipe2.setTitle("Chicken Curry");
-
-        List<Recipe> expectedRecipes = List.of(recipe1, recipe2);
-
-        when(recipeRepository.findAllByIdIn(favoriteRecipeIds)).thenReturn(expectedRecipes);
-
-        List<Recipe> result = recipeService.getRecipesByIds(favoriteRecipeIds);
-
-        assertNotNull(result);
-        assertEquals(2, result.size());
-
-        assertEquals(id1, result.get(0).getId());
-        assertEquals("Spaghetti Bolognese", result.get(0).getTitle());
-
-        assertEquals(id2, result.get(1).getId());
-        assertEquals("Chicken Curry", result.get(1).getTitle());
-
-        verify(recipeRepository, times(1)).findAllByIdIn(favoriteRecipeIds);
+    private static DeletableRecipe deletable(Recipe recipe) {
+        return new DeletableRecipe() {
+            @Override
+            public UUID getId() {
+                return recipe.getId();
+            }
+
+            @Override
+            public String getTitle() {
+                return recipe.getTitle();
+            }
+
+            @Override
+            public UUID getCreatorId() {
+                return recipe.getCreatedBy().getId();
+            }
+
+            @Override
+            public String getImagePublicId() {
+                return recipe.getImagePublicId();
+            }
+        };
     }
-}
\ No newline at end of file
+}
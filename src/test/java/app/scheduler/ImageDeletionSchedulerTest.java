@@ -0,0 +1,122 @@
+package app.scheduler;
+
+import app.cloudinary.model.PendingImageDeletion;
+import app.cloudinary.repository.PendingImageDeletionRepository;
+import app.cloudinary.service.CloudinaryService;
+import app.exception.ImageUploadException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageDeletionSchedulerTest {
+
+    @Mock
+    private PendingImageDeletionRepository pendingImageDeletionRepository;
+
+    @Mock
+    private CloudinaryService cloudinaryService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ImageDeletionScheduler imageDeletionScheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        imageDeletionScheduler = new ImageDeletionScheduler(pendingImageDeletionRepository, cloudinaryService, meterRegistry, 3, 1000);
+    }
+
+    @Test
+    void testDeletePendingImages_shouldRemoveDestroyedImagesFromQueue() {
+        PendingImageDeletion first = aPendingDeletion("first", 0);
+        PendingImageDeletion second = aPendingDeletion("second", 0);
+        when(pendingImageDeletionRepository.findDue(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(cloudinaryService.destroyImages(Set.of("first", "second"))).thenReturn(Set.of("first", "second"));
+
+        imageDeletionScheduler.deletePendingImages();
+
+        verify(cloudinaryService, times(1)).destroyImages(Set.of("first", "second"));
+        verify(pendingImageDeletionRepository, times(1)).deleteAllInBatch(List.of(first, second));
+        verify(pendingImageDeletionRepository, times(1)).saveAll(List.of());
+        assertEquals(2, meterRegistry.counter("images.deletion", "outcome", "deleted").count());
+    }
+
+    @Test
+    void testDeletePendingImages_shouldSkipCloudinary_whenNothingIsDue() {
+        when(pendingImageDeletionRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of());
+
+        imageDeletionScheduler.deletePendingImages();
+
+        verifyNoInteractions(cloudinaryService);
+    }
+
+    @Test
+    void testDeletePendingImages_shouldBackOff_whenCloudinaryFails() {
+        PendingImageDeletion deletion = aPendingDeletion("first", 1);
+        when(pendingImageDeletionRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(deletion));
+        when(cloudinaryService.destroyImages(any())).thenThrow(new ImageUploadException("Cloudinary is down"));
+
+        imageDeletionScheduler.deletePendingImages();
+
+        assertEquals(2, deletion.getAttempts());
+        // Second retry waits twice the initial backoff
+        assertTrue(deletion.getNextAttemptAt().isAfter(LocalDateTime.now().plusNanos(1_900_000_000)));
+        verify(pendingImageDeletionRepository, times(1)).saveAll(List.of(deletion));
+        verify(pendingImageDeletionRepository, times(1)).deleteAllInBatch(List.of());
+        assertEquals(1, meterRegistry.counter("images.deletion", "outcome", "retried").count());
+    }
+
+    @Test
+    void testDeletePendingImages_shouldGiveUp_afterMaxAttempts() {
+        PendingImageDeletion deletion = aPendingDeletion("first", 2);
+        when(pendingImageDeletionRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(deletion));
+        when(cloudinaryService.destroyImages(any())).thenReturn(Set.of());
+
+        imageDeletionScheduler.deletePendingImages();
+
+        verify(pendingImageDeletionRepository, times(1)).deleteAllInBatch(List.of(deletion));
+        assertEquals(1, meterRegistry.counter("images.deletion", "outcome", "abandoned").count());
+    }
+
+    @Test
+    void testDeletePendingImages_shouldKeepDraining_whileBatchesAreFull() {
+        List<PendingImageDeletion> fullBatch = IntStream.range(0, ImageDeletionScheduler.BATCH_SIZE)
+                .mapToObj(i -> aPendingDeletion("image-" + i, 0))
+                .toList();
+        when(pendingImageDeletionRepository.findDue(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(fullBatch, List.of());
+        when(cloudinaryService.destroyImages(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        imageDeletionScheduler.deletePendingImages();
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(pendingImageDeletionRepository, times(2)).findDue(any(LocalDateTime.class), pageable.capture());
+        assertEquals(ImageDeletionScheduler.BATCH_SIZE, pageable.getValue().getPageSize());
+    }
+
+    private static PendingImageDeletion aPendingDeletion(String publicId, int attempts) {
+        return PendingImageDeletion.builder()
+                .id(UUID.randomUUID())
+                .publicId(publicId)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+}
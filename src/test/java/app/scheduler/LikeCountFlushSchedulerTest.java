@@ -0,0 +1,89 @@
+package app.scheduler;
+
+import app.like.service.LikeCounter;
+import app.recipe.service.RecipeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LikeCountFlushSchedulerTest {
+
+    @Mock
+    private LikeCounter likeCounter;
+
+    @Mock
+    private RecipeService recipeService;
+
+    private LikeCountFlushScheduler likeCountFlushScheduler;
+
+    @BeforeEach
+    void setUp() {
+        likeCountFlushScheduler = new LikeCountFlushScheduler(likeCounter, recipeService, false);
+    }
+
+    @Test
+    void testFlushLikeCounts_shouldApplyDrainedDeltas() {
+        Map<UUID, Long> deltas = Map.of(UUID.randomUUID(), 3L);
+        when(likeCounter.drain()).thenReturn(deltas);
+
+        likeCountFlushScheduler.flushLikeCounts();
+
+        verify(recipeService, times(1)).applyLikeDeltas(deltas);
+        verify(likeCounter, never()).restore(any());
+    }
+
+    @Test
+    void testFlushLikeCounts_shouldSkipDatabase_whenNothingIsPending() {
+        when(likeCounter.drain()).thenReturn(Map.of());
+
+        likeCountFlushScheduler.flushLikeCounts();
+
+        verifyNoInteractions(recipeService);
+    }
+
+    @Test
+    void testFlushLikeCounts_shouldRestoreDeltas_whenFlushFails() {
+        Map<UUID, Long> deltas = Map.of(UUID.randomUUID(), 1L);
+        when(likeCounter.drain()).thenReturn(deltas);
+        doThrow(new QueryTimeoutException("timeout")).when(recipeService).applyLikeDeltas(deltas);
+
+        likeCountFlushScheduler.flushLikeCounts();
+
+        verify(likeCounter, times(1)).restore(deltas);
+    }
+
+    @Test
+    void testAfterSingletonsInstantiated_shouldNotRecount_whenCountsAreBackfilled() {
+        when(recipeService.hasUncountedLikes()).thenReturn(false);
+
+        likeCountFlushScheduler.afterSingletonsInstantiated();
+
+        verify(recipeService, never()).recountLikes();
+    }
+
+    @Test
+    void testAfterSingletonsInstantiated_shouldRecount_whenLikesAreUncounted() {
+        when(recipeService.hasUncountedLikes()).thenReturn(true);
+
+        likeCountFlushScheduler.afterSingletonsInstantiated();
+
+        verify(recipeService, times(1)).recountLikes();
+    }
+
+    @Test
+    void testAfterSingletonsInstantiated_shouldRecount_whenEnabled() {
+        new LikeCountFlushScheduler(likeCounter, recipeService, true).afterSingletonsInstantiated();
+
+        verify(recipeService, times(1)).recountLikes();
+        verify(recipeService, never()).hasUncountedLikes();
+    }
+}
@@ -11,6 +11,7 @@ import app.user.model.User;
 import app.user.repository.UserRepository;
 import app.user.service.UserService;
 import app.web.dto.RegisterRequest;
+import app.web.dto.UserWithRole;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
@@ -18,6 +19,9 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -62,7 +66,7 @@ public class UserServiceIT {
         wireMockServer = new WireMockServer(8081); // Same port as the real service
         wireMockServer.start();
 
-        wireMockServer.stubFor(post(urlEqualTo("/api/v1/activity-log"))
+        wireMockServer.stubFor(post(urlEqualTo("/api/v1/activity-log/batch"))
                 .willReturn(aResponse().withStatus(200))); // Mock successful response
     }
 
@@ -376,4 +380,26 @@ public class UserServiceIT {
 
         assertNotEquals(savedUser.getLastLogin(), updatedUser.getLastLogin());
     }
+
+    @Test
+    void testGetAllForAdmin_shouldFilterByPrefixAndSort() {
+        for (String username : List.of("alice", "albert", "bob", "al_x")) {
+            User user = aRandomWithoutId();
+            user.setUsername(username);
+            user.setEmail(username + "@example.com");
+            user.setRole(username.equals("albert") ? Role.ADMIN : Role.USER);
+            userRepository.save(user);
+        }
+
+        Page<UserWithRole> byUsername = userService.getAllForAdmin("al", PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "username")));
+        Page<UserWithRole> byRole = userService.getAllForAdmin(null, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "role")));
+        // The underscore is matched literally, not as a wildcard
+        Page<UserWithRole> escaped = userService.getAllForAdmin("al_", PageRequest.of(0, 10));
+
+        assertEquals(3, byUsername.getTotalElements());
+        assertEquals(List.of("alice", "albert"), byUsername.getContent().stream().map(UserWithRole::getUsername).toList());
+        assertEquals(4, byRole.getTotalElements());
+        assertEquals(Role.USER, byRole.getContent().get(0).getRole());
+        assertEquals(List.of("al_x"), escaped.getContent().stream().map(UserWithRole::getUsername).toList());
+    }
 }
@@ -19,6 +19,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -158,7 +159,7 @@ public class UserServiceTest {
         ImageUploadResult uploadResult = new ImageUploadResult("testUrl", "testId");
 
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(cloudinaryService.uploadImage(any())).thenReturn(uploadResult);
+        when(cloudinaryService.uploadImage(any(MultipartFile.class))).thenReturn(uploadResult);
 
         userService.updateProfilePicture(user.getId(), newImage);
 
@@ -171,7 +172,7 @@ public class UserServiceTest {
         assertEquals(uploadResult.getImageUrl(), savedUser.getProfilePicture());
         assertEquals(uploadResult.getPublicId(), savedUser.getImagePublicId());
 
-        verify(cloudinaryService, times(1)).uploadImage(any());
+        verify(cloudinaryService, times(1)).uploadImage(any(MultipartFile.class));
         verify(eventPublisher).publishEvent(any(ActivityLogEvent.class));
     }
 
@@ -184,7 +185,7 @@ public class UserServiceTest {
         ImageUploadResult uploadResult = new ImageUploadResult("testUrl", "testId");
 
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(cloudinaryService.uploadImage(any())).thenReturn(uploadResult);
+        when(cloudinaryService.uploadImage(any(MultipartFile.class))).thenReturn(uploadResult);
 
         userService.updateProfilePicture(user.getId(), newImage);
 
@@ -198,7 +199,7 @@ public class UserServiceTest {
         assertEquals(uploadResult.getPublicId(), savedUser.getImagePublicId());
 
         verify(cloudinaryService, times(1)).deleteImage(any());
-        verify(cloudinaryService, times(1)).uploadImage(any());
+        verify(cloudinaryService, times(1)).uploadImage(any(MultipartFile.class));
         verify(eventPublisher).publishEvent(any(ActivityLogEvent.class));
     }
 
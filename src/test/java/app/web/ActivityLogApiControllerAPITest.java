@@ -0,0 +1,83 @@
+package app.web;
+
+import app.activitylog.dto.ActivityLogPage;
+import app.activitylog.dto.ActivityLogResponse;
+import app.activitylog.model.ActivityType;
+import app.activitylog.service.ActivityLogService;
+import app.security.CustomUserDetails;
+import app.user.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ActivityLogApiController.class)
+public class ActivityLogApiControllerAPITest {
+
+    @MockitoBean
+    private ActivityLogService activityLogService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final UUID userId = UUID.randomUUID();
+    private final CustomUserDetails principal = new CustomUserDetails(userId, "user", "pass", Role.USER, true);
+
+    @Test
+    void testGetActivityLog_ShouldReturnPageOlderThanCursor() throws Exception {
+        ActivityLogResponse entry = ActivityLogResponse.builder()
+                .userId(userId)
+                .type(ActivityType.RECIPE_ADDED)
+                .subjectId(UUID.randomUUID())
+                .params(List.of("Pancakes"))
+                .createdOn(LocalDateTime.of(2024, 2, 10, 15, 30))
+                .build();
+
+        when(activityLogService.getActivityLog(userId, "abc", 10)).thenReturn(new ActivityLogPage(List.of(entry), "xyz"));
+
+        mockMvc.perform(get("/api/activity-log/{userId}", userId)
+                        .param("before", "abc")
+                        .param("size", "10")
+                        .with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[0].type").value(ActivityType.RECIPE_ADDED.getCode()))
+                .andExpect(jsonPath("$.entries[0].action").value("You have successfully added recipe: Pancakes"))
+                .andExpect(jsonPath("$.entries[0].createdOn").value("2024-02-10T15:30:00"))
+                .andExpect(jsonPath("$.nextCursor").value("xyz"));
+
+        verify(activityLogService).getActivityLog(userId, "abc", 10);
+    }
+
+    @Test
+    void testGetActivityLog_ShouldStartFromNewestEntries_WhenNoCursorIsGiven() throws Exception {
+        when(activityLogService.getActivityLog(userId, null, 20)).thenReturn(new ActivityLogPage(List.of(), null));
+
+        mockMvc.perform(get("/api/activity-log/{userId}", userId)
+                        .with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testGetActivityLog_ShouldReturnForbidden_WhenLogBelongsToAnotherUser() throws Exception {
+        UUID otherUserId = UUID.randomUUID();
+
+        mockMvc.perform(get("/api/activity-log/{userId}", otherUserId)
+                        .with(user(principal)))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(activityLogService);
+    }
+}
@@ -3,22 +3,32 @@ package app.web;
 import app.comment.model.Comment;
 import app.comment.service.CommentService;
 import app.exception.RecipeNotFoundException;
+import app.moderation.service.ModerationService;
 import app.recipe.model.Recipe;
 import app.recipe.service.RecipeService;
+import app.user.model.Role;
 import app.user.model.User;
 import app.user.service.UserService;
+import app.web.dto.PurgeSummary;
+import app.web.dto.UserWithRole;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.UUID;
 
 import static app.TestBuilder.*;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -37,17 +47,55 @@ class AdminControllerAPITest {
     @MockitoBean
     private CommentService commentService;
 
+    @MockitoBean
+    private ModerationService moderationService;
+
     @Autowired
     private MockMvc mockMvc;
 
     @Test
     void testGetAdminUserManagement() throws Exception {
+        when(userService.getAllForAdmin(any(), any())).thenReturn(appliedPage(Sort.by("u.username")));
+
         mockMvc.perform(get("/admin/users"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin-user-management"))
-                .andExpect(model().attributeExists("users"));
+                .andExpect(model().attributeExists("users"))
+                .andExpect(model().attribute("sortProperty", "username"))
+                .andExpect(model().attribute("sortDirection", "asc"));
 
-        verify(userService, times(1)).getAll();
+        verify(userService, times(1)).getAllForAdmin(null, PageRequest.of(0, 20, Sort.by("username")));
+    }
+
+    @Test
+    void testGetAdminUserManagement_ShouldPassFilterSortAndPage() throws Exception {
+        UserWithRole user = new UserWithRole(UUID.randomUUID(), "alice", "alice@example.com", Role.USER, true);
+        PageRequest pageable = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "email"));
+        PageRequest applied = PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "u.email", "u.username"));
+
+        when(userService.getAllForAdmin("al", pageable)).thenReturn(new PageImpl<>(List.of(user), applied, 11));
+
+        mockMvc.perform(get("/admin/users")
+                        .param("q", "al")
+                        .param("sort", "email,desc")
+                        .param("page", "1")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("q", "al"))
+                .andExpect(model().attribute("sortProperty", "email"))
+                .andExpect(model().attribute("sortDirection", "desc"))
+                .andExpect(content().string(containsString("alice@example.com")));
+    }
+
+    @Test
+    void testGetAdminUserManagement_ShouldShowTheAppliedSort_WhenTheRequestedOneIsNotSortable() throws Exception {
+        when(userService.getAllForAdmin(any(), any())).thenReturn(appliedPage(Sort.by("u.username")));
+
+        mockMvc.perform(get("/admin/users")
+                        .param("sort", "password,desc"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("sortProperty", "username"))
+                .andExpect(model().attribute("sortDirection", "asc"));
     }
 
     @Test
@@ -80,12 +128,16 @@ class AdminControllerAPITest {
 
     @Test
     void testGetAdminRecipeManagement() throws Exception {
+        when(recipeService.getAllForAdmin(any(), any())).thenReturn(appliedPage(Sort.by(Sort.Direction.DESC, "r.createdDate", "r.id")));
+
         mockMvc.perform(get("/admin/recipes"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin-recipe-management"))
-                .andExpect(model().attributeExists("recipes"));
+                .andExpect(model().attributeExists("recipes"))
+                .andExpect(model().attribute("sortProperty", "createdDate"))
+                .andExpect(model().attribute("sortDirection", "desc"));
 
-        verify(recipeService, times(1)).getAllForAdmin();
+        verify(recipeService, times(1)).getAllForAdmin(null, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdDate")));
     }
 
     @Test
@@ -118,12 +170,14 @@ class AdminControllerAPITest {
 
     @Test
     void testGetAdminCommentManagement() throws Exception {
+        when(commentService.getAllForAdmin(any(), any())).thenReturn(appliedPage(Sort.by(Sort.Direction.DESC, "c.createdDate", "c.id")));
+
         mockMvc.perform(get("/admin/comments"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("admin-comment-management"))
                 .andExpect(model().attributeExists("comments"));
 
-        verify(commentService, times(1)).getAll();
+        verify(commentService, times(1)).getAllForAdmin(null, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdDate")));
     }
 
     @Test
@@ -137,4 +191,72 @@ class AdminControllerAPITest {
 
         verify(commentService, times(1)).delete(comment.getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDeleteComments_ShouldDeleteSelectedComments() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        when(moderationService.deleteComments(List.of(first, second))).thenReturn(2);
+
+        mockMvc.perform(delete("/admin/comments")
+                        .param("ids", first.toString(), second.toString())
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/admin/comments?message=" + URLEncoder.encode("You have successfully deleted 2 comments", StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testDeleteComments_WhenNothingIsSelected_ShouldNotDeleteAnything() throws Exception {
+        mockMvc.perform(delete("/admin/comments")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/admin/comments?message=" + URLEncoder.encode("No comments were selected", StandardCharsets.UTF_8)));
+
+        verifyNoInteractions(moderationService);
+    }
+
+    @Test
+    void testDeactivateUsers() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        when(moderationService.deactivateUsers(List.of(userId))).thenReturn(1);
+
+        mockMvc.perform(put("/admin/users/deactivate")
+                        .param("ids", userId.toString())
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/admin/users?message=" + URLEncoder.encode("You have successfully deactivated 1 users", StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testDeleteUserComments() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        when(moderationService.deleteCommentsByAuthor(userId)).thenReturn(7);
+
+        mockMvc.perform(delete("/admin/users/{userId}/comments", userId)
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/admin/users?message=" + URLEncoder.encode("You have successfully deleted 7 comments of user with [id]: " + userId, StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testPurgeUserContent() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        when(moderationService.purgeUserContent(userId)).thenReturn(new PurgeSummary(2, 5, 3, 1));
+
+        mockMvc.perform(delete("/admin/users/{userId}/content", userId)
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/admin/users?message=" + URLEncoder.encode(
+                        "You have successfully deactivated user with [id]: " + userId + " and deleted 2 recipes, 5 comments, 3 likes and 1 favorites",
+                        StandardCharsets.UTF_8)));
+    }
+
+    // The service answers with the order it actually applied, expressed as query paths
+    private static <T> Page<T> appliedPage(Sort sort) {
+        return new PageImpl<>(List.of(), PageRequest.of(0, 20, sort), 0);
+    }
+}
@@ -3,6 +3,9 @@ package app.web;
 import app.category.model.Category;
 import app.category.service.CategoryService;
 import app.exception.CategoryNotFoundException;
+import app.recipe.model.RecipeMemberships;
+import app.recipe.service.RecipeMembershipCache;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -14,6 +17,7 @@ import java.util.UUID;
 
 import static app.TestBuilder.aRandomCategory;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -25,9 +29,17 @@ public class CategoryControllerAPITest {
     @MockitoBean
     private CategoryService categoryService;
 
+    @MockitoBean
+    private RecipeMembershipCache recipeMembershipCache;
+
     @Autowired
     private MockMvc mockMvc;
 
+    @BeforeEach
+    void setUp() {
+        when(recipeMembershipCache.get(any())).thenReturn(RecipeMemberships.EMPTY);
+    }
+
     @Test
     void testCategoryView_ShouldReturnCategoryPage() throws Exception {
         Category category = aRandomCategory();
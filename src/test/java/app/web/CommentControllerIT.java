@@ -19,9 +19,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,6 +31,7 @@ import static app.TestBuilder.aRandomRecipeWithoutId;
 import static app.TestBuilder.aRandomWithoutId;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
@@ -65,7 +68,7 @@ class CommentControllerIT {
         wireMockServer = new WireMockServer(8081); // Same port as the real service
         wireMockServer.start();
 
-        wireMockServer.stubFor(WireMock.post(urlEqualTo("/api/v1/activity-log"))
+        wireMockServer.stubFor(WireMock.post(urlEqualTo("/api/v1/activity-log/batch"))
                 .willReturn(aResponse().withStatus(201))); // Mock successful response
     }
 
@@ -151,18 +154,20 @@ class CommentControllerIT {
 
         List<ActivityLogEvent> capturedEvents = eventCaptureConfig.getCapturedEvents();
         ActivityLogEvent event = capturedEvents.get(0);
-        String expectedMessage = "You have successfully commented [%s], on recipe: %s".formatted("This is a test comment", recipe.getTitle());
+        String expectedMessage = "You have successfully commented on recipe: " + recipe.getTitle();
 
 
         assertTrue(commentRepository.existsByRecipe_Id(savedRecipe.getId()));
-        assertEquals(1, commentRepository.findAllByRecipeIdOrderByCreatedDate(savedRecipe.getId()).size());
+        assertEquals(1, commentRepository.findNewestByRecipeId(savedRecipe.getId(), PageRequest.of(0, 2)).size());
 
         assertFalse(capturedEvents.isEmpty(), "No events were captured!");
         assertEquals(expectedMessage, event.getAction());
 
         eventCaptureConfig.clearCapturedEvents();
 
-        // Verify that the mocked activity-log-service was called
-        wireMockServer.verify(1, WireMock.postRequestedFor(WireMock.urlEqualTo("/api/v1/activity-log")));
+        // Verify that the mocked activity-log-service was called once the batch was shipped
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                wireMockServer.verify(1, WireMock.postRequestedFor(WireMock.urlEqualTo("/api/v1/activity-log/batch"))
+                        .withRequestBody(WireMock.containing(recipe.getTitle()))));
     }
 }
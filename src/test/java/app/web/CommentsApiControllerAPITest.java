@@ -1,11 +1,16 @@
 package app.web;
 
 import app.comment.model.Comment;
+import app.comment.repository.CommentStatsView;
 import app.comment.service.CommentService;
+import app.comment.service.CommentStreamHub;
+import app.exception.CommentStreamFullException;
 import app.recipe.model.Recipe;
 import app.security.CustomUserDetails;
 import app.user.model.Role;
 import app.user.model.User;
+import app.web.dto.CommentByRecipe;
+import app.web.dto.CommentPage;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -13,7 +18,9 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,8 +30,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CommentsApiController.class)
 @WithMockUser
@@ -33,40 +39,100 @@ public class CommentsApiControllerAPITest {
     @MockitoBean
     private CommentService commentService;
 
+    @MockitoBean
+    private CommentStreamHub commentStreamHub;
+
     @Autowired
     private MockMvc mockMvc;
 
     @Test
     void testGetCommentsByRecipe_WhenCommentsExist_ShouldReturn200() throws Exception {
         UUID recipeId = UUID.randomUUID();
+        LocalDateTime latest = LocalDateTime.now();
 
-        User user = aRandomUser();
-        Comment comment = aRandomComment();
-        comment.setCreator(user);
-
-        List<Comment> mockComments = List.of(comment);
+        CommentByRecipe comment = new CommentByRecipe(UUID.randomUUID(), "content", "user", latest);
+        CommentPage page = new CommentPage(List.of(comment), null, "latest-cursor");
 
-        when(commentService.getCommentsByRecipeId(recipeId))
-                .thenReturn(mockComments);
+        when(commentService.getCommentStats(recipeId)).thenReturn(stats(1, latest));
+        when(commentService.getComments(recipeId, null, null, 20)).thenReturn(page);
 
         mockMvc.perform(get("/api/comments/{recipeId}", recipeId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk()) // Expect 200 OK
-                .andExpect(jsonPath("$.size()").isNotEmpty())
-                .andExpect(jsonPath("$[0].content").isNotEmpty())
-                .andExpect(jsonPath("$[0].createdBy").isNotEmpty());
+                .andExpect(header().string("ETag", "\"1-" + latest + "\""))
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$.comments[0].content").isNotEmpty())
+                .andExpect(jsonPath("$.comments[0].createdBy").isNotEmpty())
+                .andExpect(jsonPath("$.latestCursor").value("latest-cursor"));
+
+        verify(commentService).getComments(recipeId, null, null, 20);
+    }
+
+    @Test
+    void testGetCommentsByRecipe_WhenETagMatches_ShouldReturn304WithoutLoadingComments() throws Exception {
+        UUID recipeId = UUID.randomUUID();
+        LocalDateTime latest = LocalDateTime.now();
+
+        when(commentService.getCommentStats(recipeId)).thenReturn(stats(3, latest));
 
-        verify(commentService).getCommentsByRecipeId(recipeId);
+        mockMvc.perform(get("/api/comments/{recipeId}", recipeId)
+                        .param("since", "cursor")
+                        .header("If-None-Match", "\"3-" + latest + "\""))
+                .andExpect(status().isNotModified());
+
+        verify(commentService, never()).getComments(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetCommentsByRecipe_ShouldPassCursorsAndClampPageSize() throws Exception {
+        UUID recipeId = UUID.randomUUID();
+
+        when(commentService.getCommentStats(recipeId)).thenReturn(stats(500, LocalDateTime.now()));
+        when(commentService.getComments(recipeId, null, "older", 100))
+                .thenReturn(new CommentPage(List.of(), null, null));
+
+        mockMvc.perform(get("/api/comments/{recipeId}", recipeId)
+                        .param("before", "older")
+                        .param("size", "1000"))
+                .andExpect(status().isOk());
+
+        verify(commentService).getComments(recipeId, null, "older", 100);
     }
 
     @Test
     void testGetCommentsByRecipe_WhenNoComments_ShouldReturn204() throws Exception {
         UUID newRecipeId = UUID.randomUUID();
 
+        when(commentService.getCommentStats(newRecipeId)).thenReturn(stats(0, null));
+
         mockMvc.perform(get("/api/comments/{recipeId}", newRecipeId))
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void testStreamComments_ShouldSubscribeToRecipe() throws Exception {
+        UUID recipeId = UUID.randomUUID();
+
+        when(commentStreamHub.subscribe(recipeId)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/comments/{recipeId}/stream", recipeId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(commentStreamHub).subscribe(recipeId);
+    }
+
+    @Test
+    void testStreamComments_WhenHubIsFull_ShouldReturn503() throws Exception {
+        UUID recipeId = UUID.randomUUID();
+
+        when(commentStreamHub.subscribe(recipeId)).thenThrow(new CommentStreamFullException("full"));
+
+        mockMvc.perform(get("/api/comments/{recipeId}/stream", recipeId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     void testDeleteComment_WhenUserIsRecipeOwner_ShouldReturn200() throws Exception {
         CustomUserDetails principal = new CustomUserDetails(UUID.randomUUID(), "user", "pass", Role.USER, true);
@@ -122,4 +188,18 @@ public class CommentsApiControllerAPITest {
                         .with(csrf()))
                 .andExpect(status().isForbidden());
     }
+
+    private static CommentStatsView stats(long count, LocalDateTime latest) {
+        return new CommentStatsView() {
+            @Override
+            public long getCount() {
+                return count;
+            }
+
+            @Override
+            public LocalDateTime getLatest() {
+                return latest;
+            }
+        };
+    }
 }
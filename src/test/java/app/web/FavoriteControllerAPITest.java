@@ -6,16 +6,19 @@ import app.exception.RecipeNotFoundException;
 import app.favorite.service.FavoriteService;
 import app.security.CustomUserDetails;
 import app.user.model.Role;
+import app.web.dto.CursorPage;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -34,11 +37,32 @@ public class FavoriteControllerAPITest {
     void testGetFavoriteRecipes_ShouldReturnView() throws Exception {
         CustomUserDetails principal = new CustomUserDetails(UUID.randomUUID(), "user", "pass", Role.USER, true);
 
+        when(favoriteService.getUserFavoriteRecipes(principal.getId(), null, 12))
+                .thenReturn(new CursorPage<>(List.of(), "next-cursor"));
+
         mockMvc.perform(get("/favorites")
                         .with(user(principal)))
                 .andExpect(status().isOk())
                 .andExpect(view().name("favorite-recipes"))
-                .andExpect(model().attributeExists("favoriteRecipes"));
+                .andExpect(model().attributeExists("favoriteRecipes"))
+                .andExpect(model().attribute("nextCursor", "next-cursor"))
+                .andExpect(model().attribute("firstPage", true));
+    }
+
+    @Test
+    void testGetFavoriteRecipes_ShouldClampPageSize() throws Exception {
+        CustomUserDetails principal = new CustomUserDetails(UUID.randomUUID(), "user", "pass", Role.USER, true);
+
+        when(favoriteService.getUserFavoriteRecipes(principal.getId(), "abc", 60))
+                .thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/favorites")
+                        .param("cursor", "abc")
+                        .param("size", "1000")
+                        .with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("pageSize", 60))
+                .andExpect(model().attribute("firstPage", false));
     }
 
     @Test
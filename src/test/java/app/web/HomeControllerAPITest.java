@@ -8,7 +8,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
-import java.util.ArrayList;
+import java.util.List;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -33,7 +33,7 @@ public class HomeControllerAPITest {
 
     @Test
     public void testGetHomePage_ShouldReturnHomePage() throws Exception {
-        when(categoryService.getAll()).thenReturn(new ArrayList<>());
+        when(categoryService.getAll()).thenReturn(List.of());
 
         mockMvc.perform(get("/home"))
                 .andExpect(status().isOk())
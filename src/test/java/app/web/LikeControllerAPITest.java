@@ -1,6 +1,5 @@
 package app.web;
 
-import app.exception.RecipeAlreadyLikedException;
 import app.exception.UserCannotLikeOwnRecipeException;
 import app.like.service.LikeService;
 import app.recipe.model.Recipe;
@@ -61,19 +60,33 @@ public class LikeControllerAPITest {
     }
 
     @Test
-    void testLikeAlreadyLikedRecipe_ShouldReturnErrorPage() throws Exception {
+    void testUnlikeRecipe_ShouldSucceed() throws Exception {
         CustomUserDetails principal = new CustomUserDetails(UUID.randomUUID(), "user", "pass", Role.USER, true);
 
         Recipe recipe = aRandomRecipe();
 
-        doThrow(new RecipeAlreadyLikedException("You have already liked this recipe")).when(likeService).like(principal.getId(), recipe.getId());
+        mockMvc.perform(post("/unlike/{recipeId}", recipe.getId())
+                        .with(user(principal))
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/recipes/" + recipe.getId()));
 
-        mockMvc.perform(post("/like/{recipeId}", recipe.getId())
+        verify(likeService, times(1)).unlike(principal.getId(), recipe.getId());
+    }
+
+    @Test
+    void testToggleLike_ShouldSucceed() throws Exception {
+        CustomUserDetails principal = new CustomUserDetails(UUID.randomUUID(), "user", "pass", Role.USER, true);
+
+        Recipe recipe = aRandomRecipe();
+
+        mockMvc.perform(post("/like/{recipeId}/toggle", recipe.getId())
                         .with(user(principal))
                         .with(csrf()))
-                .andExpect(status().isOk())
-                .andExpect(view().name("error-page"))
-                .andExpect(model().attributeExists("error"));
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/recipes/" + recipe.getId()));
+
+        verify(likeService, times(1)).toggle(principal.getId(), recipe.getId());
     }
 
     @Test
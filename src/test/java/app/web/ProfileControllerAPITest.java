@@ -1,5 +1,6 @@
 package app.web;
 
+import app.activitylog.dto.ActivityLogPage;
 import app.activitylog.dto.ActivityLogResponse;
 import app.activitylog.service.ActivityLogService;
 import app.security.CustomUserDetails;
@@ -300,13 +301,14 @@ public class ProfileControllerAPITest {
 
         List<ActivityLogResponse> mockLogs = List.of(response1, response2);
 
-        when(activityLogService.getActivityLog(user.getId())).thenReturn(mockLogs);
+        when(activityLogService.getActivityLog(user.getId(), null, 20)).thenReturn(new ActivityLogPage(mockLogs, "next"));
 
         mockMvc.perform(get("/my-profile/{id}/activity-log", user.getId()))
                 .andExpect(status().isOk())
                 .andExpect(view().name("activity-log"))
                 .andExpect(model().attributeExists("activityLog"))
                 .andExpect(model().attribute("activityLog", mockLogs))
+                .andExpect(model().attribute("nextCursor", "next"))
                 .andExpect(model().attributeExists("userId"))
                 .andExpect(model().attribute("userId", user.getId()));
     }
@@ -330,7 +332,7 @@ public class ProfileControllerAPITest {
 
         List<ActivityLogResponse> mockLogs = List.of(response1, response2);
 
-        when(activityLogService.getActivityLog(user.getId())).thenReturn(mockLogs);
+        when(activityLogService.getActivityLog(user.getId(), null, 20)).thenReturn(new ActivityLogPage(mockLogs, "next"));
 
         // Perform GET request before deletion to verify logs exist
         mockMvc.perform(get("/my-profile/{id}/activity-log", user.getId()))
@@ -351,7 +353,7 @@ public class ProfileControllerAPITest {
                 .andExpect(redirectedUrl("/my-profile/" + user.getId() + "/activity-log"));
 
         // Step 3: Mock the activity log after deletion (empty)
-        Mockito.when(activityLogService.getActivityLog(user.getId())).thenReturn(Collections.emptyList());
+        Mockito.when(activityLogService.getActivityLog(user.getId(), null, 20)).thenReturn(new ActivityLogPage(Collections.emptyList(), null));
 
         // Perform GET request after deletion to verify logs are empty
         mockMvc.perform(get("/my-profile/{id}/activity-log", user.getId()))
@@ -1,16 +1,19 @@
 package app.web;
 
 import app.category.model.CategoryName;
+import app.exception.InvalidCursorException;
 import app.exception.RecipeNotFoundException;
-import app.favorite.service.FavoriteService;
-import app.like.service.LikeService;
 import app.recipe.model.Recipe;
+import app.recipe.model.RecipeMemberships;
+import app.recipe.service.RecipeMembershipCache;
 import app.recipe.service.RecipeService;
 import app.security.CustomUserDetails;
 import app.user.model.Role;
-import app.user.model.User;
 import app.web.dto.AddRecipe;
+import app.web.dto.CursorPage;
 import app.web.dto.EditRecipe;
+import app.web.dto.RecipeDetails;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -29,8 +32,8 @@ import java.util.UUID;
 
 import static app.TestBuilder.*;
 import static org.hamcrest.Matchers.*;
-import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -43,14 +46,16 @@ public class RecipeControllerAPITest {
     private RecipeService recipeService;
 
     @MockitoBean
-    private LikeService likeService;
-
-    @MockitoBean
-    private FavoriteService favoriteService;
+    private RecipeMembershipCache recipeMembershipCache;
 
     @Autowired
     private MockMvc mockMvc;
 
+    @BeforeEach
+    void setUp() {
+        when(recipeMembershipCache.get(any())).thenReturn(RecipeMemberships.EMPTY);
+    }
+
     @Test
     @WithMockUser
     void testGetAllRecipes_whenDatabaseIsEmpty() throws Exception {
@@ -103,6 +108,31 @@ public class RecipeControllerAPITest {
                 .andExpect(model().attribute("recipes", hasProperty("totalElements", is(2L))));
     }
 
+    @Test
+    void testGetAllRecipes_shouldMarkLikedAndFavoriteCards() throws Exception {
+        CustomUserDetails principal = new CustomUserDetails(UUID.randomUUID(), "user", "pass", Role.USER, true);
+        Pageable pageable = PageRequest.of(0, 3);
+        Recipe liked = aRandomRecipe();
+        Recipe favorite = aRandomRecipe();
+        RecipeMemberships memberships = RecipeMemberships.EMPTY
+                .withLiked(liked.getId(), true)
+                .withFavorite(favorite.getId(), true);
+
+        when(recipeService.getAll(pageable)).thenReturn(new PageImpl<>(List.of(liked, favorite), pageable, 2));
+        when(recipeMembershipCache.get(principal.getId())).thenReturn(memberships);
+
+        mockMvc.perform(get("/recipes/all")
+                        .param("page", "0")
+                        .param("size", "3")
+                        .with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("memberships", memberships))
+                .andExpect(content().string(containsString("Liked")))
+                .andExpect(content().string(containsString("Favorite")));
+
+        verify(recipeMembershipCache, times(1)).get(principal.getId());
+    }
+
     @Test
     @WithMockUser
     void testSearchRecipes_withMatchingResults() throws Exception {
@@ -176,15 +206,67 @@ public class RecipeControllerAPITest {
                 .andExpect(model().attribute("recipes", hasProperty("content", hasSize(0))));
     }
 
+    @Test
+    @WithMockUser
+    void testGetAllRecipes_withCursor_shouldUseKeysetPagination() throws Exception {
+        Recipe recipe = Recipe.builder()
+                .id(UUID.randomUUID())
+                .title("title1")
+                .description("description1")
+                .cookTime(2)
+                .servings(2)
+                .build();
+
+        when(recipeService.getAllAfter("cursor", 3)).thenReturn(new CursorPage<>(List.of(recipe), "next-cursor"));
+
+        mockMvc.perform(get("/recipes/all")
+                        .param("cursor", "cursor")
+                        .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("recipes"))
+                .andExpect(model().attribute("cursorMode", is(true)))
+                .andExpect(model().attribute("recipes", hasProperty("content", hasSize(1))))
+                .andExpect(model().attribute("recipes", hasProperty("nextCursor", is("next-cursor"))));
+
+        verify(recipeService, never()).getAll(any());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllRecipes_onLastNumberedPage_shouldLinkToCursor() throws Exception {
+        Pageable pageable = PageRequest.of(4, 1);
+
+        Recipe recipe = aRandomRecipe();
+        Page<Recipe> recipePage = new PageImpl<>(List.of(recipe), pageable, 10);
+
+        when(recipeService.getAll(pageable)).thenReturn(recipePage);
+
+        mockMvc.perform(get("/recipes/all")
+                        .param("page", "4")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("nextCursor", is(RecipeService.cursorAfter(recipe))));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllRecipes_withInvalidCursor_shouldReturnBadRequest() throws Exception {
+        when(recipeService.getAllAfter("broken", 3)).thenThrow(new InvalidCursorException("Invalid page cursor: broken"));
+
+        mockMvc.perform(get("/recipes/all")
+                        .param("cursor", "broken"))
+                .andExpect(status().isBadRequest())
+                .andExpect(view().name("error-page"));
+    }
+
     @Test
     void testRecipeDetails_whenRecipeExists() throws Exception {
         UUID recipeId = UUID.randomUUID();
-        Recipe recipe = aRandomRecipe();
-        recipe.setCreatedBy(User.builder().username("username").build());
+        RecipeDetails recipe = aRandomRecipeDetails();
 
         CustomUserDetails principal = new CustomUserDetails(UUID.randomUUID(), "username", "pass", Role.USER, true);
 
-        when(recipeService.getById(recipeId)).thenReturn(recipe);
+        when(recipeService.getDetails(recipeId, principal.getId())).thenReturn(recipe);
 
         mockMvc.perform(get("/recipes/" + recipeId)
                         .with(user(principal)))
@@ -203,12 +285,11 @@ public class RecipeControllerAPITest {
     @Test
     void testRecipeDetails_whenUserIsNotCreator() throws Exception {
         UUID recipeId = UUID.randomUUID();
-        Recipe recipe = aRandomRecipe();
-        recipe.setCreatedBy(User.builder().username("username").build());
+        RecipeDetails recipe = aRandomRecipeDetails();
 
         CustomUserDetails principal = new CustomUserDetails(UUID.randomUUID(), "user", "pass", Role.USER, true);
 
-        when(recipeService.getById(recipeId)).thenReturn(recipe);
+        when(recipeService.getDetails(recipeId, principal.getId())).thenReturn(recipe);
 
         mockMvc.perform(get("/recipes/" + recipeId)
                         .with(user(principal)))
@@ -225,13 +306,14 @@ public class RecipeControllerAPITest {
     }
 
     @Test
-    @WithMockUser
     void testRecipeDetails_whenRecipeDoesNotExist() throws Exception {
         UUID nonExistentId = UUID.randomUUID();
+        CustomUserDetails principal = new CustomUserDetails(UUID.randomUUID(), "user", "pass", Role.USER, true);
 
-        when(recipeService.getById(nonExistentId)).thenThrow(RecipeNotFoundException.class);
+        when(recipeService.getDetails(nonExistentId, principal.getId())).thenThrow(RecipeNotFoundException.class);
 
-        mockMvc.perform(get("/recipes/" + nonExistentId))
+        mockMvc.perform(get("/recipes/" + nonExistentId)
+                        .with(user(principal)))
                 .andExpect(status().isNotFound())
                 .andExpect(view().name("error-page"));
     }
@@ -247,11 +329,10 @@ public class RecipeControllerAPITest {
     void testRecipeDetails_whenUserHasLikedRecipe() throws Exception {
         CustomUserDetails principal = new CustomUserDetails(UUID.randomUUID(), "user", "pass", Role.USER, true);
 
-        Recipe recipe = aRandomRecipe();
-        recipe.setCreatedBy(User.builder().username("username").build());
+        RecipeDetails recipe = aRandomRecipeDetails();
+        recipe.setLiked(true);
 
-        when(recipeService.getById(recipe.getId())).thenReturn(recipe);
-        when(likeService.userHasLikedRecipe(principal.getId(), recipe.getId())).thenReturn(true);
+        when(recipeService.getDetails(recipe.getId(), principal.getId())).thenReturn(recipe);
 
         mockMvc.perform(get("/recipes/" + recipe.getId())
                         .with(user(principal)))
@@ -263,11 +344,10 @@ public class RecipeControllerAPITest {
     void testRecipeDetails_whenUserHasFavoritedRecipe() throws Exception {
         CustomUserDetails principal = new CustomUserDetails(UUID.randomUUID(), "user", "pass", Role.USER, true);
 
-        Recipe recipe = aRandomRecipe();
-        recipe.setCreatedBy(User.builder().username("username").build());
+        RecipeDetails recipe = aRandomRecipeDetails();
+        recipe.setFavorite(true);
 
-        when(recipeService.getById(recipe.getId())).thenReturn(recipe);
-        when(favoriteService.isFavorite(principal.getId(), recipe.getId())).thenReturn(true);
+        when(recipeService.getDetails(recipe.getId(), principal.getId())).thenReturn(recipe);
 
         mockMvc.perform(get("/recipes/" + recipe.getId())
                         .with(user(principal)))